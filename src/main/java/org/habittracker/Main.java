@@ -36,6 +36,7 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.habittracker.controller.MainController;
 import org.habittracker.repository.HabitRepository;
+import org.habittracker.util.StartupTimer;
 
 import java.io.IOException;
 import java.util.Objects;
@@ -50,10 +51,13 @@ public class Main extends Application {
     private static long startTimestamp; // From the main() method
     private long initStartTimestamp;   // Start of init() method
     private long startMethodTimestamp; // Start of start() method
+    private StartupTimer startupTimer;  // Per-phase timing, anchored at startTimestamp
 
     @Override
     public void init() {
         initStartTimestamp = System.currentTimeMillis();
+        startupTimer = new StartupTimer(startTimestamp > 0 ? startTimestamp : initStartTimestamp);
+        startupTimer.markPhase("launch");
         if (LOGGER.isInfoEnabled()) {
             LOGGER.info("Initializing HabitRepository...");
         }
@@ -62,6 +66,7 @@ public class Main extends Application {
         if (LOGGER.isInfoEnabled()) {
             LOGGER.info("init() completed in {} ms", System.currentTimeMillis() - initStartTimestamp);
         }
+        startupTimer.markPhase("init");
     }
 
     @Override
@@ -98,14 +103,18 @@ public class Main extends Application {
             primaryStage.show();
 
             long endTimestamp = System.currentTimeMillis(); // Timestamp when the primary stage is shown
+            startupTimer.markPhase("first frame");
 
             // Log with guards
             if (LOGGER.isInfoEnabled()) {
                 LOGGER.info("Application started successfully");
                 LOGGER.info("start() method completed in {} ms", endTimestamp - startMethodTimestamp);
-                LOGGER.info("Total startup time: {} ms", endTimestamp - startTimestamp);
+                LOGGER.info("Total startup time: {} ms", endTimestamp - startupTimer.getLaunchTimestamp());
             }
 
+            // Habit data streams in after the skeleton is on screen
+            mainController.loadInitialData(startupTimer);
+
         } catch (IOException e) {
             if (LOGGER.isErrorEnabled()) {
                 LOGGER.error("Error loading FXML file: ", e);
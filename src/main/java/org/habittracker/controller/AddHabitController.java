@@ -43,7 +43,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
 
-public class AddHabitController {
+public class AddHabitController implements RefreshableController {
 
     private static final Logger LOGGER = LogManager.getLogger(AddHabitController.class);
     private static final String CUSTOM_FREQUENCY = "Custom";
@@ -93,8 +93,7 @@ public class AddHabitController {
     }
 
     public AddHabitController() {
-        this.habitRepository = HabitRepository.getInstance();
-        this.notifier = new NotificationHelper(notificationLabel);
+        this.habitRepository = HabitRepository.getInstance(); // The notifier is created in initialize()
     }
 
 
@@ -116,7 +115,7 @@ public class AddHabitController {
 
     @FXML
     private void addHabit() {
-        int habitCount = habitRepository.getAllHabits().size();
+        int habitCount = habitRepository.getHabitCount();
         int habitLimit = 200;
 
         if (!validateInput()) {return;}
@@ -245,6 +244,17 @@ public class AddHabitController {
         startDatePicker.setValue(LocalDate.now());
     }
 
+    // Starts an empty form each time the cached view is shown again
+    @Override
+    public void refresh() {
+        clearForm();
+        colorChoiceBox.setValue("Black");
+        for (ToggleButton toggle : List.of(mondayToggle, tuesdayToggle, wednesdayToggle, thursdayToggle,
+                fridayToggle, saturdayToggle, sundayToggle)) {
+            toggle.setSelected(false);
+        }
+    }
+
     @FXML
     private void goBack() {
         mainApp.getMainController().showMainView();
@@ -25,23 +25,27 @@
 
 package org.habittracker.controller;
 
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
 import javafx.scene.layout.VBox;
 import org.habittracker.Main;
 import org.habittracker.model.Habit;
+import org.habittracker.model.HabitSummary;
 import org.habittracker.service.HabitService;
+import org.habittracker.util.HabitListDiff;
 import org.habittracker.util.NotificationColors;
 import org.habittracker.util.NotificationHelper;
 import org.habittracker.util.Notifier;
+import org.habittracker.util.UiTaskRunner;
 import java.time.LocalDate;
-import java.util.Arrays;
 import java.util.List;
-import java.util.Locale;
 
-public class HabitListController {
+public class HabitListController implements RefreshableController {
 
-    private static final String ITEM_SEPARATOR = " - ";
+    private static final String DETAILS_SEPARATOR = " - ";
+    private static final String HABIT_LIST_TASK = "habit-list";
     private static final String DETAILS_TEXT_STYLE = "-fx-text-fill: #666666;";
 
     @FXML
@@ -57,13 +61,13 @@ public class HabitListController {
     private Label notificationLabel;
 
     @FXML
-    private ListView<String> habitListView;
+    private ListView<HabitSummary> habitListView;
 
     @FXML
     private TextField searchField;
 
 
-    private Habit selectedHabit;
+    private final ObservableList<HabitSummary> habitRows = FXCollections.observableArrayList();
     private Main mainApp;
     private HabitService habitService;
     private Notifier notifier;
@@ -74,142 +78,125 @@ public class HabitListController {
         notifier = new NotificationHelper(notificationLabel);
         habitService = new HabitService(notifier);
         setupHabitListView();
-        loadHabitList();
-        searchField.textProperty().addListener((observable, oldValue, newValue) -> filterHabitList(newValue));
+        // The rows are loaded by refresh() when the view is shown, as it may be loaded off the FX thread
+        searchField.textProperty().addListener((observable, oldValue, newValue) -> loadHabitList());
     }
 
     private void setupHabitListView() {
-        habitListView.setCellFactory(lv -> new ListCell<String>() {
-            @Override
-            protected void updateItem(String item, boolean empty) {
-                super.updateItem(item, empty);
-                if (empty || item == null) {
-                    clearCell();
-                } else {
-                    configureCell(item);
-                }
-            }
+        habitListView.setItems(habitRows);
+        habitListView.setCellFactory(lv -> new HabitCell());
+    }
 
-            private void clearCell() {
+    /**
+     * Cell that builds its layout once and only swaps label text when the list view reuses it for another row.
+     */
+    private static final class HabitCell extends ListCell<HabitSummary> {
+        private static final String SELECTED_STYLE = "-fx-background-color: #cce5ff; -fx-text-fill: #333333; -fx-font-weight: bold;";
+        private static final String DEFAULT_STYLE = "-fx-background-color: #ffffff; -fx-text-fill: #333333;";
+
+        private final Label nameLabel = createLabel("habit-name");
+        private final Label detailsLabel = createLabel("habit-details");
+        private final VBox cellLayout = new VBox(5, nameLabel, detailsLabel);
+
+        private HabitCell() {
+            selectedProperty().addListener((obs, wasSelected, isSelected) -> updateCellStyle());
+        }
+
+        @Override
+        protected void updateItem(HabitSummary habit, boolean empty) {
+            super.updateItem(habit, empty);
+            if (empty || habit == null) {
                 setText(null);
                 setGraphic(null);
                 setStyle("");
-            }
-
-            private void configureCell(String item) {
-                VBox cellLayout = createCellLayout(item);
+            } else {
+                nameLabel.setText(habit.name());
+                detailsLabel.setText(habit.frequency() + DETAILS_SEPARATOR + habit.creationDate() + DETAILS_SEPARATOR
+                        + " (Streak: " + habit.streakCounter() + ")");
                 setGraphic(cellLayout);
                 updateCellStyle();
             }
+        }
 
-            private VBox createCellLayout(String item) {
-                String[] parts = item.split(ITEM_SEPARATOR);
-                String habitName = parts[0];
-                String details = String.join(ITEM_SEPARATOR, Arrays.copyOfRange(parts, 1, parts.length));
-
-                VBox cellLayout = new VBox(5);
-                Label nameLabel = createLabel(habitName, "habit-name");
-                Label detailsLabel = createLabel(details, "habit-details");
-                cellLayout.getChildren().addAll(nameLabel, detailsLabel);
-                return cellLayout;
-            }
-
-            private Label createLabel(String text, String styleClass) {
-                Label label = new Label(text);
-                label.getStyleClass().add(styleClass);
-                return label;
+        private void updateCellStyle() {
+            if (isEmpty()) {
+                return;
             }
+            setStyle(isSelected() ? SELECTED_STYLE : DEFAULT_STYLE);
+        }
 
-            private void updateCellStyle() {
-                selectedProperty().addListener((obs, wasSelected, isSelected) -> {
-                    if (isSelected) {
-                        setSelectedStyle();
-                    } else {
-                        setDefaultStyle();
-                    }
-                });
-
-                if (isSelected()) {
-                    setSelectedStyle();
-                } else {
-                    setDefaultStyle();
-                }
-            }
+        private static Label createLabel(String styleClass) {
+            Label label = new Label();
+            label.getStyleClass().add(styleClass);
+            return label;
+        }
+    }
 
-            private void setSelectedStyle() {
-                setStyle("-fx-background-color: #cce5ff; -fx-text-fill: #333333; -fx-font-weight: bold;");
-            }
+    // Habits may have been added, edited or completed since the view was last shown
+    @Override
+    public void refresh() {
+        loadHabitList();
+    }
 
-            private void setDefaultStyle() {
-                setStyle("-fx-background-color: #ffffff; -fx-text-fill: #333333;");
-            }
-        });
+    @FXML
+    private void onSearch() {
+        loadHabitList();
     }
 
-    private void filterHabitList(String query) {
-        habitListView.getItems().clear();
-        List<Habit> habits = habitService.getAllHabits();
-
-        // Filter habits based on the query (not case sensetive)
-        habits.stream()
-                .filter(habit -> habit.getName().toLowerCase(Locale.ENGLISH).startsWith(query.toLowerCase(Locale.ENGLISH)))
-                .forEach(habit -> {
-                    String streakInfo = " (Streak: " + habit.getStreakCounter() + ")";
-                    habitListView.getItems().add(habit.getName() + ITEM_SEPARATOR + habit.getFrequency() + ITEM_SEPARATOR + habit.getCreationDate() + ITEM_SEPARATOR + streakInfo);
-                });
+    // Re-reads the rows for the current search text in the background; a newer search cancels an older one
+    private void loadHabitList() {
+        String query = searchField.getText();
+        UiTaskRunner.getInstance().submit(HABIT_LIST_TASK, () -> query == null || query.isEmpty()
+                ? habitService.findSummaries()
+                : habitService.findSummariesByPrefix(query), this::showHabitList); // Not case sensitive
     }
 
+    // Replaces only the rows that changed
+    private void showHabitList(List<HabitSummary> habits) {
+        Long selectedId = selectedHabitId();
 
+        HabitListDiff.apply(habitRows, habits);
 
-    @FXML
-    private void onSearch() {
-        String query = searchField.getText();
-        if (query.isEmpty()) {
-            loadHabitList(); // Reload full list if search is cleared
-        } else {
-            filterHabitList(query);
+        if (selectedId != null && !selectedId.equals(selectedHabitId())) {
+            reselect(selectedId);
         }
     }
 
+    private void reselect(Long habitId) {
+        for (int i = 0; i < habitRows.size(); i++) {
+            if (habitId.equals(habitRows.get(i).id())) {
+                habitListView.getSelectionModel().select(i);
+                return;
+            }
+        }
+    }
 
+    private Long selectedHabitId() {
+        HabitSummary selected = habitListView.getSelectionModel().getSelectedItem();
+        return selected == null ? null : selected.id();
+    }
 
-    private void loadHabitList() {
-        habitListView.getItems().clear();
-        List<Habit> habits = habitService.getAllHabits();
-        for (Habit habit : habits) {
-            String streakInfo = " (Streak: " + habit.getStreakCounter() + ")";
-            habitListView.getItems().add(habit.getName() + ITEM_SEPARATOR + habit.getFrequency() + ITEM_SEPARATOR + habit.getCreationDate() + ITEM_SEPARATOR + streakInfo);
-        }
+    // Resolves the selected row by id through the repository cache
+    private Habit findSelectedHabit() {
+        Long habitId = selectedHabitId();
+        return habitId == null ? null : habitService.findHabitById(habitId);
     }
 
     @FXML
     public void onEditHabit() {
-        String selectedItem = habitListView.getSelectionModel().getSelectedItem();
-        if (selectedItem == null) {
+        Habit habit = findSelectedHabit();
+        if (habit == null) {
             notifier.showMessage("Please select a habit to edit.", NotificationColors.RED);
             return;
         }
 
-        String habitName = selectedItem.split(ITEM_SEPARATOR)[0];
-        Habit selectedHabit = habitService.findHabitByName(habitName);
-        mainApp.getMainController().showEditHabitView(selectedHabit);
-    }
-
-    @FXML
-    private void onHabitSelected() {
-        String selectedItem = habitListView.getSelectionModel().getSelectedItem();
-        if (selectedItem != null) {
-            String habitName = selectedItem.split(ITEM_SEPARATOR)[0];
-            selectedHabit = habitService.findHabitByName(habitName);
-        }
+        mainApp.getMainController().showEditHabitView(habit);
     }
 
     @FXML
     private void onDeleteHabit() {
-        String selectedItem = habitListView.getSelectionModel().getSelectedItem();
-        if (selectedItem != null) {
-            String habitName = selectedItem.split(ITEM_SEPARATOR)[0];
-            Habit habit = habitService.findHabitByName(habitName);
+        if (selectedHabitId() != null) {
+            Habit habit = findSelectedHabit();
             if (habit != null) {
                 habitService.deleteHabit(habit);
                 loadHabitList();
@@ -228,14 +215,16 @@ public class HabitListController {
     }
 
 
+    // Resolved on click, so an edit or completion made in another view since the row was selected is kept
     @FXML
     private void onMarkAsCompleted() {
-        if (selectedHabit != null) {
-            if (selectedHabit.getFrequency() == Habit.Frequency.CUSTOM &&
-                    !selectedHabit.getCustomDays().contains(LocalDate.now().getDayOfWeek())) {
+        Habit habit = findSelectedHabit();
+        if (habit != null) {
+            if (habit.getFrequency() == Habit.Frequency.CUSTOM &&
+                    !habit.getCustomDays().contains(LocalDate.now().getDayOfWeek())) {
                 notifier.showMessage("Today is not part of your specified habit days. Marking completion may affect statistics.", "orange");
             }
-            habitService.markHabitAsCompleted(selectedHabit);
+            habitService.markHabitAsCompleted(habit);
             loadHabitList();
         } else {
             notifier.showMessage("Please select a habit to mark as completed.", NotificationColors.RED);
@@ -244,15 +233,13 @@ public class HabitListController {
 
     @FXML
     public void onViewProgress() {
-        String selectedItem = habitListView.getSelectionModel().getSelectedItem();
-        if (selectedItem == null) {
+        Habit habit = findSelectedHabit();
+        if (habit == null) {
             notifier.showMessage("Please select a habit to view progress.", NotificationColors.RED);
             return;
         }
 
-        String habitName = selectedItem.split(ITEM_SEPARATOR)[0];
-        Habit selectedHabit = habitService.findHabitByName(habitName);
-        mainApp.getMainController().showProgressView(selectedHabit);
+        mainApp.getMainController().showProgressView(habit);
     }
 
     public void setMainApp(Main mainApp) {
@@ -265,7 +252,6 @@ public class HabitListController {
 
     public void setMainController(MainController mainController) {
         this.mainController = mainController;
-        this.notifier = new NotificationHelper(notificationLabel);
     }
 
     @FXML
@@ -25,9 +25,8 @@
 
 package org.habittracker.controller;
 
+import javafx.application.Platform;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
-import javafx.scene.Node;
 import javafx.scene.control.Label;
 import javafx.scene.control.ListCell;
 import javafx.scene.control.ListView;
@@ -36,22 +35,45 @@ import javafx.scene.layout.StackPane;
 import javafx.scene.layout.VBox;
 import org.habittracker.Main;
 import org.habittracker.model.Habit;
+import org.habittracker.model.HabitSummary;
 import org.habittracker.repository.HabitRepository;
 import org.habittracker.service.HabitReminderScheduler;
+import org.habittracker.service.HabitService;
 import org.habittracker.service.ReportGenerator;
 import org.habittracker.util.HabitCalendarPopulator;
+import org.habittracker.util.MonthDueIndex;
+import org.habittracker.util.NotificationColors;
 import org.habittracker.util.NotificationHelper;
 import org.habittracker.util.Notifier;
+import org.habittracker.util.ReminderSettings;
+import org.habittracker.util.StartupTimer;
+import org.habittracker.util.UiTaskRunner;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.io.IOException;
 import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.function.Consumer;
 
 public class MainController {
 
     private static final Logger LOGGER = LogManager.getLogger(MainController.class);
+    private static final String DUE_TODAY_TASK = "due-today";
+    private static final String MAIN_VIEW_TASK = "main-view";
+
+    // Enough for the views used in a typical session; the least recently shown one is dropped beyond this
+    private static final int VIEW_CACHE_SIZE = 5;
+    // Views that are slow to parse, loaded in the background once the first screen is ready
+    static final List<String> PREWARMED_VIEWS = List.of(
+            "/view/HabitListView.fxml", "/view/ProgressView.fxml", "/view/ReportView.fxml");
 
     // Application reference
     private Main mainApp;
@@ -66,7 +88,7 @@ public class MainController {
     @FXML
     GridPane calendarGrid;
     @FXML
-    ListView<Habit> habitsDueTodayList;
+    ListView<HabitSummary> habitsDueTodayList;
     @FXML
     private Label notificationLabel;
     @FXML
@@ -77,6 +99,14 @@ public class MainController {
     private HabitReminderScheduler reminderScheduler;
     private HabitCalendarPopulator calendarPopulator;
     private ReportGenerator reportGenerator;
+    private final ExecutorService startupExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "startup-loader");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final ViewCache viewCache = new ViewCache(VIEW_CACHE_SIZE);
+    private final UiTaskRunner uiTaskRunner = UiTaskRunner.getInstance();
 
     // State
     private boolean darkModeStatus;
@@ -87,16 +117,14 @@ public class MainController {
 
         // Initialize utilities and services
         notifier = new NotificationHelper(notificationLabel);
-        reminderScheduler = new HabitReminderScheduler(notifier, habitRepository);
+        reminderScheduler = new HabitReminderScheduler(notifier, habitRepository,
+                new ReminderSettings().getReminderTime());
         calendarPopulator = new HabitCalendarPopulator(calendarGrid, calendarMonthLabel, habitRepository);
         reportGenerator = new ReportGenerator(habitRepository, notifier);
 
         // Start reminder scheduler
         reminderScheduler.start();
 
-        // Check for missed reports
-        reportGenerator.checkForMissedReports();
-
         // Start the monthly report scheduler
         reportGenerator.startMonthlyReportScheduler();
 
@@ -104,10 +132,11 @@ public class MainController {
         Runtime.getRuntime().addShutdownHook(new Thread(() -> {
             reminderScheduler.stop();
             reportGenerator.stopScheduler();
+            startupExecutor.shutdownNow();
         }));
 
-        // Show main view initially
-        showMainView();
+        // Show an empty skeleton; habit data is streamed in by loadInitialData()
+        showSkeleton();
     }
 
     public void setMainApp(Main mainApp) {
@@ -115,30 +144,141 @@ public class MainController {
     }
 
 
+    /**
+     * Shows the main view with an empty calendar grid and a loading placeholder,
+     * without touching the database, so the first frame is independent of habit count.
+     */
+    void showSkeleton() {
+        mainView.setVisible(true);
+        dynamicViewContainer.setVisible(false);
+        habitsDueTodayList.setCellFactory(this::createHabitCellFactory);
+        habitsDueTodayList.setPlaceholder(new Label("Loading habits..."));
+        calendarPopulator.populateCalendar(LocalDate.now(), darkModeStatus, List.of());
+    }
+
+    /**
+     * Loads the habit snapshot on a background thread once the stage is visible, then
+     * streams the due-today list and the calendar onto the FX thread as each is ready.
+     *
+     * @param startupTimer Timer used to log the duration of each startup phase.
+     */
+    public void loadInitialData(StartupTimer startupTimer) {
+        LocalDate today = LocalDate.now();
+        startupExecutor.execute(() -> {
+            List<Habit> habits = HabitRepository.getInstance().getAllHabits(HabitRepository.LoadProfile.SCHEDULE);
+            startupTimer.markPhase("habit snapshot loaded (" + habits.size() + " habits)");
+
+            MonthDueIndex dueIndex = MonthDueIndex.build(YearMonth.from(today), habits);
+            List<HabitSummary> dueToday = summariesDueOn(dueIndex, today);
+            Platform.runLater(() -> {
+                showHabitsDueToday(dueToday);
+                startupTimer.markPhase("due-today list rendered");
+            });
+            Platform.runLater(() -> {
+                calendarPopulator.populateCalendar(today, darkModeStatus, dueIndex);
+                startupTimer.markPhase("calendar rendered");
+            });
+
+            // Report generation is not needed for the first screen, so it runs last
+            reportGenerator.checkForMissedReports();
+            startupTimer.markPhase("missed report check");
+
+            prewarmViews();
+            startupTimer.markPhase("views prewarmed");
+        });
+    }
+
+    // Parses views on the calling thread, before they are attached to a scene, and caches them on the FX thread.
+    // Their controllers load data in RefreshableController.refresh() once shown, so none is read here
+    private void prewarmViews() {
+        for (String fxmlPath : PREWARMED_VIEWS) {
+            try {
+                ViewCache.CachedView view = viewCache.load(fxmlPath);
+                Platform.runLater(() -> viewCache.put(fxmlPath, view));
+            } catch (IOException | RuntimeException e) {
+                // The view is loaded on first use instead
+                LOGGER.warn("Could not prewarm view {}", fxmlPath, e);
+            }
+        }
+    }
+
     public void showMainView() {
+        uiTaskRunner.cancelAll();
         mainView.setVisible(true);
         dynamicViewContainer.setVisible(false);
         dynamicViewContainer.getChildren().clear();
-        updateHabitsDueToday();
-        calendarPopulator.populateCalendar(LocalDate.now(), darkModeStatus);
+        LocalDate today = LocalDate.now();
+        uiTaskRunner.submit(MAIN_VIEW_TASK, () -> loadMainViewData(today), data -> showMainViewData(today, data));
     }
 
+    // The due-today list and the month calendar, built from one habit query
+    private record MainViewData(List<HabitSummary> dueToday, MonthDueIndex dueIndex) {}
+
+    // Runs on a background thread
+    private MainViewData loadMainViewData(LocalDate today) {
+        List<Habit> habits = HabitRepository.getInstance().getAllHabits(HabitRepository.LoadProfile.SCHEDULE);
+        MonthDueIndex dueIndex = MonthDueIndex.build(YearMonth.from(today), habits);
+        return new MainViewData(summariesDueOn(dueIndex, today), dueIndex);
+    }
+
+    private void showMainViewData(LocalDate today, MainViewData data) {
+        showHabitsDueToday(data.dueToday());
+        calendarPopulator.populateCalendar(today, darkModeStatus, data.dueIndex());
+    }
+
+    // Queries the habits in the background and fills the list on the FX thread
     public void updateHabitsDueToday() {
-        habitsDueTodayList.getItems().clear();
-        loadHabitsDueToday();
-        habitsDueTodayList.setCellFactory(this::createHabitCellFactory);
+        LocalDate today = LocalDate.now();
+        uiTaskRunner.submit(DUE_TODAY_TASK, () -> {
+            List<Habit> habits = HabitRepository.getInstance().getAllHabits(HabitRepository.LoadProfile.SCHEDULE);
+            return summariesDueOn(MonthDueIndex.build(YearMonth.from(today), habits), today);
+        }, this::showHabitsDueToday);
     }
 
-    private void loadHabitsDueToday() {
-        HabitRepository.getInstance().getAllHabits().stream()
-                .filter(this::isHabitDueToday)
-                .forEach(habitsDueTodayList.getItems()::add);
+    // The due index decides which habits are due; the summaries carry what the list renders
+    private List<HabitSummary> summariesDueOn(MonthDueIndex dueIndex, LocalDate date) {
+        Map<Long, HabitSummary> summariesById = new HashMap<>();
+        for (HabitSummary summary : HabitRepository.getInstance().findSummaries()) {
+            summariesById.put(summary.id(), summary);
+        }
+        return dueIndex.habitsDueOn(date.getDayOfMonth()).stream()
+                .map(habit -> summariesById.get(habit.getId()))
+                .filter(Objects::nonNull)
+                .toList();
     }
 
-    private ListCell<Habit> createHabitCellFactory(ListView<Habit> listView) {
+    // Completes every habit in the due-today list that is not done yet, in one transaction
+    @FXML
+    void completeAllDueToday() {
+        LocalDate today = LocalDate.now();
+        Map<Long, List<LocalDate>> datesByHabit = new LinkedHashMap<>();
+        for (HabitSummary habit : habitsDueTodayList.getItems()) {
+            if (!habit.completedToday()) {
+                datesByHabit.put(habit.id(), List.of(today));
+            }
+        }
+        if (datesByHabit.isEmpty()) {
+            notifier.showMessage("All habits due today are already completed.", NotificationColors.GREEN);
+            return;
+        }
+
+        HabitService habitService = new HabitService(notifier);
+        uiTaskRunner.submit(MAIN_VIEW_TASK, () -> {
+            habitService.markCompletedBatch(datesByHabit);
+            return loadMainViewData(today);
+        }, data -> showMainViewData(today, data));
+    }
+
+    private void showHabitsDueToday(List<HabitSummary> dueToday) {
+        habitsDueTodayList.setPlaceholder(null);
+        habitsDueTodayList.getItems().setAll(dueToday);
+        habitsDueTodayList.setCellFactory(this::createHabitCellFactory);
+    }
+
+    private ListCell<HabitSummary> createHabitCellFactory(ListView<HabitSummary> listView) {
         return new ListCell<>() {
             @Override
-            protected void updateItem(Habit habit, boolean empty) {
+            protected void updateItem(HabitSummary habit, boolean empty) {
                 super.updateItem(habit, empty);
                 if (empty || habit == null) {
                     clearCell();
@@ -153,18 +293,14 @@ public class MainController {
                 setStyle("");
             }
 
-            private void populateCell(Habit habit) {
-                setText(habit.getName());
-                boolean isCompletedToday = isHabitCompletedToday(habit);
+            private void populateCell(HabitSummary habit) {
+                setText(habit.name());
+                boolean isCompletedToday = habit.completedToday();
 
                 applyStyle(isCompletedToday);
                 setCompletionGraphic(isCompletedToday);
             }
 
-            private boolean isHabitCompletedToday(Habit habit) {
-                return habit.getLastCompletedDate() != null && habit.getLastCompletedDate().equals(LocalDate.now());
-            }
-
             private void applyStyle(boolean isCompletedToday) {
                 String backgroundColor = isCompletedToday ? "#d4edda" : "#ffffff";
                 String fontWeight = isCompletedToday ? "bold" : "normal";
@@ -182,13 +318,6 @@ public class MainController {
         };
     }
 
-
-    private boolean isHabitDueToday(Habit habit) {
-        LocalDate today = LocalDate.now();
-        return habit.getFrequency() == Habit.Frequency.DAILY ||
-                habit.getCustomDays().contains(today.getDayOfWeek());
-    }
-
     public void enableDarkMode() {
         darkModeStatus = true;
         rootStackPane.getScene().getStylesheets().add(getClass().getResource("/css/dark-theme.css").toExternalForm());
@@ -201,18 +330,28 @@ public class MainController {
 
     private void loadView(String fxmlPath, Consumer<Object> controllerSetup, String caller) {
         long startTime = System.currentTimeMillis();
+        // Results still loading for the view being left must not land in the next one
+        uiTaskRunner.cancelAll();
         try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource(fxmlPath));
-            Node view = loader.load();
-            controllerSetup.accept(loader.getController());
+            ViewCache.CachedView cached = viewCache.getIfPresent(fxmlPath);
+            boolean reused = cached != null;
+            if (!reused) {
+                cached = viewCache.load(fxmlPath);
+                viewCache.put(fxmlPath, cached);
+            }
+            controllerSetup.accept(cached.controller());
+            if (cached.controller() instanceof RefreshableController refreshable) {
+                refreshable.refresh();
+            }
 
-            dynamicViewContainer.getChildren().setAll(view);
+            dynamicViewContainer.getChildren().setAll(cached.view());
             mainView.setVisible(false);
             dynamicViewContainer.setVisible(true);
 
             long endTime = System.currentTimeMillis();
             if (LOGGER.isInfoEnabled()) {
-                LOGGER.info("View {} loaded successfully by {} in {} ms", fxmlPath, caller, (endTime - startTime));
+                LOGGER.info("View {} {} by {} in {} ms", fxmlPath, reused ? "shown from cache" : "loaded successfully",
+                        caller, (endTime - startTime));
             }
         } catch (IOException e) {
             long endTime = System.currentTimeMillis();
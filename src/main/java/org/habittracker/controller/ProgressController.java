@@ -35,20 +35,24 @@ import javafx.scene.control.Label;
 import javafx.scene.control.MenuItem;
 import javafx.scene.layout.GridPane;
 import org.habittracker.Main;
+import org.habittracker.model.CompletionBitmap;
 import org.habittracker.model.Habit;
 import org.habittracker.repository.HabitRepository;
-import org.habittracker.util.HabitStatisticsCalculator;
+import org.habittracker.util.HabitStatsSnapshot;
 import org.habittracker.util.NotificationColors;
 import org.habittracker.util.NotificationHelper;
 import org.habittracker.util.Notifier;
+import org.habittracker.util.UiTaskRunner;
 
 import java.time.LocalDate;
 import java.time.YearMonth;
 import java.time.format.TextStyle;
+import java.util.List;
 import java.util.Locale;
-import java.util.Set;
 
 public class ProgressController {
+    private static final String STATS_TASK = "progress-stats";
+
     @FXML
     private Label habitNameLabel;
     @FXML
@@ -92,6 +96,7 @@ public class ProgressController {
     private Notifier notifier;
 
     private Habit habit;
+    private HabitStatsSnapshot stats;
     private Main mainApp;
     private final HabitRepository habitRepository;
     private boolean isDarkModeEnabled;
@@ -110,6 +115,7 @@ public class ProgressController {
 
     public void setHabit(Habit habit) {
         this.habit = habit;
+        this.stats = null;
 
         this.isDarkModeEnabled = mainController.isDarkModeEnabled();
         String color = habit.getColor();
@@ -120,8 +126,17 @@ public class ProgressController {
         currentHistoryYear = LocalDate.now().getYear();
 
         populateCalendar(LocalDate.now());
-        displayStatistics();
-        updateHistoryChart();
+        clearStatistics(); // A cached view still shows the previous habit's statistics
+        loadStatistics();
+    }
+
+    private void clearStatistics() {
+        String placeholder = "...";
+        for (Label label : List.of(totalCompletionsLabel, weeklyPerformanceLabel, monthlyPerformanceLabel,
+                overallPerformanceLabel, weeklyConsistencyLabel, monthlyConsistencyLabel, bestStreakLabel)) {
+            label.setText(placeholder);
+        }
+        historyChart.getData().clear();
     }
 
     private void applyColorTheme(String color) {
@@ -207,6 +222,9 @@ public class ProgressController {
 
     @FXML
     private void showPreviousYear() {
+        if (stats == null) {
+            return; // Statistics are still loading
+        }
         int earliestYear = habitRepository.getEarliestCompletionYear(habit);
 
 
@@ -221,7 +239,7 @@ public class ProgressController {
     @FXML
     private void showNextYear() {
         int currentYear = LocalDate.now().getYear();
-        if (currentHistoryYear < currentYear) {
+        if (stats != null && currentHistoryYear < currentYear) {
             currentHistoryYear++;
             updateHistoryChart();
         }
@@ -280,7 +298,7 @@ public class ProgressController {
 
 
     private void populateCalendarDays(LocalDate firstDayOfMonth, int daysInMonth, int startDay) {
-        Set<LocalDate> completedDates = habit.getCompletedDates();
+        CompletionBitmap completedDates = habit.getCompletions();
         LocalDate today = LocalDate.now();
 
         String defaultStyle = "-fx-alignment: center; -fx-pref-width: 35; -fx-pref-height: 35;";
@@ -303,7 +321,7 @@ public class ProgressController {
     }
 
 
-    private Label createDayLabel(int day, LocalDate currentDate, Set<LocalDate> completedDates, LocalDate today, String defaultStyle) {
+    private Label createDayLabel(int day, LocalDate currentDate, CompletionBitmap completedDates, LocalDate today, String defaultStyle) {
         Label dayLabel = new Label(String.valueOf(day));
         dayLabel.setStyle(defaultStyle);
 
@@ -328,7 +346,7 @@ public class ProgressController {
     }
 
 
-    private void addContextMenuToDayLabel(Label dayLabel, LocalDate currentDate, Set<LocalDate> completedDates, LocalDate today) {
+    private void addContextMenuToDayLabel(Label dayLabel, LocalDate currentDate, CompletionBitmap completedDates, LocalDate today) {
         if (!completedDates.contains(currentDate) && !currentDate.isAfter(today)) {
             ContextMenu contextMenu = new ContextMenu();
             MenuItem markCompleteItem = new MenuItem("Mark Completed");
@@ -366,26 +384,36 @@ public class ProgressController {
                 currentStreakLabel.setText(String.valueOf(habit.getStreakCounter()));
 
                 populateCalendar(LocalDate.now());
-                displayStatistics();
-                updateHistoryChart();
+                loadStatistics();
             }
         });
     }
 
+    // Computes the statistics in the background; a habit opened since then cancels the stale result.
+    // The task works on a copy so completions marked from the calendar meanwhile cannot race with it.
+    private void loadStatistics() {
+        Habit statsHabit = new Habit(habit);
+        UiTaskRunner.getInstance().submit(STATS_TASK, () -> HabitStatsSnapshot.of(statsHabit), snapshot -> {
+            stats = snapshot;
+            displayStatistics();
+            updateHistoryChart();
+        });
+    }
+
     private void displayStatistics() {
-        int totalCompletions = habit.getCompletedDates().size();
+        int totalCompletions = stats.getTotalCompletions();
         totalCompletionsLabel.setText(String.valueOf(totalCompletions));
 
-        int weeklyPerformance = HabitStatisticsCalculator.calculateWeeklyPerformance(habit);
-        int monthlyPerformance = HabitStatisticsCalculator.calculateMonthlyPerformance(habit);
-        int overallPerformance = HabitStatisticsCalculator.calculateOverallPerformance(habit);
+        int weeklyPerformance = stats.getWeeklyPerformance();
+        int monthlyPerformance = stats.getMonthlyPerformance();
+        int overallPerformance = stats.getOverallPerformance();
 
         weeklyPerformanceLabel.setText(weeklyPerformance + "%");
         monthlyPerformanceLabel.setText(monthlyPerformance + "%");
         overallPerformanceLabel.setText(overallPerformance + "%");
 
-        int weeklyConsistency = HabitStatisticsCalculator.calculateWeeklyConsistency(habit);
-        int monthlyConsistency = HabitStatisticsCalculator.calculateMonthlyConsistency(habit);
+        int weeklyConsistency = stats.getWeeklyConsistency();
+        int monthlyConsistency = stats.getMonthlyConsistency();
 
         weeklyConsistencyLabel.setText(weeklyConsistency + " weeks");
         monthlyConsistencyLabel.setText(monthlyConsistency + " months");
@@ -404,7 +432,7 @@ public class ProgressController {
 
         boolean hasData = false; // Track if there is data for the year
         for (int month = 1; month <= 12; month++) {
-            int completions = habit.getCompletionsInMonth(currentHistoryYear, month);
+            int completions = stats.getCompletionsInMonth(currentHistoryYear, month);
             if (completions > 0) {
                 hasData = true;
             }
@@ -444,7 +472,7 @@ public class ProgressController {
     private void updateMonthView(XYChart.Series<String, Number> series) {
         int currentYear = LocalDate.now().getYear();
         for (int month = 1; month <= 12; month++) {
-            int completions = habit.getCompletionsInMonth(currentYear, month);
+            int completions = stats.getCompletionsInMonth(currentYear, month);
             String monthLabel = YearMonth.of(currentYear, month)
                     .getMonth()
                     .getDisplayName(TextStyle.SHORT, Locale.getDefault());
@@ -0,0 +1,14 @@
+package org.habittracker.controller;
+
+/**
+ * Controller of a view that {@link MainController} keeps after it is first loaded.
+ * <p>
+ * {@link #refresh()} is called on the JavaFX application thread each time the view is shown, the first time
+ * included, after the controller has been set up for that navigation. It can reload data that may have changed
+ * and reset any input left from the last visit. Views may be loaded ahead of time on another thread, so data
+ * that updates the view in the background is loaded here rather than in {@code initialize()}.
+ */
+public interface RefreshableController {
+
+    void refresh();
+}
@@ -27,6 +27,7 @@ package org.habittracker.controller;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
 import javafx.fxml.FXML;
 import javafx.scene.control.ComboBox;
 import javafx.scene.control.Label;
@@ -39,6 +40,11 @@ import org.apache.logging.log4j.Logger;
 import org.habittracker.model.HabitReportData;
 import org.habittracker.model.MonthlyReport;
 import org.habittracker.util.LocalDateAdapter;
+import org.habittracker.util.MonthlyReportTypeAdapter;
+import org.habittracker.util.NotificationColors;
+import org.habittracker.util.NotificationHelper;
+import org.habittracker.util.Notifier;
+import org.habittracker.util.UiTaskRunner;
 
 import java.io.IOException;
 import java.nio.file.Files;
@@ -46,9 +52,10 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.LocalDate;
 
-public class ReportViewController {
+public class ReportViewController implements RefreshableController {
 
     private static final Logger LOGGER = LogManager.getLogger(ReportViewController.class);
+    private static final String REPORT_TASK = "report";
 
     @FXML
     ComboBox<String> monthSelector;
@@ -67,6 +74,8 @@ public class ReportViewController {
 
     @FXML
     VBox reportContent;
+    @FXML
+    Label notificationLabel;
 
     private Path reportsDirectory = Paths.get("reports");
 
@@ -75,18 +84,24 @@ public class ReportViewController {
     }
 
     private static final Gson GSON = new GsonBuilder()
+            .registerTypeAdapter(MonthlyReport.class, new MonthlyReportTypeAdapter())
             .registerTypeAdapter(LocalDate.class, new LocalDateAdapter()) // Register the LocalDateAdapter
-            .setPrettyPrinting()
             .create();
 
     private MainController mainController;
+    private Notifier notifier;
 
     public void setMainController(MainController mainController) {
         this.mainController = mainController;
     }
 
+    public void setNotifier(Notifier notifier) {
+        this.notifier = notifier;
+    }
+
     @FXML
     public void initialize() {
+        notifier = new NotificationHelper(notificationLabel);
         habitNameColumn.setCellValueFactory(new PropertyValueFactory<>("habitName"));
         completionRateColumn.setCellValueFactory(new PropertyValueFactory<>("completionRate"));
         longestStreakColumn.setCellValueFactory(new PropertyValueFactory<>("longestStreak"));
@@ -95,6 +110,14 @@ public class ReportViewController {
         loadAvailableMonths();
     }
 
+    // New reports may have been generated since the cached view was last shown
+    @Override
+    public void refresh() {
+        monthSelector.getSelectionModel().clearSelection();
+        reportContent.setVisible(false);
+        loadAvailableMonths();
+    }
+
     void loadAvailableMonths() {
         monthSelector.getItems().clear();
         try {
@@ -109,23 +132,42 @@ public class ReportViewController {
         }
     }
 
+    // The report is parsed in the background; picking another month cancels a report that is still loading
     @FXML
     void onMonthSelected() {
         String selectedMonth = monthSelector.getValue();
         if (selectedMonth != null) {
-            loadReportData(selectedMonth);
-            reportContent.setVisible(true);
+            UiTaskRunner.getInstance().submit(REPORT_TASK, () -> readReport(selectedMonth), report -> {
+                if (report == null) {
+                    reportContent.setVisible(false);
+                    notifier.showMessage("Could not load the report for " + selectedMonth, NotificationColors.RED);
+                    return;
+                }
+                showReport(selectedMonth, report);
+                reportContent.setVisible(true);
+            });
         }
     }
 
     public void loadReportData(String month) {
+        showReport(month, readReport(month));
+    }
+
+    // Reads and parses the report file without touching any node, so it can run off the FX thread
+    private MonthlyReport readReport(String month) {
         Path reportFilePath = reportsDirectory.resolve(month + ".json");
         try (var reader = Files.newBufferedReader(reportFilePath)) {
-            MonthlyReport report = GSON.fromJson(reader, MonthlyReport.class);
+            return GSON.fromJson(reader, MonthlyReport.class);
+        } catch (IOException | JsonParseException e) {
+            LOGGER.error("Error loading report data for month: {}", month, e);
+            return null;
+        }
+    }
+
+    private void showReport(String month, MonthlyReport report) {
+        if (report != null) {
             displayReportData(report);
             reportPeriodLabel.setText("Report for " + month);
-        } catch (IOException e) {
-            LOGGER.error("Error loading report data for month: {}", month, e);
         }
     }
 
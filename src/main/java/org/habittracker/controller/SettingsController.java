@@ -26,33 +26,53 @@
 package org.habittracker.controller;
 
 import javafx.fxml.FXML;
+import javafx.scene.control.ComboBox;
 import javafx.scene.control.Label;
 import javafx.stage.FileChooser;
 import javafx.stage.Stage;
 import org.habittracker.Main;
-import org.habittracker.model.Habit;
-import org.habittracker.repository.HabitRepository;
 import org.habittracker.util.BackupScheduler;
+import org.habittracker.util.BinaryBackupHelper;
+import org.habittracker.util.IncrementalBackup;
 import org.habittracker.util.JsonBackupHelper;
 import org.habittracker.util.NotificationColors;
 import org.habittracker.util.NotificationHelper;
 import org.habittracker.util.Notifier;
+import org.habittracker.util.ReminderSettings;
 
 import java.io.File;
-import java.util.List;
+import java.time.LocalTime;
+import java.util.Locale;
 
 public class SettingsController {
 
+    private static final FileChooser.ExtensionFilter JSON_FILTER =
+            new FileChooser.ExtensionFilter("JSON Files", "*.json");
+    private static final FileChooser.ExtensionFilter BINARY_FILTER =
+            new FileChooser.ExtensionFilter("Compact Backup Files", "*" + BinaryBackupHelper.FILE_EXTENSION);
+
     private MainController mainController;
     private Main mainApp;
     Notifier notifier;
+    ReminderSettings reminderSettings = new ReminderSettings();
 
     @FXML
     Label notificationLabel;
 
+    @FXML
+    ComboBox<LocalTime> reminderTimeBox;
+
+    @FXML
+    void initialize() {
+        notifier = new NotificationHelper(notificationLabel);
+        for (int hour = 0; hour < 24; hour++) {
+            reminderTimeBox.getItems().add(LocalTime.of(hour, 0));
+        }
+        reminderTimeBox.setValue(reminderSettings.getReminderTime());
+    }
+
     public void setMainController(MainController mainController) {
         this.mainController = mainController;
-        this.notifier = new NotificationHelper(notificationLabel);
     }
 
     @FXML
@@ -62,17 +82,19 @@ public class SettingsController {
 
     @FXML
     void backupDataToJson() {
-        List<Habit> habits = HabitRepository.getInstance().getAllHabits();
-
         FileChooser fileChooser = new FileChooser();
         fileChooser.setTitle("Save Backup");
-        fileChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("JSON Files", "*.json"));
+        fileChooser.getExtensionFilters().addAll(JSON_FILTER, BINARY_FILTER);
 
         File file = fileChooser.showSaveDialog(new Stage());
 
         if (file != null) {
             String filePath = file.getAbsolutePath();
-            JsonBackupHelper.backupHabitsToJson(habits, filePath);
+            if (isBinaryBackup(file, fileChooser.getSelectedExtensionFilter())) {
+                BinaryBackupHelper.backupHabitsToBinary(filePath);
+            } else {
+                JsonBackupHelper.backupHabitsToJson(filePath);
+            }
             notifier.showMessage("Backup created successfully", NotificationColors.GREEN);
         } else {
             notifier.showMessage("Backup cancelled", NotificationColors.RED);
@@ -81,8 +103,7 @@ public class SettingsController {
 
     @FXML
     private void enableAutoBackup() {
-        List<Habit> habits = HabitRepository.getInstance().getAllHabits();
-        BackupScheduler.enableAutoBackup(habits);
+        BackupScheduler.enableAutoBackup();
         notifier.showMessage("Automatic Backup Enabled", NotificationColors.GREEN);
     }
 
@@ -96,14 +117,26 @@ public class SettingsController {
     void restoreDataFromJson() {
         FileChooser fileChooser = new FileChooser();
         fileChooser.setTitle("Select Backup File to Restore");
-        fileChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("JSON Files", "*.json"));
+        fileChooser.getExtensionFilters().addAll(JSON_FILTER, BINARY_FILTER);
 
         File file = fileChooser.showOpenDialog(new Stage());
 
         if (file != null) {
             String filePath = file.getAbsolutePath();
-            JsonBackupHelper.restoreDataFromJson(filePath);
-            notifier.showMessage("Data restored successfully from " + filePath, NotificationColors.GREEN);
+            int restored;
+            if (IncrementalBackup.isBackupFile(file.toPath())) {
+                // An automatic backup is only complete together with the snapshot and deltas next to it
+                restored = IncrementalBackup.restore(file.getAbsoluteFile().toPath().getParent());
+            } else if (isBinaryBackup(file, null)) {
+                restored = BinaryBackupHelper.restoreDataFromBinary(filePath);
+            } else {
+                restored = JsonBackupHelper.restoreDataFromJson(filePath);
+            }
+            if (restored < 0) {
+                notifier.showMessage("Could not restore data from " + filePath, NotificationColors.RED);
+            } else {
+                notifier.showMessage("Data restored successfully from " + filePath, NotificationColors.GREEN);
+            }
         } else {
             notifier.showMessage("Data restore cancelled", NotificationColors.RED);
         }
@@ -133,6 +166,17 @@ public class SettingsController {
         notifier.showMessage("Habit Reminders Disabled", NotificationColors.RED);
     }
 
+    @FXML
+    void changeReminderTime() {
+        LocalTime reminderTime = reminderTimeBox.getValue();
+        if (reminderTime == null || reminderTime.equals(reminderSettings.getReminderTime())) {
+            return;
+        }
+        reminderSettings.setReminderTime(reminderTime);
+        mainController.getReminderScheduler().setReminderTime(reminderTime);
+        notifier.showMessage("Reminders will be shown at " + reminderTime, NotificationColors.GREEN);
+    }
+
     @FXML
     void goBack() {
         mainController.showMainView();
@@ -142,4 +186,13 @@ public class SettingsController {
     void openHelp() {
         mainController.openHelp();
     }
+
+    // The file name decides the format; a name without the extension falls back to the selected filter
+    static boolean isBinaryBackup(File file, FileChooser.ExtensionFilter selectedFilter) {
+        String name = file.getName().toLowerCase(Locale.ENGLISH);
+        if (name.endsWith(BinaryBackupHelper.FILE_EXTENSION)) {
+            return true;
+        }
+        return !name.endsWith(".json") && selectedFilter == BINARY_FILTER;
+    }
 }
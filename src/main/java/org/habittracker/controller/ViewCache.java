@@ -0,0 +1,93 @@
+package org.habittracker.controller;
+
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Node;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Views loaded from FXML, kept so that each file is parsed once instead of on every navigation.
+ * <p>
+ * A view is kept together with its controller, and the least recently shown view is dropped once more than
+ * {@code capacity} views are cached, so views that are rarely opened do not stay in memory. Views can be loaded
+ * ahead of time on another thread with {@link #load(String)} and added later with {@link #put(String, CachedView)},
+ * as long as they are not attached to a scene yet. The cache itself is only used on the JavaFX application thread.
+ */
+final class ViewCache {
+    private static final Logger LOGGER = LogManager.getLogger(ViewCache.class);
+
+    private final Map<String, CachedView> views;
+    private final ViewLoader loader;
+
+    ViewCache(int capacity) {
+        this(capacity, ViewCache::loadFxml);
+    }
+
+    ViewCache(int capacity, ViewLoader loader) {
+        this.loader = loader;
+        this.views = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedView> eldest) {
+                boolean evict = size() > capacity;
+                if (evict && LOGGER.isInfoEnabled()) {
+                    LOGGER.info("View {} evicted from the view cache", eldest.getKey());
+                }
+                return evict;
+            }
+        };
+    }
+
+    /**
+     * Returns the cached view for {@code fxmlPath}, or {@code null} if it has not been loaded or was evicted.
+     */
+    CachedView getIfPresent(String fxmlPath) {
+        return views.get(fxmlPath);
+    }
+
+    /**
+     * Parses {@code fxmlPath} and creates its controller, without caching the result. May be called on any thread.
+     */
+    CachedView load(String fxmlPath) throws IOException {
+        return loader.load(fxmlPath);
+    }
+
+    /**
+     * Adds a view loaded with {@link #load(String)}, unless one is already cached for the same file.
+     */
+    void put(String fxmlPath, CachedView view) {
+        views.putIfAbsent(fxmlPath, view);
+    }
+
+    boolean contains(String fxmlPath) {
+        return views.containsKey(fxmlPath);
+    }
+
+    int size() {
+        return views.size();
+    }
+
+    void clear() {
+        views.clear();
+    }
+
+    private static CachedView loadFxml(String fxmlPath) throws IOException {
+        FXMLLoader fxmlLoader = new FXMLLoader(ViewCache.class.getResource(fxmlPath));
+        Node view = fxmlLoader.load();
+        return new CachedView(view, fxmlLoader.getController());
+    }
+
+    /**
+     * A loaded view and the controller created for it.
+     */
+    record CachedView(Node view, Object controller) {
+    }
+
+    @FunctionalInterface
+    interface ViewLoader {
+        CachedView load(String fxmlPath) throws IOException;
+    }
+}
@@ -0,0 +1,20 @@
+package org.habittracker.model;
+
+/**
+ * Outcome of a batch completion for one habit.
+ *
+ * @param habitId      Id of the habit the dates were submitted for.
+ * @param found        Whether the habit exists; when {@code false} no dates were written.
+ * @param addedCount   Number of new completion dates written.
+ * @param skippedCount Number of dates ignored because they were already completed, in the future
+ *                     or before the habit's creation date.
+ * @param streak       Current streak after the batch.
+ * @param bestStreak   Best streak after the batch.
+ */
+public record CompletionBatchResult(Long habitId, boolean found, int addedCount, int skippedCount,
+                                    int streak, int bestStreak) {
+
+    public static CompletionBatchResult notFound(Long habitId, int submittedCount) {
+        return new CompletionBatchResult(habitId, false, 0, submittedCount, 0, 0);
+    }
+}
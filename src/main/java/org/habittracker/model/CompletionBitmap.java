@@ -0,0 +1,341 @@
+package org.habittracker.model;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Compact set of completion dates stored as one bit per day in a {@code long[]}.
+ * <p>
+ * Bit {@code i} of the bitmap stands for epoch day {@code baseDay + i}. {@code baseDay} is aligned to a
+ * 64-day word boundary, so the bitmap can grow in either direction by copying whole words. Three years of
+ * daily history take about 18 words (144 bytes) instead of over a thousand boxed {@link LocalDate}s.
+ */
+public final class CompletionBitmap {
+
+    private static final long[] EMPTY = new long[0];
+    private static final int WORD_BITS = 64;
+    private static final int DAYS_PER_WEEK = 7;
+    private static final int ALL_WEEKDAYS = (1 << DAYS_PER_WEEK) - 1;
+
+    // WEEKDAY_PATTERNS[mask][weekday] has bit i set when the weekday i days after the given one is in the mask
+    private static final long[][] WEEKDAY_PATTERNS = new long[ALL_WEEKDAYS + 1][DAYS_PER_WEEK];
+
+    static {
+        for (int mask = 0; mask <= ALL_WEEKDAYS; mask++) {
+            for (int weekday = 0; weekday < DAYS_PER_WEEK; weekday++) {
+                long pattern = 0;
+                for (int bit = 0; bit < WORD_BITS; bit++) {
+                    if ((mask & (1 << ((weekday + bit) % DAYS_PER_WEEK))) != 0) {
+                        pattern |= 1L << bit;
+                    }
+                }
+                WEEKDAY_PATTERNS[mask][weekday] = pattern;
+            }
+        }
+    }
+
+    private long baseDay;
+    private long[] words = EMPTY;
+    private int cardinality;
+
+    public CompletionBitmap() {
+    }
+
+    public CompletionBitmap(CompletionBitmap other) {
+        this.baseDay = other.baseDay;
+        this.words = other.words.clone();
+        this.cardinality = other.cardinality;
+    }
+
+    /**
+     * Adds a date to the bitmap.
+     *
+     * @return {@code true} if the date was not already present.
+     */
+    public boolean add(LocalDate date) {
+        long day = date.toEpochDay();
+        ensureCovers(day);
+        int offset = (int) (day - baseDay);
+        long mask = 1L << (offset & (WORD_BITS - 1));
+        int wordIndex = offset >>> 6;
+        if ((words[wordIndex] & mask) != 0) {
+            return false;
+        }
+        words[wordIndex] |= mask;
+        cardinality++;
+        return true;
+    }
+
+    /**
+     * Removes a date from the bitmap.
+     *
+     * @return {@code true} if the date was present.
+     */
+    public boolean remove(LocalDate date) {
+        if (!contains(date)) {
+            return false;
+        }
+        int offset = (int) (date.toEpochDay() - baseDay);
+        words[offset >>> 6] &= ~(1L << (offset & (WORD_BITS - 1)));
+        cardinality--;
+        return true;
+    }
+
+    public boolean contains(LocalDate date) {
+        long offset = date.toEpochDay() - baseDay;
+        if (offset < 0 || offset >= (long) words.length * WORD_BITS) {
+            return false;
+        }
+        return (words[(int) (offset >>> 6)] & (1L << (offset & (WORD_BITS - 1)))) != 0;
+    }
+
+    public int size() {
+        return cardinality;
+    }
+
+    public boolean isEmpty() {
+        return cardinality == 0;
+    }
+
+    public void clear() {
+        words = EMPTY;
+        cardinality = 0;
+    }
+
+    /**
+     * Counts the completions between two dates, both inclusive, using popcount on whole words.
+     */
+    public int countInRange(LocalDate from, LocalDate to) {
+        return countInRange(from, to, null);
+    }
+
+    /**
+     * Counts the completions between two dates, both inclusive, that fall on a weekday in {@code weekdayMask},
+     * where bit {@link java.time.DayOfWeek#ordinal()} is set for each included weekday. Every word is masked with
+     * the weekly pattern for its first day before the popcount, so no dates are materialized.
+     */
+    public int countInRange(LocalDate from, LocalDate to, int weekdayMask) {
+        return countInRange(from, to, WEEKDAY_PATTERNS[weekdayMask & ALL_WEEKDAYS]);
+    }
+
+    private int countInRange(LocalDate from, LocalDate to, long[] patterns) {
+        if (cardinality == 0) {
+            return 0;
+        }
+        long start = Math.max(from.toEpochDay() - baseDay, 0);
+        long end = Math.min(to.toEpochDay() - baseDay, (long) words.length * WORD_BITS - 1);
+        if (start > end) {
+            return 0;
+        }
+        int firstWord = (int) (start >>> 6);
+        int lastWord = (int) (end >>> 6);
+        long firstMask = -1L << (start & (WORD_BITS - 1));
+        long lastMask = -1L >>> (WORD_BITS - 1 - (end & (WORD_BITS - 1)));
+        if (firstWord == lastWord) {
+            return Long.bitCount(words[firstWord] & firstMask & lastMask & pattern(patterns, firstWord));
+        }
+        int count = Long.bitCount(words[firstWord] & firstMask & pattern(patterns, firstWord));
+        for (int i = firstWord + 1; i < lastWord; i++) {
+            count += Long.bitCount(words[i] & pattern(patterns, i));
+        }
+        return count + Long.bitCount(words[lastWord] & lastMask & pattern(patterns, lastWord));
+    }
+
+    // 64 days are one day more than nine weeks, so each word starts one weekday after the previous one
+    private long pattern(long[] patterns, int wordIndex) {
+        if (patterns == null) {
+            return -1L;
+        }
+        return patterns[(int) Math.floorMod(baseDay + 3 + wordIndex, (long) DAYS_PER_WEEK)];
+    }
+
+    public LocalDate first() {
+        for (int i = 0; i < words.length; i++) {
+            if (words[i] != 0) {
+                return LocalDate.ofEpochDay(baseDay + (long) i * WORD_BITS + Long.numberOfTrailingZeros(words[i]));
+            }
+        }
+        return null;
+    }
+
+    public LocalDate last() {
+        for (int i = words.length - 1; i >= 0; i--) {
+            if (words[i] != 0) {
+                return LocalDate.ofEpochDay(baseDay + (long) i * WORD_BITS + (WORD_BITS - 1 - Long.numberOfLeadingZeros(words[i])));
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the latest completion strictly before {@code date}, or {@code null} if there is none.
+     */
+    public LocalDate previous(LocalDate date) {
+        long offset = Math.min(date.toEpochDay() - baseDay - 1, (long) words.length * WORD_BITS - 1);
+        if (offset < 0) {
+            return null;
+        }
+        int wordIndex = (int) (offset >>> 6);
+        long word = words[wordIndex] & (-1L >>> (WORD_BITS - 1 - (offset & (WORD_BITS - 1))));
+        while (word == 0) {
+            if (--wordIndex < 0) {
+                return null;
+            }
+            word = words[wordIndex];
+        }
+        return LocalDate.ofEpochDay(baseDay + (long) wordIndex * WORD_BITS + (WORD_BITS - 1 - Long.numberOfLeadingZeros(word)));
+    }
+
+    /**
+     * Returns the earliest completion strictly after {@code date}, or {@code null} if there is none.
+     */
+    public LocalDate next(LocalDate date) {
+        long offset = Math.max(date.toEpochDay() - baseDay + 1, 0);
+        if (offset >= (long) words.length * WORD_BITS) {
+            return null;
+        }
+        int wordIndex = (int) (offset >>> 6);
+        long word = words[wordIndex] & (-1L << (offset & (WORD_BITS - 1)));
+        while (word == 0) {
+            if (++wordIndex >= words.length) {
+                return null;
+            }
+            word = words[wordIndex];
+        }
+        return LocalDate.ofEpochDay(baseDay + (long) wordIndex * WORD_BITS + Long.numberOfTrailingZeros(word));
+    }
+
+    /**
+     * Returns the length of the run of consecutive completed days that ends on {@code date},
+     * or 0 if {@code date} is not completed. Whole words of ones are skipped without bit tests.
+     */
+    public int runEndingAt(LocalDate date) {
+        if (!contains(date)) {
+            return 0;
+        }
+        int offset = (int) (date.toEpochDay() - baseDay);
+        int wordIndex = offset >>> 6;
+        int bit = offset & (WORD_BITS - 1);
+
+        // Move the date's bit to the top of the word; leading ones are the run within this word
+        long shifted = words[wordIndex] << (WORD_BITS - 1 - bit);
+        int run = Long.numberOfLeadingZeros(~shifted);
+        if (run <= bit) {
+            return run;
+        }
+        wordIndex--;
+        while (wordIndex >= 0 && words[wordIndex] == -1L) {
+            run += WORD_BITS;
+            wordIndex--;
+        }
+        if (wordIndex >= 0) {
+            run += Long.numberOfLeadingZeros(~words[wordIndex]);
+        }
+        return run;
+    }
+
+    /**
+     * Returns the longest run of consecutive completed days, scanning whole words at a time.
+     */
+    public int longestRun() {
+        int longest = 0;
+        int current = 0;
+        for (long word : words) {
+            if (word == -1L) {
+                current += WORD_BITS;
+                continue;
+            }
+            if (word == 0) {
+                longest = Math.max(longest, current);
+                current = 0;
+                continue;
+            }
+            int position = 0;
+            while (position < WORD_BITS) {
+                long remaining = word >>> position;
+                if ((remaining & 1L) != 0) {
+                    int ones = Long.numberOfTrailingZeros(~remaining);
+                    current += ones;
+                    position += ones;
+                } else {
+                    longest = Math.max(longest, current);
+                    current = 0;
+                    if (remaining == 0) {
+                        break;
+                    }
+                    position += Long.numberOfTrailingZeros(remaining);
+                }
+            }
+        }
+        return Math.max(longest, current);
+    }
+
+    /**
+     * Visits every completion in ascending date order.
+     */
+    public void forEach(Consumer<LocalDate> action) {
+        for (int i = 0; i < words.length; i++) {
+            long word = words[i];
+            while (word != 0) {
+                int bit = Long.numberOfTrailingZeros(word);
+                action.accept(LocalDate.ofEpochDay(baseDay + (long) i * WORD_BITS + bit));
+                word &= word - 1;
+            }
+        }
+    }
+
+    public List<LocalDate> toSortedList() {
+        List<LocalDate> dates = new ArrayList<>(cardinality);
+        forEach(dates::add);
+        return dates;
+    }
+
+    public Set<LocalDate> toSet() {
+        Set<LocalDate> dates = new HashSet<>(cardinality * 2);
+        forEach(dates::add);
+        return dates;
+    }
+
+    private void ensureCovers(long day) {
+        if (words.length == 0) {
+            baseDay = Math.floorDiv(day, WORD_BITS) * WORD_BITS;
+            words = new long[1];
+            return;
+        }
+        if (day < baseDay) {
+            long newBase = Math.floorDiv(day, WORD_BITS) * WORD_BITS;
+            int extraWords = (int) ((baseDay - newBase) / WORD_BITS);
+            long[] grown = new long[words.length + extraWords];
+            System.arraycopy(words, 0, grown, extraWords, words.length);
+            words = grown;
+            baseDay = newBase;
+        } else {
+            long wordIndex = (day - baseDay) / WORD_BITS;
+            if (wordIndex >= words.length) {
+                words = Arrays.copyOf(words, (int) Math.max(wordIndex + 1, words.length + (words.length >> 1)));
+            }
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof CompletionBitmap)) {
+            return false;
+        }
+        CompletionBitmap other = (CompletionBitmap) o;
+        return cardinality == other.cardinality && toSortedList().equals(other.toSortedList());
+    }
+
+    @Override
+    public int hashCode() {
+        return toSortedList().hashCode();
+    }
+}
@@ -30,12 +30,16 @@ import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.YearMonth;
 import java.time.temporal.WeekFields;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Set;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.hibernate.annotations.BatchSize;
 
 @Entity
 @Table(name = "Habit", uniqueConstraints = {@UniqueConstraint(columnNames = "name")})
@@ -43,6 +47,9 @@ public class Habit {
 
     private static final Logger LOGGER = LogManager.getLogger(Habit.class);
 
+    // Collections of this many habits are loaded with one IN (...) query instead of one query each
+    private static final int COLLECTION_BATCH_SIZE = 100;
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     @Column(name = "id", columnDefinition = "INTEGER")
@@ -59,11 +66,13 @@ public class Habit {
     private LocalDate lastCompletedDate;
 
     @ElementCollection(fetch = FetchType.EAGER)
+    @BatchSize(size = COLLECTION_BATCH_SIZE)
     @CollectionTable(name = "habit_milestones", joinColumns = @JoinColumn(name = "habit_id"))
     @Column(name = "milestone")
     private Set<Integer> completedMilestones = new HashSet<>();
 
     @ElementCollection(fetch = FetchType.EAGER)
+    @BatchSize(size = COLLECTION_BATCH_SIZE)
     @CollectionTable(name = "habit_custom_days", joinColumns = @JoinColumn(name = "habit_id"))
     @Enumerated(EnumType.STRING)
     private List<DayOfWeek> customDays;
@@ -76,10 +85,16 @@ public class Habit {
     @Column(name = "reminder_eligible", nullable = false)
     private boolean reminderEligible = true;
 
-    @ElementCollection(fetch = FetchType.EAGER)
-    @CollectionTable(name = "habit_completions", joinColumns = @JoinColumn(name = "habit_id"))
-    @Column(name = "completion_date")
-    private Set<LocalDate> completions = new HashSet<>();
+    // Persisted as HabitCompletion rows in habit_completions by HabitRepository
+    @Transient
+    private CompletionBitmap completions = new CompletionBitmap();
+
+    // False while a loaded habit's bitmap has not been filled from the database, so its emptiness means nothing
+    @Transient
+    private transient boolean completionsLoaded;
+
+    @Transient
+    private transient StreakTracker streakTracker;
 
     @Column(name = "best_streak", nullable = false)
     private int bestStreak;
@@ -93,6 +108,38 @@ public class Habit {
         this.frequency = frequency;
         this.color = "#000000";
         this.streakCounter = 0;
+        this.completionsLoaded = true; // A new habit has no history to load
+    }
+
+    /**
+     * Creates a detached habit from its scalar columns. Used by the repository's lighter loading profiles,
+     * which fill in custom days and completions only when they need them and never load milestones.
+     */
+    public Habit(Long id, String name, String color, boolean isCompleted, LocalDate creationDate,
+                 LocalDate lastCompletedDate, Frequency frequency, int streakCounter, int bestStreak,
+                 boolean reminderEligible) {
+        this.id = id;
+        this.name = name;
+        this.color = color;
+        this.isCompleted = isCompleted;
+        this.creationDate = creationDate;
+        this.lastCompletedDate = lastCompletedDate;
+        this.frequency = frequency;
+        this.streakCounter = streakCounter;
+        this.bestStreak = bestStreak;
+        this.reminderEligible = reminderEligible;
+    }
+
+    /**
+     * Creates an independent copy of a habit, including its collections, with the same id.
+     */
+    public Habit(Habit other) {
+        this(other.id, other.name, other.color, other.isCompleted, other.creationDate, other.lastCompletedDate,
+                other.frequency, other.streakCounter, other.bestStreak, other.reminderEligible);
+        this.completedMilestones = new HashSet<>(other.completedMilestones);
+        this.customDays = other.customDays == null ? null : new ArrayList<>(other.customDays);
+        this.completions = new CompletionBitmap(other.completions);
+        this.completionsLoaded = other.completionsLoaded;
     }
 
     public Habit(String name, Frequency frequency, List<DayOfWeek> customDays) {
@@ -103,6 +150,7 @@ public class Habit {
         this.color = "#000000";
         this.streakCounter = 0;
         this.customDays = customDays; // Set custom days here
+        this.completionsLoaded = true;
     }
 
 
@@ -121,7 +169,9 @@ public class Habit {
         }
 
         // Add the date only if it is not already present
+        StreakTracker tracker = streakTracker();
         if (completions.add(date)) {
+            tracker.add(date);
             lastCompletedDate = date;
             calculateStreak();
             isCompleted = true;
@@ -129,38 +179,48 @@ public class Habit {
         }
     }
 
-    private void calculateStreak() {
-        int currentStreak = 0;
-        int longestStreak = 0;
-        LocalDate lastDate = null;
-
-        for (LocalDate date : completions.stream().sorted().toList()) {
-            if (lastDate != null) {
-                boolean isConsecutive = switch (frequency) {
-                    case DAILY -> date.equals(lastDate.plusDays(1));
-                    case WEEKLY -> date.equals(lastDate.plusWeeks(1));
-                    case MONTHLY -> date.equals(lastDate.plusMonths(1));
-                    default -> false;
-                };
-
-                if (isConsecutive) {
-                    currentStreak++;
-                } else {
-                    currentStreak = 1;
+    /**
+     * Adds several completion dates and recalculates the streak once at the end.
+     * Dates before the creation date, in the future or already completed are skipped.
+     *
+     * @return The dates that were added, in the order given.
+     */
+    public List<LocalDate> markAsCompletedOnDates(Collection<LocalDate> dates) {
+        StreakTracker tracker = streakTracker();
+        LocalDate today = LocalDate.now();
+        List<LocalDate> added = new ArrayList<>(dates.size());
+        for (LocalDate date : dates) {
+            if (!date.isBefore(creationDate) && !date.isAfter(today) && completions.add(date)) {
+                tracker.add(date);
+                added.add(date);
+                if (lastCompletedDate == null || date.isAfter(lastCompletedDate)) {
+                    lastCompletedDate = date;
                 }
-            } else {
-                currentStreak = 1; // First completion starts a streak
             }
+        }
 
-            longestStreak = Math.max(longestStreak, currentStreak);
-            lastDate = date;
+        if (!added.isEmpty()) {
+            calculateStreak();
+            isCompleted = true;
+            LOGGER.info("Habit marked as completed on {} dates", added.size());
         }
+        return added;
+    }
 
-        streakCounter = currentStreak; // Current streak
-        bestStreak = Math.max(bestStreak, longestStreak); // Best streak
+    private void calculateStreak() {
+        streakCounter = streakTracker().getCurrentStreak(); // Current streak
+        bestStreak = Math.max(bestStreak, streakTracker().getLongestStreak()); // Best streak
         LOGGER.info("Streak calculated. Current streak: {}, Best streak: {}", streakCounter, bestStreak);
     }
 
+    // Built on first use, so the repository can fill the bitmap after Hibernate creates the habit
+    private StreakTracker streakTracker() {
+        if (streakTracker == null) {
+            streakTracker = new StreakTracker(completions, frequency);
+        }
+        return streakTracker;
+    }
+
 
 
 
@@ -170,28 +230,65 @@ public class Habit {
 
     public int getCompletionsInWeek(int week, YearMonth yearMonth) {
         WeekFields weekFields = WeekFields.of(Locale.getDefault());
-        return (int) completions.stream()
-                .filter(date -> YearMonth.from(date).equals(yearMonth) &&
-                        date.get(weekFields.weekOfMonth()) == week)
-                .count();
+        LocalDate weekStart = null;
+        LocalDate weekEnd = null;
+        for (LocalDate date = yearMonth.atDay(1); !date.isAfter(yearMonth.atEndOfMonth()); date = date.plusDays(1)) {
+            if (date.get(weekFields.weekOfMonth()) == week) {
+                if (weekStart == null) {
+                    weekStart = date;
+                }
+                weekEnd = date;
+            }
+        }
+        return weekStart == null ? 0 : completions.countInRange(weekStart, weekEnd);
     }
 
     public int getCompletionsInMonth(int year, int month) {
-        return (int) completions.stream()
-                .filter(date -> date.getYear() == year && date.getMonthValue() == month)
-                .count();
+        YearMonth yearMonth = YearMonth.of(year, month);
+        return completions.countInRange(yearMonth.atDay(1), yearMonth.atEndOfMonth());
     }
 
     public boolean isCompletedToday() {
         return lastCompletedDate != null && lastCompletedDate.equals(LocalDate.now());
     }
 
+    /**
+     * Returns a copy of the completion dates. Prefer {@link #getCompletions()} for lookups and counts,
+     * which avoids materializing the set.
+     */
     public Set<LocalDate> getCompletedDates() {
-        return new HashSet<>(completions);
+        return completions.toSet();
+    }
+
+    /**
+     * Returns the live completion bitmap. Callers should treat it as read-only and record completions
+     * through {@link #markAsCompletedOnDate(LocalDate)} so the streak stays current.
+     */
+    public CompletionBitmap getCompletions() {
+        return completions;
+    }
+
+    public void setCompletions(CompletionBitmap completions) {
+        this.completions = completions;
+        this.completionsLoaded = true;
+        this.streakTracker = null;
+    }
+
+    /**
+     * Whether {@link #getCompletions()} holds the habit's whole history. Habits loaded without their completions,
+     * such as those from the lighter loading profiles, return {@code false}.
+     */
+    public boolean areCompletionsLoaded() {
+        return completionsLoaded;
+    }
+
+    public void markCompletionsLoaded() {
+        this.completionsLoaded = true;
     }
 
     public void addCompletionForTesting(LocalDate date) {
         completions.add(date);
+        streakTracker = null;
     }
 
     // Getters and setters for other properties
@@ -241,6 +338,7 @@ public class Habit {
 
     public void setFrequency(Frequency frequency) {
         this.frequency = frequency;
+        this.streakTracker = null;
     }
 
     public int getStreakCounter() {
@@ -272,6 +370,10 @@ public class Habit {
         completedMilestones.add(milestone);
     }
 
+    public Set<Integer> getCompletedMilestones() {
+        return Collections.unmodifiableSet(completedMilestones);
+    }
+
     public LocalDate getLastCompletedDate() {
         return lastCompletedDate;
     }
@@ -0,0 +1,71 @@
+package org.habittracker.model;
+
+import javax.persistence.Column;
+import javax.persistence.Embeddable;
+import javax.persistence.EmbeddedId;
+import javax.persistence.Entity;
+import javax.persistence.Table;
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * One row of the {@code habit_completions} table. Habits keep their completions in memory as a
+ * {@link CompletionBitmap}; this entity is only used by the repository to read and write the rows.
+ */
+@Entity
+@Table(name = "habit_completions")
+public class HabitCompletion {
+
+    @EmbeddedId
+    private Key id;
+
+    public HabitCompletion() {}
+
+    public HabitCompletion(Long habitId, LocalDate completionDate) {
+        this.id = new Key(habitId, completionDate);
+    }
+
+    public Long getHabitId() {
+        return id.habitId;
+    }
+
+    public LocalDate getCompletionDate() {
+        return id.completionDate;
+    }
+
+    @Embeddable
+    public static class Key implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        @Column(name = "habit_id", columnDefinition = "INTEGER", nullable = false)
+        private Long habitId;
+
+        @Column(name = "completion_date")
+        private LocalDate completionDate;
+
+        public Key() {}
+
+        public Key(Long habitId, LocalDate completionDate) {
+            this.habitId = habitId;
+            this.completionDate = completionDate;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return Objects.equals(habitId, other.habitId) && Objects.equals(completionDate, other.completionDate);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(habitId, completionDate);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package org.habittracker.model;
+
+import java.time.LocalDate;
+
+/**
+ * Read-only row for list views, loaded by a single scalar query without touching completions.
+ *
+ * @param id             Habit id.
+ * @param name           Habit name.
+ * @param frequency      How often the habit is due.
+ * @param creationDate   Date the habit starts.
+ * @param streakCounter  Current streak.
+ * @param completedToday Whether the habit was last completed today, computed in SQL.
+ */
+public record HabitSummary(Long id, String name, Habit.Frequency frequency, LocalDate creationDate,
+                           int streakCounter, boolean completedToday) {
+}
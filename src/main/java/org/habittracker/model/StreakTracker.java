@@ -0,0 +1,179 @@
+package org.habittracker.model;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Keeps the streak runs of a habit up to date as single completions are added or removed.
+ * <p>
+ * A run is a chain of completions where each date is exactly one period (day, week or month) after the
+ * previous completion. Runs are stored by start date, so an insert or removal only looks at the runs around
+ * the changed date and merges or splits them in O(log n). Run lengths are counted in a second sorted map,
+ * which lets the current and best streak be cached after every change.
+ * <p>
+ * The tracker reads membership from the habit's {@link CompletionBitmap}; callers update the bitmap first
+ * and then report the change here.
+ */
+final class StreakTracker {
+
+    private final CompletionBitmap completions;
+    private final Habit.Frequency frequency;
+    private final TreeMap<LocalDate, Run> runs = new TreeMap<>();
+    private final TreeMap<Integer, Integer> runLengths = new TreeMap<>();
+    private int currentStreak;
+    private int longestStreak;
+
+    StreakTracker(CompletionBitmap completions, Habit.Frequency frequency) {
+        this.completions = completions;
+        this.frequency = frequency;
+
+        LocalDate runStart = null;
+        LocalDate lastDate = null;
+        int length = 0;
+        for (LocalDate date : completions.toSortedList()) {
+            if (lastDate != null && isConsecutive(lastDate, date)) {
+                length++;
+            } else {
+                if (runStart != null) {
+                    putRun(runStart, lastDate, length);
+                }
+                runStart = date;
+                length = 1;
+            }
+            lastDate = date;
+        }
+        if (runStart != null) {
+            putRun(runStart, lastDate, length);
+        }
+        refreshStreaks();
+    }
+
+    /**
+     * Records a date that has just been added to the bitmap.
+     */
+    void add(LocalDate date) {
+        LocalDate previous;
+        LocalDate next;
+        Map.Entry<LocalDate, Run> enclosing = runs.floorEntry(date);
+        if (enclosing != null && enclosing.getValue().end.isAfter(date)) {
+            // The new date falls between two members of a run, which are at most one period apart
+            previous = completions.previous(date);
+            next = completions.next(date);
+            splitBetween(enclosing.getKey(), previous, next);
+        } else {
+            previous = enclosing == null ? null : enclosing.getValue().end;
+            next = runs.higherKey(date);
+        }
+
+        putRun(date, date, 1);
+        LocalDate start = date;
+        if (previous != null && isConsecutive(previous, date)) {
+            start = mergeRuns(runs.floorKey(previous), date);
+        }
+        if (next != null && isConsecutive(date, next)) {
+            mergeRuns(start, next);
+        }
+        refreshStreaks();
+    }
+
+    /**
+     * Records a date that has just been removed from the bitmap.
+     */
+    void remove(LocalDate date) {
+        Map.Entry<LocalDate, Run> enclosing = runs.floorEntry(date);
+        if (enclosing == null || enclosing.getValue().end.isBefore(date)) {
+            return;
+        }
+        LocalDate start = enclosing.getKey();
+        Run run = enclosing.getValue();
+
+        LocalDate previous;
+        if (start.equals(date)) {
+            Map.Entry<LocalDate, Run> before = runs.lowerEntry(start);
+            previous = before == null ? null : before.getValue().end;
+        } else {
+            previous = completions.previous(date);
+        }
+        LocalDate next = run.end.equals(date) ? runs.higherKey(start) : completions.next(date);
+
+        removeRun(start);
+        int leftLength = 0;
+        if (!start.equals(date)) {
+            leftLength = completions.countInRange(start, previous);
+            putRun(start, previous, leftLength);
+        }
+        if (!run.end.equals(date)) {
+            putRun(next, run.end, run.length - 1 - leftLength);
+        }
+
+        // Dropping a date can make its neighbours consecutive, e.g. Jan 30 and Feb 29 once Jan 31 is gone
+        if (previous != null && next != null && isConsecutive(previous, next)) {
+            mergeRuns(runs.floorKey(previous), next);
+        }
+        refreshStreaks();
+    }
+
+    /**
+     * Length of the run that contains the most recent completion.
+     */
+    int getCurrentStreak() {
+        return currentStreak;
+    }
+
+    int getLongestStreak() {
+        return longestStreak;
+    }
+
+    private void splitBetween(LocalDate start, LocalDate previous, LocalDate next) {
+        Run run = removeRun(start);
+        int leftLength = completions.countInRange(start, previous);
+        putRun(start, previous, leftLength);
+        putRun(next, run.end, run.length - leftLength);
+    }
+
+    private LocalDate mergeRuns(LocalDate leftStart, LocalDate rightStart) {
+        Run left = removeRun(leftStart);
+        Run right = removeRun(rightStart);
+        putRun(leftStart, right.end, left.length + right.length);
+        return leftStart;
+    }
+
+    private void putRun(LocalDate start, LocalDate end, int length) {
+        runs.put(start, new Run(end, length));
+        runLengths.merge(length, 1, Integer::sum);
+    }
+
+    private Run removeRun(LocalDate start) {
+        Run run = runs.remove(start);
+        runLengths.computeIfPresent(run.length, (length, count) -> count == 1 ? null : count - 1);
+        return run;
+    }
+
+    private void refreshStreaks() {
+        currentStreak = runs.isEmpty() ? 0 : runs.lastEntry().getValue().length;
+        longestStreak = runLengths.isEmpty() ? 0 : runLengths.lastKey();
+    }
+
+    private boolean isConsecutive(LocalDate lastDate, LocalDate date) {
+        if (frequency == null) {
+            return false;
+        }
+        return switch (frequency) {
+            case DAILY -> date.equals(lastDate.plusDays(1));
+            case WEEKLY -> date.equals(lastDate.plusWeeks(1));
+            case MONTHLY -> date.equals(lastDate.plusMonths(1));
+            default -> false;
+        };
+    }
+
+    private static final class Run {
+        private final LocalDate end;
+        private final int length;
+
+        private Run(LocalDate end, int length) {
+            this.end = end;
+            this.length = length;
+        }
+    }
+}
@@ -0,0 +1,288 @@
+package org.habittracker.repository;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.habittracker.model.CompletionBitmap;
+import org.habittracker.model.Habit;
+import org.habittracker.model.HabitSummary;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Repository that keeps every habit in memory, indexed by id and by case-insensitive name.
+ * <p>
+ * All habits are loaded with the {@link LoadProfile#DETAIL} profile on the first read, which also satisfies
+ * the lighter profiles. Writes go to the database first and are then applied to the cache, so the cache stays
+ * authoritative. Cached habits are never handed out. Each profile gets an unmodifiable snapshot of copies
+ * holding only what that profile loads from the database, built on the first read after a write and shared by
+ * every read until the next one, so those habits are read-only. The single-habit finders return fresh copies,
+ * so callers can edit a habit and pass it to {@link #updateHabit(Habit)} without touching the cached instance.
+ * Name lookups and prefix searches go through a {@link HabitNameIndex} that is rebuilt on the first lookup
+ * after a write.
+ */
+public class CachedHabitRepository extends HabitRepository {
+    private static final Logger LOGGER = LogManager.getLogger(CachedHabitRepository.class);
+
+    private final Object lock = new Object();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    // Guarded by lock; null until the first read
+    private Map<Long, Habit> habitsById;
+
+    // Guarded by lock
+    private List<Habit> snapshot;
+    // Built under lock, so a snapshot of habits from before a write cannot be stored after it
+    private final Map<LoadProfile, List<Habit>> profileSnapshots = new ConcurrentHashMap<>();
+    private volatile HabitNameIndex<Habit> nameIndex;
+    private volatile HabitNameIndex<HabitSummary> summaryIndex;
+    private volatile LocalDate summariesDate;
+
+    CachedHabitRepository() {}
+
+    @Override
+    public List<Habit> getAllHabits(LoadProfile profile) {
+        List<Habit> current = profileSnapshots.get(profile);
+        if (current != null) {
+            hits.incrementAndGet();
+            return current;
+        }
+        synchronized (lock) {
+            countRead(ensureLoaded());
+            return profileSnapshots.computeIfAbsent(profile, key -> {
+                List<Habit> cached = cachedHabits();
+                List<Habit> copies = new ArrayList<>(cached.size());
+                for (Habit habit : cached) {
+                    copies.add(copyFor(habit, key));
+                }
+                return List.copyOf(copies);
+            });
+        }
+    }
+
+    // The cached instances, rebuilt after a write; only used inside this class. Callers hold lock
+    private List<Habit> cachedHabits() {
+        ensureLoaded();
+        if (snapshot == null) {
+            snapshot = List.copyOf(habitsById.values());
+        }
+        return snapshot;
+    }
+
+    /**
+     * Visits the cached habits when they are already loaded; otherwise streams them from the database
+     * without filling the cache, so a one-off export does not keep every habit on the heap afterwards.
+     */
+    @Override
+    public void forEachHabit(Consumer<? super Habit> action) {
+        List<Habit> current;
+        synchronized (lock) {
+            current = habitsById == null ? null : cachedHabits();
+            countRead(current == null);
+        }
+        if (current == null) {
+            super.forEachHabit(action);
+        } else {
+            current.forEach(habit -> action.accept(new Habit(habit)));
+        }
+    }
+
+    @Override
+    public List<HabitSummary> findSummaries() {
+        return summaryIndex().findByPrefix("");
+    }
+
+    @Override
+    public List<HabitSummary> findSummariesByPrefix(String prefix) {
+        return summaryIndex().findByPrefix(prefix);
+    }
+
+    @Override
+    public Habit findHabitById(Long id) {
+        synchronized (lock) {
+            countRead(ensureLoaded());
+            return copyOf(habitsById.get(id));
+        }
+    }
+
+    @Override
+    public Habit findHabitByName(String name) {
+        return copyOf(nameIndex().find(name));
+    }
+
+    @Override
+    public boolean habitExistsByName(String name) {
+        return nameIndex().contains(name);
+    }
+
+    @Override
+    public int getHabitCount() {
+        synchronized (lock) {
+            countRead(ensureLoaded());
+            return habitsById.size();
+        }
+    }
+
+    /**
+     * Applies the write to the cache before the change listeners hear about it, so a listener that reads
+     * the habit back gets the committed version rather than the cached one from before the write.
+     */
+    @Override
+    protected void committed(HabitChange change, Habit habit) {
+        synchronized (lock) {
+            switch (change.type()) {
+                case CREATED:
+                case UPDATED:
+                case COMPLETED:
+                    if (habitsById != null) {
+                        apply(change, habit);
+                    }
+                    break;
+                case DELETED:
+                    if (habitsById != null) {
+                        habitsById.remove(change.habitId());
+                        clearSnapshots();
+                    }
+                    break;
+                case CLEARED:
+                    habitsById = new LinkedHashMap<>();
+                    clearSnapshots();
+                    break;
+            }
+        }
+        super.committed(change, habit);
+    }
+
+    /**
+     * Drops the cached habits so the next read loads them from the database again.
+     */
+    public void invalidate() {
+        synchronized (lock) {
+            habitsById = null;
+            clearSnapshots();
+        }
+    }
+
+    public long getCacheHits() {
+        return hits.get();
+    }
+
+    public long getCacheMisses() {
+        return misses.get();
+    }
+
+    // Callers hold lock. Returns whether the habits had to be loaded from the database
+    private boolean ensureLoaded() {
+        if (habitsById != null) {
+            return false;
+        }
+        List<Habit> habits = super.getAllHabits(LoadProfile.DETAIL);
+        habitsById = new LinkedHashMap<>(habits.size() * 2);
+        for (Habit habit : habits) {
+            habitsById.put(habit.getId(), habit);
+        }
+        if (LOGGER.isInfoEnabled()) {
+            LOGGER.info("Loaded {} habits into the repository cache", habits.size());
+        }
+        return true;
+    }
+
+    // Each public read counts exactly once, however many internal snapshots it rebuilds
+    private void countRead(boolean missed) {
+        (missed ? misses : hits).incrementAndGet();
+    }
+
+    // Callers hold lock. A habit saved without its completions kept the stored ones, which the cached entry holds
+    private void apply(HabitChange change, Habit habit) {
+        Habit stored = new Habit(habit);
+        stored.setId(change.habitId()); // A new habit saved through updateHabit() only gets its id on the managed copy
+        if (!habit.areCompletionsLoaded()) {
+            Habit cached = habitsById.get(change.habitId());
+            if (cached != null) {
+                CompletionBitmap completions = new CompletionBitmap(cached.getCompletions());
+                habit.getCompletions().forEach(completions::add);
+                stored.setCompletions(completions);
+            } else if (change.type() == HabitChange.Type.CREATED) {
+                stored.markCompletionsLoaded(); // A new row has no other history
+            } else {
+                invalidate(); // Not cached, so the stored history is unknown here
+                return;
+            }
+        }
+        put(stored);
+    }
+
+    // Callers hold lock
+    private void put(Habit habit) {
+        habitsById.put(habit.getId(), habit);
+        clearSnapshots();
+    }
+
+    private HabitNameIndex<Habit> nameIndex() {
+        HabitNameIndex<Habit> current = nameIndex;
+        if (current != null) {
+            hits.incrementAndGet();
+            return current;
+        }
+        synchronized (lock) {
+            countRead(ensureLoaded());
+            if (nameIndex == null) {
+                nameIndex = HabitNameIndex.build(cachedHabits(), Habit::getName);
+            }
+            return nameIndex;
+        }
+    }
+
+    private HabitNameIndex<HabitSummary> summaryIndex() {
+        LocalDate today = LocalDate.now();
+        HabitNameIndex<HabitSummary> current = summaryIndex;
+        if (current != null && today.equals(summariesDate)) {
+            hits.incrementAndGet();
+            return current;
+        }
+        synchronized (lock) {
+            countRead(ensureLoaded());
+            List<Habit> habits = cachedHabits();
+            List<HabitSummary> summaries = new ArrayList<>(habits.size());
+            for (Habit habit : habits) {
+                summaries.add(new HabitSummary(habit.getId(), habit.getName(), habit.getFrequency(),
+                        habit.getCreationDate(), habit.getStreakCounter(), today.equals(habit.getLastCompletedDate())));
+            }
+            summaryIndex = HabitNameIndex.build(summaries, HabitSummary::name);
+            summariesDate = today;
+            return summaryIndex;
+        }
+    }
+
+    private void clearSnapshots() {
+        snapshot = null;
+        profileSnapshots.clear();
+        nameIndex = null;
+        summaryIndex = null;
+    }
+
+    // Copies what the profile loads from the database, so lighter profiles stay as light as uncached ones
+    private static Habit copyFor(Habit habit, LoadProfile profile) {
+        if (profile != LoadProfile.SUMMARY && profile != LoadProfile.SCHEDULE) {
+            return new Habit(habit);
+        }
+        Habit copy = new Habit(habit.getId(), habit.getName(), habit.getColor(), habit.checkCompletion(),
+                habit.getCreationDate(), habit.getLastCompletedDate(), habit.getFrequency(), habit.getStreakCounter(),
+                habit.getBestStreak(), habit.isReminderEligible());
+        if (profile == LoadProfile.SCHEDULE && habit.getCustomDays() != null) {
+            copy.setCustomDays(new ArrayList<>(habit.getCustomDays()));
+        }
+        return copy;
+    }
+
+    private static Habit copyOf(Habit habit) {
+        return habit == null ? null : new Habit(habit);
+    }
+}
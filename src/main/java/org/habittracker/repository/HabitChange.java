@@ -0,0 +1,20 @@
+package org.habittracker.repository;
+
+/**
+ * A committed write to the habit tables, as reported to {@link HabitChangeListener}s.
+ *
+ * @param type    What happened.
+ * @param habitId Id of the habit that changed, or {@code null} for {@link Type#CLEARED}.
+ */
+public record HabitChange(Type type, Long habitId) {
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        /** New completion dates, along with the streak and milestone columns they update. */
+        COMPLETED,
+        DELETED,
+        /** Every habit was removed. */
+        CLEARED
+    }
+}
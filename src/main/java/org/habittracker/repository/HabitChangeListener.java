@@ -0,0 +1,10 @@
+package org.habittracker.repository;
+
+/**
+ * Receives every write made through a {@link HabitRepository}, after its transaction has committed.
+ * Listeners are called on the thread that made the write and should return quickly.
+ */
+@FunctionalInterface
+public interface HabitChangeListener {
+    void habitChanged(HabitChange change);
+}
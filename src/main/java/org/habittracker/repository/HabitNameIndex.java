@@ -0,0 +1,134 @@
+package org.habittracker.repository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
+
+/**
+ * Immutable case-insensitive index over habit names.
+ * <p>
+ * Names are lowercased once when the index is built and kept in a sorted array, so an exact lookup is a
+ * binary search and a prefix search is a binary search for the first match followed by a scan over the
+ * contiguous block of matching keys. Prefix results are returned in the order the items were given to
+ * {@link #build(Collection, Function)}, which keeps search results in the same order as the full list.
+ *
+ * @param <T> the indexed item, usually a {@link org.habittracker.model.Habit} or a
+ *            {@link org.habittracker.model.HabitSummary}
+ */
+public final class HabitNameIndex<T> {
+
+    private final List<T> items;
+    private final String[] names;
+    private final String[] keys;
+    private final int[] positions;
+
+    private HabitNameIndex(List<T> items, String[] names, String[] keys, int[] positions) {
+        this.items = items;
+        this.names = names;
+        this.keys = keys;
+        this.positions = positions;
+    }
+
+    public static <T> HabitNameIndex<T> build(Collection<T> items, Function<T, String> nameOf) {
+        List<T> snapshot = List.copyOf(items);
+        int size = snapshot.size();
+        String[] allKeys = new String[size];
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            allKeys[i] = normalize(nameOf.apply(snapshot.get(i)));
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparing((Integer i) -> allKeys[i]).thenComparingInt(i -> i));
+
+        String[] names = new String[size];
+        String[] keys = new String[size];
+        int[] positions = new int[size];
+        for (int i = 0; i < size; i++) {
+            positions[i] = order[i];
+            keys[i] = allKeys[order[i]];
+            names[i] = nameOf.apply(snapshot.get(order[i]));
+        }
+        return new HabitNameIndex<>(snapshot, names, keys, positions);
+    }
+
+    /**
+     * Finds the item whose name matches ignoring case. If several names differ only in case, the one that
+     * matches exactly is preferred, otherwise the first one in list order.
+     *
+     * @return the item, or {@code null} if no name matches.
+     */
+    public T find(String name) {
+        if (name == null) {
+            return null;
+        }
+        String key = normalize(name);
+        int first = lowerBound(key);
+        if (first >= keys.length || !keys[first].equals(key)) {
+            return null;
+        }
+        for (int i = first; i < keys.length && keys[i].equals(key); i++) {
+            if (names[i].equals(name)) {
+                return items.get(positions[i]);
+            }
+        }
+        return items.get(positions[first]);
+    }
+
+    public boolean contains(String name) {
+        return find(name) != null;
+    }
+
+    /**
+     * Returns every item whose name starts with {@code prefix}, ignoring case, in list order.
+     * An empty prefix matches every item.
+     */
+    public List<T> findByPrefix(String prefix) {
+        if (prefix == null || prefix.isEmpty()) {
+            return items;
+        }
+        String key = normalize(prefix);
+        int first = lowerBound(key);
+        int last = first;
+        while (last < keys.length && keys[last].startsWith(key)) {
+            last++;
+        }
+        if (first == last) {
+            return Collections.emptyList();
+        }
+
+        int[] matches = Arrays.copyOfRange(positions, first, last);
+        Arrays.sort(matches);
+        List<T> result = new ArrayList<>(matches.length);
+        for (int position : matches) {
+            result.add(items.get(position));
+        }
+        return result;
+    }
+
+    public int size() {
+        return items.size();
+    }
+
+    private int lowerBound(String key) {
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid].compareTo(key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    static String normalize(String name) {
+        return name.toLowerCase(Locale.ENGLISH);
+    }
+}
@@ -24,22 +24,49 @@
 
 package org.habittracker.repository;
 
+import org.habittracker.model.CompletionBatchResult;
+import org.habittracker.model.CompletionBitmap;
 import org.habittracker.model.Habit;
+import org.habittracker.model.HabitSummary;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 
 import javax.persistence.EntityManager;
 import javax.persistence.EntityManagerFactory;
 import javax.persistence.Persistence;
 import javax.persistence.PersistenceException;
+import javax.persistence.TypedQuery;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.DayOfWeek;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.function.ObjIntConsumer;
 
 public class HabitRepository {
 
+    // Habits loaded per query by forEachHabit
+    static final int CURSOR_CHUNK_SIZE = 500;
+
     private static EntityManagerFactory entityManagerFactory;
     private static HabitRepository instance;
 
-    // Private constructor to enforce singleton usage
-    private HabitRepository() {}
+    private final List<HabitChangeListener> changeListeners = new CopyOnWriteArrayList<>();
+
+    // Package-private to enforce singleton usage; CachedHabitRepository extends it
+    HabitRepository() {}
 
     /**
      * Initialize the repository with the specified persistence unit.
@@ -50,7 +77,7 @@ public class HabitRepository {
     public static void initialize(String persistenceUnitName) {
         if (entityManagerFactory == null || !entityManagerFactory.isOpen()) {
             entityManagerFactory = Persistence.createEntityManagerFactory(persistenceUnitName);
-            instance = new HabitRepository();
+            instance = new CachedHabitRepository();
         }
     }
 
@@ -66,6 +93,36 @@ public class HabitRepository {
         return instance;
     }
 
+    /**
+     * Registers a listener that is told about every committed write made through this repository.
+     */
+    public void addChangeListener(HabitChangeListener listener) {
+        changeListeners.add(listener);
+    }
+
+    public void removeChangeListener(HabitChangeListener listener) {
+        changeListeners.remove(listener);
+    }
+
+    /**
+     * Called after each committed write, on the writing thread, and tells the change listeners about it.
+     * Subclasses that keep their own copy of the habits update it before calling this, so a listener that
+     * reads the habit back sees the write.
+     *
+     * @param change What was committed.
+     * @param habit  The habit as stored, for {@link HabitChange.Type#CREATED}, {@link HabitChange.Type#UPDATED}
+     *               and {@link HabitChange.Type#COMPLETED}; {@code null} otherwise. If it was saved without
+     *               {@link Habit#areCompletionsLoaded() its completions loaded}, they were added to the stored ones.
+     */
+    protected void committed(HabitChange change, Habit habit) {
+        if (changeListeners.isEmpty()) {
+            return;
+        }
+        for (HabitChangeListener listener : changeListeners) {
+            listener.habitChanged(change);
+        }
+    }
+
     /**
      * Close the EntityManagerFactory when the application shuts down.
      */
@@ -80,7 +137,11 @@ public class HabitRepository {
         try {
             em.getTransaction().begin();
             Habit managedHabit = em.merge(habit);
+            // Completions are not a mapped attribute, so merge() does not copy them
+            managedHabit.setCompletions(new CompletionBitmap(habit.getCompletions()));
+            saveCompletions(em, managedHabit.getId(), managedHabit.getCompletions(), true);
             em.getTransaction().commit();
+            committed(new HabitChange(HabitChange.Type.CREATED, managedHabit.getId()), managedHabit);
             return managedHabit;
         } catch (PersistenceException e) {
             em.getTransaction().rollback();
@@ -100,42 +161,294 @@ public class HabitRepository {
         }
     }
 
+    /**
+     * Inserts several new habits, with their custom days, milestones and completions, in one transaction.
+     * Each habit row is a single reuse of one prepared statement and the collection rows go to the database as
+     * JDBC batches, which avoids the per-entity work of {@link #addHabit(Habit)} for bulk imports. Ids are always
+     * generated, so an id already set on one of the habits (for example one read from a backup) is replaced and
+     * never overwrites an existing row.
+     *
+     * @return The habits that were inserted, with their new ids.
+     */
+    public List<Habit> addHabits(List<Habit> habits) {
+        if (habits.isEmpty()) {
+            return habits;
+        }
+        EntityManager em = entityManagerFactory.createEntityManager();
+        try {
+            em.getTransaction().begin();
+            Map<Long, List<LocalDate>> datesByHabit = new LinkedHashMap<>(habits.size() * 2);
+            em.unwrap(Session.class).doWork(connection -> {
+                try (PreparedStatement insertHabit = connection.prepareStatement(
+                             "INSERT INTO Habit (name, color, isCompleted, creationDate, lastCompletedDate, frequency, "
+                                     + "streakCounter, best_streak, reminder_eligible) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                             Statement.RETURN_GENERATED_KEYS);
+                     PreparedStatement insertCustomDay = connection.prepareStatement(
+                             "INSERT INTO habit_custom_days (habit_id, customDays) VALUES (?, ?)");
+                     PreparedStatement insertMilestone = connection.prepareStatement(
+                             "INSERT INTO habit_milestones (habit_id, milestone) VALUES (?, ?)")) {
+                    for (Habit habit : habits) {
+                        insertHabit.setString(1, habit.getName());
+                        insertHabit.setString(2, habit.getColor());
+                        insertHabit.setBoolean(3, habit.checkCompletion());
+                        setDate(insertHabit, 4, habit.getCreationDate());
+                        setDate(insertHabit, 5, habit.getLastCompletedDate());
+                        insertHabit.setString(6, habit.getFrequency() == null ? null : habit.getFrequency().name());
+                        insertHabit.setInt(7, habit.getStreakCounter());
+                        insertHabit.setInt(8, habit.getBestStreak());
+                        insertHabit.setBoolean(9, habit.isReminderEligible());
+                        insertHabit.executeUpdate();
+                        try (ResultSet keys = insertHabit.getGeneratedKeys()) {
+                            keys.next();
+                            habit.setId(keys.getLong(1));
+                        }
+
+                        if (habit.getCustomDays() != null) {
+                            for (DayOfWeek day : habit.getCustomDays()) {
+                                insertCustomDay.setLong(1, habit.getId());
+                                insertCustomDay.setString(2, day.name());
+                                insertCustomDay.addBatch();
+                            }
+                        }
+                        for (int milestone : habit.getCompletedMilestones()) {
+                            insertMilestone.setLong(1, habit.getId());
+                            insertMilestone.setInt(2, milestone);
+                            insertMilestone.addBatch();
+                        }
+                        datesByHabit.put(habit.getId(), habit.getCompletions().toSortedList());
+                    }
+                    insertCustomDay.executeBatch();
+                    insertMilestone.executeBatch();
+                }
+            });
+            insertCompletions(em, datesByHabit);
+            em.getTransaction().commit();
+            for (Habit habit : habits) {
+                committed(new HabitChange(HabitChange.Type.CREATED, habit.getId()), habit);
+            }
+            return habits;
+        } catch (PersistenceException e) {
+            em.getTransaction().rollback();
+
+            Throwable cause = e;
+            while (cause != null) {
+                if (cause instanceof org.hibernate.exception.ConstraintViolationException
+                        || cause.getMessage() != null && cause.getMessage().contains("UNIQUE constraint failed")) {
+                    throw new DuplicateHabitException("A habit with the same name already exists.", e);
+                }
+                cause = cause.getCause();
+            }
+
+            throw new RuntimeException("An error occurred while adding the habits", e);
+        } finally {
+            em.close();
+        }
+    }
+
     public List<Habit> getAllHabits() {
+        return getAllHabits(LoadProfile.DETAIL);
+    }
+
+    /**
+     * Loads every habit with only the data the given profile needs.
+     *
+     * @param profile How much of each habit to load.
+     * @return Detached habits. Habits loaded with a profile other than {@link LoadProfile#DETAIL}
+     *         are read-only views and must not be passed to {@link #updateHabit(Habit)}.
+     */
+    public List<Habit> getAllHabits(LoadProfile profile) {
         EntityManager em = entityManagerFactory.createEntityManager();
         try {
-            return em.createQuery("SELECT h FROM Habit h", Habit.class).getResultList();
+            switch (profile) {
+                case SUMMARY:
+                    return loadScalarHabits(em);
+                case SCHEDULE:
+                    List<Habit> scheduledHabits = loadScalarHabits(em);
+                    attachCustomDays(em, scheduledHabits);
+                    return scheduledHabits;
+                case STATS:
+                    List<Habit> statsHabits = loadScalarHabits(em);
+                    attachCustomDays(em, statsHabits);
+                    attachCompletions(em, statsHabits, false);
+                    return statsHabits;
+                default:
+                    List<Habit> habits = em.createQuery("SELECT h FROM Habit h", Habit.class).getResultList();
+                    attachCompletions(em, habits, false);
+                    return habits;
+            }
         } finally {
             em.close();
         }
     }
 
+    /**
+     * Visits every habit, fully loaded as by {@link LoadProfile#DETAIL}, in id order without holding them all
+     * in memory. Habits are read in chunks of {@value #CURSOR_CHUNK_SIZE} by id, and each chunk is released
+     * before the next one is loaded, so the memory used does not grow with the number of habits. All chunks are
+     * read in one read-only transaction, so they show the database as it was when the first one was read, even
+     * if habits are written in between; writes do not wait for it.
+     *
+     * @param action Receives each detached habit; it must not keep the habits it is given if memory matters.
+     */
+    public void forEachHabit(Consumer<? super Habit> action) {
+        EntityManager em = entityManagerFactory.createEntityManager();
+        try {
+            SQLiteConnectionProvider.beginReadOnly(() -> em.getTransaction().begin());
+            long lastId = Long.MIN_VALUE;
+            List<Habit> chunk;
+            do {
+                chunk = em.createQuery("SELECT h FROM Habit h WHERE h.id > :lastId ORDER BY h.id", Habit.class)
+                        .setParameter("lastId", lastId)
+                        .setMaxResults(CURSOR_CHUNK_SIZE)
+                        .getResultList();
+                attachCompletions(em, chunk, true);
+                em.clear();
+                for (Habit habit : chunk) {
+                    action.accept(habit);
+                    lastId = habit.getId();
+                }
+            } while (chunk.size() == CURSOR_CHUNK_SIZE);
+            em.getTransaction().commit();
+        } finally {
+            if (em.getTransaction().isActive()) {
+                em.getTransaction().rollback();
+            }
+            em.close();
+        }
+    }
+
+    /**
+     * Loads the rows shown by the habit list and the dashboard with one constructor-expression query.
+     * Never reads habit_completions; {@code completedToday} is derived from the last completion date.
+     */
+    public List<HabitSummary> findSummaries() {
+        EntityManager em = entityManagerFactory.createEntityManager();
+        try {
+            return em.createQuery("SELECT new org.habittracker.model.HabitSummary(h.id, h.name, h.frequency, "
+                            + "h.creationDate, h.streakCounter, "
+                            + "CASE WHEN h.lastCompletedDate = :today THEN true ELSE false END) FROM Habit h",
+                            HabitSummary.class)
+                    .setParameter("today", LocalDate.now())
+                    .getResultList();
+        } finally {
+            em.close();
+        }
+    }
+
+    /**
+     * Returns the summaries whose habit name starts with {@code prefix}, ignoring case, in list order.
+     */
+    public List<HabitSummary> findSummariesByPrefix(String prefix) {
+        return HabitNameIndex.build(findSummaries(), HabitSummary::name).findByPrefix(prefix);
+    }
+
     public Habit findHabitById(Long id) {
         EntityManager em = entityManagerFactory.createEntityManager();
         try {
-            return em.find(Habit.class, id);
+            Habit habit = em.find(Habit.class, id);
+            attachCompletions(em, habit);
+            return habit;
         } finally {
             em.close();
         }
     }
 
+    /**
+     * Finds a habit by name, ignoring case. An exact match is preferred when names differ only in case.
+     */
     public Habit findHabitByName(String name) {
         EntityManager em = entityManagerFactory.createEntityManager();
         try {
-            List<Habit> habits = em.createQuery("SELECT h FROM Habit h WHERE h.name = :name", Habit.class)
+            List<Habit> habits = em.createQuery("SELECT h FROM Habit h WHERE LOWER(h.name) = LOWER(:name)", Habit.class)
                     .setParameter("name", name)
                     .getResultList();
-            return habits.isEmpty() ? null : habits.get(0);
+            Habit habit = HabitNameIndex.build(habits, Habit::getName).find(name);
+            attachCompletions(em, habit);
+            return habit;
         } finally {
             em.close();
         }
     }
 
+    /**
+     * Saves a habit. Stored completion dates missing from its bitmap are deleted only when the habit was loaded
+     * with its completions; otherwise new dates are added and the stored history is kept.
+     */
     public void updateHabit(Habit habit) {
         EntityManager em = entityManagerFactory.createEntityManager();
         try {
             em.getTransaction().begin();
-            em.merge(habit);
+            Habit managedHabit = em.merge(habit);
+            saveCompletions(em, managedHabit.getId(), habit.getCompletions(), habit.areCompletionsLoaded());
             em.getTransaction().commit();
+            committed(new HabitChange(habit.getId() == null ? HabitChange.Type.CREATED : HabitChange.Type.UPDATED,
+                    managedHabit.getId()), habit);
+        } finally {
+            em.close();
+        }
+    }
+
+    public Map<Long, CompletionBatchResult> markCompletedBatch(Map<Long, ? extends Collection<LocalDate>> datesByHabit) {
+        return markCompletedBatch(datesByHabit, (habit, previousStreak) -> {});
+    }
+
+    /**
+     * Records completion dates for many habits in a single transaction. New dates are written with one
+     * JDBC batch, and each habit's streak and milestone columns are updated once, after all of its dates
+     * have been applied.
+     *
+     * @param datesByHabit Completion dates to add, keyed by habit id.
+     * @param beforeSave   Called for each habit and its streak before the batch, after its dates are applied
+     *                     and before it is saved, e.g. to record the milestones passed.
+     * @return Per-habit results, in the iteration order of {@code datesByHabit}.
+     */
+    public Map<Long, CompletionBatchResult> markCompletedBatch(Map<Long, ? extends Collection<LocalDate>> datesByHabit,
+                                                               ObjIntConsumer<Habit> beforeSave) {
+        Map<Long, CompletionBatchResult> results = new LinkedHashMap<>();
+        if (datesByHabit.isEmpty()) {
+            return results;
+        }
+
+        EntityManager em = entityManagerFactory.createEntityManager();
+        try {
+            em.getTransaction().begin();
+            List<Habit> habits = em.createQuery("SELECT h FROM Habit h WHERE h.id IN :ids", Habit.class)
+                    .setParameter("ids", datesByHabit.keySet())
+                    .getResultList();
+            attachCompletions(em, habits, true);
+            Map<Long, Habit> habitsById = new HashMap<>(habits.size() * 2);
+            for (Habit habit : habits) {
+                habitsById.put(habit.getId(), habit);
+            }
+
+            Map<Long, List<LocalDate>> inserts = new LinkedHashMap<>();
+            for (Map.Entry<Long, ? extends Collection<LocalDate>> entry : datesByHabit.entrySet()) {
+                Habit habit = habitsById.get(entry.getKey());
+                if (habit == null) {
+                    results.put(entry.getKey(), CompletionBatchResult.notFound(entry.getKey(), entry.getValue().size()));
+                    continue;
+                }
+                int previousStreak = habit.getStreakCounter();
+                List<LocalDate> added = habit.markAsCompletedOnDates(entry.getValue());
+                beforeSave.accept(habit, previousStreak);
+                inserts.put(habit.getId(), added);
+                results.put(habit.getId(), new CompletionBatchResult(habit.getId(), true, added.size(),
+                        entry.getValue().size() - added.size(), habit.getStreakCounter(), habit.getBestStreak()));
+            }
+
+            insertCompletions(em, inserts);
+            em.getTransaction().commit(); // Flushes the changed habits, one update each
+            for (Map.Entry<Long, List<LocalDate>> entry : inserts.entrySet()) {
+                if (!entry.getValue().isEmpty()) {
+                    committed(new HabitChange(HabitChange.Type.COMPLETED, entry.getKey()), habitsById.get(entry.getKey()));
+                }
+            }
+            return results;
+        } catch (PersistenceException e) {
+            if (em.getTransaction().isActive()) {
+                em.getTransaction().rollback();
+            }
+            throw new RuntimeException("An error occurred while recording completions", e);
         } finally {
             em.close();
         }
@@ -147,9 +460,15 @@ public class HabitRepository {
             em.getTransaction().begin();
             Habit managedHabit = em.find(Habit.class, habit.getId());
             if (managedHabit != null) {
+                em.createQuery("DELETE FROM HabitCompletion c WHERE c.id.habitId = :habitId")
+                        .setParameter("habitId", managedHabit.getId())
+                        .executeUpdate();
                 em.remove(managedHabit);
             }
             em.getTransaction().commit();
+            if (managedHabit != null) {
+                committed(new HabitChange(HabitChange.Type.DELETED, managedHabit.getId()), null);
+            }
         } finally {
             em.close();
         }
@@ -158,7 +477,7 @@ public class HabitRepository {
     public boolean habitExistsByName(String name) {
         EntityManager em = entityManagerFactory.createEntityManager();
         try {
-            Long count = em.createQuery("SELECT COUNT(h) FROM Habit h WHERE h.name = :name", Long.class)
+            Long count = em.createQuery("SELECT COUNT(h) FROM Habit h WHERE LOWER(h.name) = LOWER(:name)", Long.class)
                     .setParameter("name", name)
                     .getSingleResult();
             return count > 0;
@@ -167,6 +486,25 @@ public class HabitRepository {
         }
     }
 
+    /**
+     * Loading profiles for {@link #getAllHabits(LoadProfile)}, from lightest to heaviest.
+     */
+    public enum LoadProfile {
+        /** Scalar columns only: no custom days, milestones or completions. One query. */
+        SUMMARY,
+        /** Scalar columns and custom days, enough to work out when each habit is due. Two queries. */
+        SCHEDULE,
+        /** Scalar columns, custom days and completion dates, without milestones. Three queries. */
+        STATS,
+        /** Complete habits; custom days and milestones are batch-fetched for many habits per query. */
+        DETAIL
+    }
+
+    // Exposed for integration tests that count the SQL statements each profile issues
+    Statistics getStatistics() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
     // Custom exception for duplicate habits
     public static class DuplicateHabitException extends RuntimeException {
         private static final long serialVersionUID = 1L;
@@ -184,8 +522,13 @@ public class HabitRepository {
         EntityManager em = entityManagerFactory.createEntityManager();
         try {
             em.getTransaction().begin();
+            em.createQuery("DELETE FROM HabitCompletion").executeUpdate();
+            // Bulk deletes skip element collections, so clear their tables explicitly
+            em.createNativeQuery("DELETE FROM habit_milestones").executeUpdate();
+            em.createNativeQuery("DELETE FROM habit_custom_days").executeUpdate();
             em.createQuery("DELETE FROM Habit").executeUpdate();
             em.getTransaction().commit();
+            committed(new HabitChange(HabitChange.Type.CLEARED, null), null);
         } finally {
             em.close();
         }
@@ -201,11 +544,126 @@ public class HabitRepository {
     }
 
     public int getEarliestCompletionYear(Habit habit) {
-        return habit.getCompletedDates()
-                .stream()
-                .mapToInt(LocalDate::getYear)
-                .min()
-                .orElse(LocalDate.now().getYear()); // Default to current year if no completions
+        LocalDate firstCompletion = habit.getCompletions().first();
+        return firstCompletion != null
+                ? firstCompletion.getYear()
+                : LocalDate.now().getYear(); // Default to current year if no completions
+    }
+
+    private List<Habit> loadScalarHabits(EntityManager em) {
+        return em.createQuery("SELECT new org.habittracker.model.Habit(h.id, h.name, h.color, h.isCompleted, "
+                        + "h.creationDate, h.lastCompletedDate, h.frequency, h.streakCounter, h.bestStreak, "
+                        + "h.reminderEligible) FROM Habit h", Habit.class)
+                .getResultList();
+    }
+
+    private void attachCustomDays(EntityManager em, List<Habit> habits) {
+        Map<Long, List<DayOfWeek>> customDaysById = new HashMap<>(habits.size() * 2);
+        for (Habit habit : habits) {
+            List<DayOfWeek> customDays = new ArrayList<>();
+            habit.setCustomDays(customDays);
+            customDaysById.put(habit.getId(), customDays);
+        }
+        List<Object[]> rows = em.createQuery("SELECT h.id, d FROM Habit h JOIN h.customDays d", Object[].class)
+                .getResultList();
+        for (Object[] row : rows) {
+            List<DayOfWeek> customDays = customDaysById.get((Long) row[0]);
+            if (customDays != null) {
+                customDays.add((DayOfWeek) row[1]);
+            }
+        }
+    }
+
+    // Loads completion rows with one query and distributes them into the habits' bitmaps
+    private void attachCompletions(EntityManager em, List<Habit> habits, boolean onlyTheseHabits) {
+        if (habits.isEmpty()) {
+            return;
+        }
+        Map<Long, CompletionBitmap> completionsById = new HashMap<>(habits.size() * 2);
+        for (Habit habit : habits) {
+            completionsById.put(habit.getId(), habit.getCompletions());
+            habit.markCompletionsLoaded();
+        }
+        TypedQuery<Object[]> query = onlyTheseHabits
+                ? em.createQuery("SELECT c.id.habitId, c.id.completionDate FROM HabitCompletion c WHERE c.id.habitId IN :ids",
+                        Object[].class).setParameter("ids", completionsById.keySet())
+                : em.createQuery("SELECT c.id.habitId, c.id.completionDate FROM HabitCompletion c", Object[].class);
+        for (Object[] row : query.getResultList()) {
+            CompletionBitmap completions = completionsById.get((Long) row[0]);
+            if (completions != null) {
+                completions.add((LocalDate) row[1]);
+            }
+        }
+    }
+
+    private void attachCompletions(EntityManager em, Habit habit) {
+        if (habit == null) {
+            return;
+        }
+        CompletionBitmap completions = habit.getCompletions();
+        habit.markCompletionsLoaded();
+        em.createQuery("SELECT c.id.completionDate FROM HabitCompletion c WHERE c.id.habitId = :habitId", LocalDate.class)
+                .setParameter("habitId", habit.getId())
+                .getResultList()
+                .forEach(completions::add);
+    }
+
+    // Writes only the difference between the stored completion rows and the habit's bitmap. Rows missing from
+    // the bitmap are deleted only when it holds the whole history, so a habit loaded without it cannot erase it
+    private void saveCompletions(EntityManager em, Long habitId, CompletionBitmap completions, boolean complete) {
+        CompletionBitmap stored = new CompletionBitmap();
+        List<LocalDate> removed = new ArrayList<>();
+        for (LocalDate date : em.createQuery(
+                        "SELECT c.id.completionDate FROM HabitCompletion c WHERE c.id.habitId = :habitId", LocalDate.class)
+                .setParameter("habitId", habitId)
+                .getResultList()) {
+            stored.add(date);
+            if (complete && !completions.contains(date)) {
+                removed.add(date);
+            }
+        }
+
+        if (!removed.isEmpty()) {
+            em.createQuery("DELETE FROM HabitCompletion c WHERE c.id.habitId = :habitId AND c.id.completionDate IN :dates")
+                    .setParameter("habitId", habitId)
+                    .setParameter("dates", removed)
+                    .executeUpdate();
+        }
+        List<LocalDate> added = new ArrayList<>();
+        completions.forEach(date -> {
+            if (!stored.contains(date)) {
+                added.add(date);
+            }
+        });
+        insertCompletions(em, Map.of(habitId, added));
+    }
+
+    private static void setDate(PreparedStatement statement, int index, LocalDate date) throws SQLException {
+        if (date == null) {
+            statement.setNull(index, Types.DATE);
+        } else {
+            statement.setDate(index, Date.valueOf(date)); // Same binding Hibernate uses for LocalDate
+        }
+    }
+
+    // Writes completion rows through one JDBC batch on the transaction's connection
+    private void insertCompletions(EntityManager em, Map<Long, List<LocalDate>> datesByHabit) {
+        if (datesByHabit.values().stream().allMatch(List::isEmpty)) {
+            return;
+        }
+        em.unwrap(Session.class).doWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "INSERT INTO habit_completions (habit_id, completion_date) VALUES (?, ?)")) {
+                for (Map.Entry<Long, List<LocalDate>> entry : datesByHabit.entrySet()) {
+                    for (LocalDate date : entry.getValue()) {
+                        statement.setLong(1, entry.getKey());
+                        statement.setDate(2, Date.valueOf(date)); // Same binding Hibernate uses for LocalDate
+                        statement.addBatch();
+                    }
+                }
+                statement.executeBatch();
+            }
+        });
     }
 
 }
@@ -0,0 +1,457 @@
+package org.habittracker.repository;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
+import org.hibernate.service.spi.Configurable;
+import org.hibernate.service.spi.Stoppable;
+import org.sqlite.SQLiteConfig;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hibernate connection provider for a single SQLite file: one writer connection and a small pool of readers.
+ * <p>
+ * SQLite lets only one connection write at a time, so a larger general pool only adds lock contention. Every
+ * connection Hibernate acquires starts on a reader; when Hibernate begins a transaction by turning auto-commit off,
+ * it moves to the writer, and transactions queue for the writer in the order they began. A transaction begun
+ * through {@link #beginReadOnly(Runnable)} stays on its reader instead. The database runs in WAL mode, so readers
+ * keep reading the last committed data while a write is in progress instead of waiting for it, and a reader in a
+ * transaction keeps seeing the data as it was at its first read until the transaction ends.
+ * Prepared statements are cached per connection, and each connection is opened with the same {@code PRAGMA} tuning.
+ * <p>
+ * Configured in {@code persistence.xml} with {@code hibernate.connection.provider_class}; the optional
+ * {@link #READER_POOL_SIZE}, {@link #STATEMENT_CACHE_SIZE} and {@link #ACQUIRE_TIMEOUT} properties override the
+ * defaults.
+ */
+public class SQLiteConnectionProvider implements ConnectionProvider, Configurable, Stoppable {
+    // Hibernate services are Serializable, but the provider and its open connections are never serialized
+    private static final long serialVersionUID = 1L;
+    private static final Logger LOGGER = LogManager.getLogger(SQLiteConnectionProvider.class);
+
+    public static final String READER_POOL_SIZE = "habittracker.sqlite.readerPoolSize";
+    public static final String STATEMENT_CACHE_SIZE = "habittracker.sqlite.statementCacheSize";
+    public static final String ACQUIRE_TIMEOUT = "habittracker.sqlite.acquireTimeout";
+
+    private static final String JPA_JDBC_URL = "javax.persistence.jdbc.url";
+    private static final int DEFAULT_READER_POOL_SIZE = 3;
+    private static final int DEFAULT_STATEMENT_CACHE_SIZE = 50;
+    private static final int DEFAULT_ACQUIRE_TIMEOUT_MILLIS = 30_000;
+
+    private static final int CACHE_SIZE_KIB = 8192;
+    private static final long MMAP_SIZE_BYTES = 64L * 1024 * 1024;
+    private static final int BUSY_TIMEOUT_MILLIS = 5000;
+
+    private String url;
+    private int readerPoolSize;
+    private int statementCacheSize;
+    private long acquireTimeoutMillis;
+
+    // Fair, so transactions get the writer in the order they asked for it
+    private final Semaphore writerQueue = new Semaphore(1, true);
+    private PhysicalConnection writer;
+    private BlockingQueue<PhysicalConnection> idleReaders;
+    private final AtomicInteger openedReaders = new AtomicInteger();
+    private final List<PhysicalConnection> openConnections = new CopyOnWriteArrayList<>();
+
+    // Set on a thread while it begins a read-only transaction
+    private static final ThreadLocal<Boolean> beginningReadOnly = ThreadLocal.withInitial(() -> false);
+
+    // Hibernate 5 declares this with a raw Map, so a parameterized override would not compile
+    @Override
+    @SuppressWarnings("rawtypes")
+    public void configure(Map configurationValues) {
+        Object configuredUrl = configurationValues.get(AvailableSettings.URL);
+        if (configuredUrl == null) {
+            configuredUrl = configurationValues.get(JPA_JDBC_URL);
+        }
+        if (configuredUrl == null) {
+            throw new IllegalArgumentException("No JDBC URL configured for " + getClass().getSimpleName());
+        }
+        url = configuredUrl.toString();
+        readerPoolSize = intSetting(configurationValues, READER_POOL_SIZE, DEFAULT_READER_POOL_SIZE);
+        statementCacheSize = intSetting(configurationValues, STATEMENT_CACHE_SIZE, DEFAULT_STATEMENT_CACHE_SIZE);
+        acquireTimeoutMillis = intSetting(configurationValues, ACQUIRE_TIMEOUT, DEFAULT_ACQUIRE_TIMEOUT_MILLIS);
+        idleReaders = new ArrayBlockingQueue<>(readerPoolSize);
+
+        try {
+            // Opened first, so the switch to WAL happens before any reader exists
+            writer = open();
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not open the SQLite database at " + url, e);
+        }
+        if (LOGGER.isInfoEnabled()) {
+            LOGGER.info("SQLite connections for {}: 1 writer, up to {} readers", url, readerPoolSize);
+        }
+    }
+
+    /**
+     * Runs {@code begin}, which begins a transaction, so that the transaction stays on a reader connection instead of
+     * waiting for the writer. It must only read, and sees one snapshot of the database until it ends. With another
+     * connection provider the transaction begins as usual.
+     */
+    static void beginReadOnly(Runnable begin) {
+        beginningReadOnly.set(true);
+        try {
+            begin.run();
+        } finally {
+            beginningReadOnly.remove();
+        }
+    }
+
+    private static int intSetting(Map<?, ?> configurationValues, String name, int defaultValue) {
+        Object value = configurationValues.get(name);
+        return value == null ? defaultValue : Integer.parseInt(value.toString().trim());
+    }
+
+    static SQLiteConfig connectionConfig() {
+        SQLiteConfig config = new SQLiteConfig();
+        config.setJournalMode(SQLiteConfig.JournalMode.WAL);
+        // Safe with WAL: a power loss can roll back the last commits, but never corrupts the file
+        config.setSynchronous(SQLiteConfig.SynchronousMode.NORMAL);
+        config.setCacheSize(-CACHE_SIZE_KIB); // Negative values are in KiB rather than pages
+        config.setPragma(SQLiteConfig.Pragma.MMAP_SIZE, String.valueOf(MMAP_SIZE_BYTES));
+        config.setTempStore(SQLiteConfig.TempStore.MEMORY);
+        config.setBusyTimeout(BUSY_TIMEOUT_MILLIS);
+        return config;
+    }
+
+    private PhysicalConnection open() throws SQLException {
+        PhysicalConnection connection = new PhysicalConnection(connectionConfig().createConnection(url));
+        openConnections.add(connection);
+        return connection;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        LogicalConnection logical = new LogicalConnection(acquireReader());
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[] {Connection.class}, logical);
+    }
+
+    @Override
+    public void closeConnection(Connection connection) throws SQLException {
+        connection.close();
+    }
+
+    private PhysicalConnection acquireReader() throws SQLException {
+        PhysicalConnection reader = idleReaders.poll();
+        if (reader != null) {
+            return reader;
+        }
+        if (openedReaders.incrementAndGet() <= readerPoolSize) {
+            try {
+                return open();
+            } catch (SQLException e) {
+                openedReaders.decrementAndGet();
+                throw e;
+            }
+        }
+        openedReaders.decrementAndGet();
+        try {
+            reader = idleReaders.poll(acquireTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a SQLite reader connection", e);
+        }
+        if (reader == null) {
+            throw new SQLException("No SQLite reader connection became available within " + acquireTimeoutMillis + " ms");
+        }
+        return reader;
+    }
+
+    private void releaseReader(PhysicalConnection reader) throws SQLException {
+        try {
+            reader.reset();
+        } finally {
+            idleReaders.add(reader);
+        }
+    }
+
+    private PhysicalConnection acquireWriter() throws SQLException {
+        try {
+            if (!writerQueue.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new SQLException("The SQLite writer connection was not released within " + acquireTimeoutMillis + " ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for the SQLite writer connection", e);
+        }
+        return writer;
+    }
+
+    private void releaseWriter() throws SQLException {
+        try {
+            writer.reset();
+        } finally {
+            writerQueue.release();
+        }
+    }
+
+    int getOpenedReaderCount() {
+        return openedReaders.get();
+    }
+
+    @Override
+    public boolean supportsAggressiveRelease() {
+        return false;
+    }
+
+    // Raw for the same reason as configure
+    @Override
+    @SuppressWarnings("rawtypes")
+    public boolean isUnwrappableAs(Class unwrapType) {
+        return ConnectionProvider.class.equals(unwrapType) || SQLiteConnectionProvider.class.isAssignableFrom(unwrapType);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T unwrap(Class<T> unwrapType) {
+        if (isUnwrappableAs(unwrapType)) {
+            return (T) this;
+        }
+        throw new IllegalArgumentException("Cannot unwrap " + getClass().getSimpleName() + " as " + unwrapType);
+    }
+
+    @Override
+    public void stop() {
+        for (PhysicalConnection connection : openConnections) {
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                LOGGER.warn("Could not close SQLite connection to {}", url, e);
+            }
+        }
+        openConnections.clear();
+        idleReaders.clear();
+        openedReaders.set(0);
+    }
+
+    /**
+     * An open SQLite connection with its prepared statement cache. Used by one logical connection at a time.
+     */
+    private final class PhysicalConnection {
+        private final Connection connection;
+        private final Map<String, PreparedStatement> statements;
+        private final Set<PreparedStatement> inUse = Collections.newSetFromMap(new IdentityHashMap<>());
+        private final Map<PreparedStatement, ResultSet> openResults = new IdentityHashMap<>();
+
+        private PhysicalConnection(Connection connection) {
+            this.connection = connection;
+            this.statements = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+                    if (size() <= statementCacheSize || inUse.contains(eldest.getValue())) {
+                        return false;
+                    }
+                    closeQuietly(eldest.getValue());
+                    return true;
+                }
+            };
+        }
+
+        /**
+         * Returns the cached statement for {@code sql}, or prepares and caches it. Closing the returned statement
+         * only resets it for the next caller.
+         */
+        private PreparedStatement prepare(String sql, Connection owner) throws SQLException {
+            PreparedStatement statement = statements.get(sql);
+            if (statement == null || inUse.contains(statement)) {
+                PreparedStatement prepared = connection.prepareStatement(sql);
+                if (statement != null) {
+                    return prepared; // The same SQL is already open on this connection, so this copy is not cached
+                }
+                statement = prepared;
+                statements.put(sql, statement);
+            }
+            inUse.add(statement);
+            return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                    new Class<?>[] {PreparedStatement.class}, new CachedStatement(this, statement, owner));
+        }
+
+        private void returnStatement(PreparedStatement statement) throws SQLException {
+            ResultSet results = openResults.remove(statement);
+            if (results != null) {
+                results.close(); // Resets the statement, so it stops holding a read snapshot open
+            }
+            statement.clearParameters();
+            statement.clearBatch();
+            inUse.remove(statement);
+        }
+
+        // Leaves the connection as a new one would be for the next logical connection
+        private void reset() throws SQLException {
+            for (PreparedStatement statement : new ArrayList<>(inUse)) {
+                returnStatement(statement);
+            }
+            if (!connection.getAutoCommit()) {
+                connection.rollback();
+                connection.setAutoCommit(true);
+            }
+        }
+
+        private void close() throws SQLException {
+            for (PreparedStatement statement : statements.values()) {
+                closeQuietly(statement);
+            }
+            statements.clear();
+            connection.close();
+        }
+
+        private void closeQuietly(PreparedStatement statement) {
+            try {
+                statement.close();
+            } catch (SQLException e) {
+                LOGGER.warn("Could not close cached statement", e);
+            }
+        }
+    }
+
+    /**
+     * The connection handed to Hibernate. It reads through a reader connection and moves to the writer when a
+     * transaction that is not read-only begins, before it has run any statement.
+     */
+    private final class LogicalConnection implements InvocationHandler {
+        private PhysicalConnection current;
+        private boolean onWriter;
+        private boolean used;
+        private boolean closed;
+
+        private LogicalConnection(PhysicalConnection reader) {
+            this.current = reader;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    close();
+                    return null;
+                case "isClosed":
+                    return closed;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "SQLiteConnection[" + (onWriter ? "writer" : "reader") + ", " + url + "]";
+                default:
+                    break;
+            }
+            if (closed) {
+                throw new SQLException("Connection is closed");
+            }
+            if ("setAutoCommit".equals(method.getName()) && !((Boolean) args[0]) && !onWriter && !used
+                    && !beginningReadOnly.get()) {
+                moveToWriter();
+            }
+            if ("prepareStatement".equals(method.getName()) && args.length == 1) {
+                used = true;
+                return current.prepare((String) args[0], (Connection) proxy);
+            }
+            if (method.getName().startsWith("prepare") || "createStatement".equals(method.getName())) {
+                used = true;
+            }
+            return invokeOn(current.connection, method, args);
+        }
+
+        // The reader goes back first, so a writer waiting on a free reader cannot deadlock with this connection
+        private void moveToWriter() throws SQLException {
+            releaseReader(current);
+            try {
+                current = acquireWriter();
+            } catch (SQLException e) {
+                closed = true;
+                throw e;
+            }
+            onWriter = true;
+        }
+
+        private void close() throws SQLException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            if (onWriter) {
+                releaseWriter();
+            } else {
+                releaseReader(current);
+            }
+        }
+    }
+
+    /**
+     * A cached prepared statement as seen by one caller; closing it hands it back to the cache.
+     */
+    private static final class CachedStatement implements InvocationHandler {
+        private final PhysicalConnection physical;
+        private final PreparedStatement statement;
+        private final Connection owner;
+        private boolean closed;
+
+        private CachedStatement(PhysicalConnection physical, PreparedStatement statement, Connection owner) {
+            this.physical = physical;
+            this.statement = statement;
+            this.owner = owner;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        physical.returnStatement(statement);
+                    }
+                    return null;
+                case "isClosed":
+                    return closed;
+                case "getConnection":
+                    return owner;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    break;
+            }
+            if (closed) {
+                throw new SQLException("Statement is closed");
+            }
+            Object result = invokeOn(statement, method, args);
+            if (result instanceof ResultSet && !"getGeneratedKeys".equals(method.getName())) {
+                physical.openResults.put(statement, (ResultSet) result);
+            }
+            return result;
+        }
+    }
+
+    private static Object invokeOn(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
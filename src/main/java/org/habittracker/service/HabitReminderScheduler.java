@@ -1,35 +1,89 @@
 package org.habittracker.service;
 
-import javafx.application.Platform;
 import org.habittracker.model.Habit;
+import org.habittracker.repository.HabitChange;
+import org.habittracker.repository.HabitChangeListener;
 import org.habittracker.repository.HabitRepository;
 import org.habittracker.util.Notifier;
+import org.habittracker.util.ReminderSettings;
+import org.habittracker.util.WeekdaySchedule;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZonedDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+/**
+ * Reminds the user the day before a habit is due.
+ * <p>
+ * Each habit that is eligible for reminders has one entry in a priority queue ordered by the instant its next
+ * reminder fires, which is the configured local time on the day before the next due date. The scheduler sleeps
+ * until the head of the queue is due, so a wake-up only touches the reminders that fire then. The instant is
+ * computed from the local date and time in the clock's time zone, so reminders keep their local time across
+ * daylight saving changes, and a reminder whose time has already passed on the day before the due date fires
+ * straight away. Each due date is reminded at most once. When a habit is created, edited, completed or deleted,
+ * the repository reports it and only that habit's entry is replaced; entries that were replaced are skipped when
+ * they reach the head of the queue. All of this runs on the scheduler thread.
+ */
 public class HabitReminderScheduler {
+    // Shown instead when several reminders are waiting at once
+    static final String REMINDER_SUMMARY = "Reminder: %d habits are due tomorrow!";
+    // Upper bound on a single sleep, so a clock change or a suspended computer delays a reminder by at most this
+    private static final Duration MAX_SLEEP = Duration.ofHours(1);
+    private static final int DAYS_PER_WEEK = 7;
+
     final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(1);
     private final Notifier notifier;
     private final HabitRepository habitRepository;
+    private final Clock clock;
     private static final Logger LOGGER = LogManager.getLogger(HabitReminderScheduler.class);
-    private boolean remindersEnabled = true;
+    private volatile boolean remindersEnabled = true;
+    // Only changed on the scheduler thread
+    private LocalTime reminderTime;
+
+    // Only touched on the scheduler thread
+    private final PriorityQueue<NextDue> queue = new PriorityQueue<>(Comparator.comparing(NextDue::fireAt));
+    private final Map<Long, NextDue> nextDueByHabit = new HashMap<>();
+    // Due date of the last reminder shown per habit, so rescheduling a habit does not repeat it
+    private final Map<Long, LocalDate> remindedDueDates = new HashMap<>();
+    private ScheduledFuture<?> wakeUp;
 
-    public HabitReminderScheduler(Notifier notifier, HabitRepository habitRepository) {
+    private final HabitChangeListener changeListener = this::habitChanged;
+
+    /**
+     * @param reminderTime Local time of day at which reminders are shown, usually from {@link ReminderSettings}.
+     */
+    public HabitReminderScheduler(Notifier notifier, HabitRepository habitRepository, LocalTime reminderTime) {
+        this(notifier, habitRepository, Clock.systemDefaultZone(), reminderTime);
+    }
+
+    HabitReminderScheduler(Notifier notifier, HabitRepository habitRepository, Clock clock, LocalTime reminderTime) {
         this.notifier = notifier;
         this.habitRepository = habitRepository;
+        this.clock = clock;
+        this.reminderTime = reminderTime;
     }
 
     public void start() {
-        scheduler.scheduleAtFixedRate(this::checkUpcomingReminders, 0, 24, TimeUnit.HOURS);
+        habitRepository.addChangeListener(changeListener);
+        scheduler.execute(this::checkUpcomingReminders);
     }
 
     public void stop() {
+        habitRepository.removeChangeListener(changeListener);
         scheduler.shutdown();
     }
 
@@ -40,19 +94,155 @@ public class HabitReminderScheduler {
         notifier.showMessage(message, color);
     }
 
+    /**
+     * Moves every reminder to {@code reminderTime}. A reminder whose new time has already passed fires straight
+     * away, unless it was shown before.
+     */
+    public void setReminderTime(LocalTime reminderTime) {
+        if (!scheduler.isShutdown()) {
+            scheduler.execute(() -> {
+                this.reminderTime = reminderTime;
+                checkUpcomingReminders();
+            });
+        }
+    }
+
+    /**
+     * Rebuilds the queue from every habit in the repository and shows the reminders that are due.
+     */
     void checkUpcomingReminders() {
-        if (!remindersEnabled) {
+        queue.clear();
+        nextDueByHabit.clear();
+        List<Habit> habits = habitRepository.getAllHabits(HabitRepository.LoadProfile.SCHEDULE);
+        LocalDate today = LocalDate.now(clock);
+        for (Habit habit : habits) {
+            schedule(habit, today);
+        }
+        if (LOGGER.isInfoEnabled()) {
+            LOGGER.info("Scheduled reminders for {} of {} habits", queue.size(), habits.size());
+        }
+        fireDueReminders();
+    }
+
+    private void habitChanged(HabitChange change) {
+        if (scheduler.isShutdown()) {
             return;
         }
+        scheduler.execute(() -> {
+            switch (change.type()) {
+                case CLEARED -> {
+                    queue.clear();
+                    nextDueByHabit.clear();
+                    remindedDueDates.clear();
+                }
+                case DELETED -> {
+                    nextDueByHabit.remove(change.habitId());
+                    remindedDueDates.remove(change.habitId());
+                }
+                default -> reschedule(change.habitId());
+            }
+            fireDueReminders();
+        });
+    }
 
-        LocalDate tomorrow = LocalDate.now().plusDays(1);
-        List<Habit> habits = habitRepository.getAllHabits();
+    void reschedule(Long habitId) {
+        nextDueByHabit.remove(habitId);
+        Habit habit = habitRepository.findHabitById(habitId);
+        if (habit != null) {
+            schedule(habit, LocalDate.now(clock));
+        }
+    }
 
-        for (Habit habit : habits) {
-            if (isReminderDue(habit, tomorrow)) {
-                Platform.runLater(() -> notifier.showMessage(
-                        "Reminder: '" + habit.getName() + "' is due tomorrow!", "blue"
-                ));
+    // Queues the first reminder not shown yet for a due date after `today`; the reminder itself may fire today
+    private void schedule(Habit habit, LocalDate today) {
+        if (!habit.isReminderEligible()) {
+            return;
+        }
+        LocalDate from = today.plusDays(1);
+        LocalDate reminded = remindedDueDates.get(habit.getId());
+        if (reminded != null && !reminded.isBefore(from)) {
+            from = reminded.plusDays(1);
+        }
+        LocalDate dueDate = nextDueDate(habit, from);
+        if (dueDate != null) {
+            NextDue next = new NextDue(habit.getId(), habit.getName(), dueDate, reminderInstant(dueDate));
+            nextDueByHabit.put(habit.getId(), next);
+            queue.add(next);
+        }
+    }
+
+    Instant reminderInstant(LocalDate dueDate) {
+        // ZonedDateTime moves a time that falls in a daylight saving gap forward by the length of the gap
+        return ZonedDateTime.of(dueDate.minusDays(1), reminderTime, clock.getZone()).toInstant();
+    }
+
+    /**
+     * Shows every reminder whose time has come, queues the habit's following reminder, and sleeps until the
+     * next one.
+     */
+    void fireDueReminders() {
+        Instant now = clock.instant();
+        NextDue head;
+        while ((head = queue.peek()) != null && !head.fireAt().isAfter(now)) {
+            queue.poll();
+            if (nextDueByHabit.get(head.habitId()) != head) {
+                continue; // Replaced after the habit changed
+            }
+            if (remindersEnabled) {
+                notifier.showGroupedMessage("Reminder: '" + head.habitName() + "' is due tomorrow!", "blue",
+                        REMINDER_SUMMARY);
+            }
+            remindedDueDates.put(head.habitId(), head.dueDate());
+            Habit habit = habitRepository.findHabitById(head.habitId());
+            nextDueByHabit.remove(head.habitId());
+            if (habit != null) {
+                schedule(habit, head.dueDate());
+            }
+        }
+
+        if (wakeUp != null) {
+            wakeUp.cancel(false);
+        }
+        if (head != null && !scheduler.isShutdown()) {
+            Duration delay = Duration.between(now, head.fireAt());
+            long millis = Math.min(delay.toMillis(), MAX_SLEEP.toMillis());
+            wakeUp = scheduler.schedule(this::fireDueReminders, millis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * The first date on or after {@code from} on which the habit is due, or {@code null} if there is none.
+     */
+    LocalDate nextDueDate(Habit habit, LocalDate from) {
+        LocalDate dueDate = habit.getLastCompletedDate() != null ? habit.getLastCompletedDate() : habit.getCreationDate();
+        if (dueDate == null || habit.getFrequency() == null) {
+            return null;
+        }
+        switch (habit.getFrequency()) {
+            case DAILY, CUSTOM -> {
+                for (int day = 0; day < DAYS_PER_WEEK; day++) {
+                    if (isReminderDue(habit, from.plusDays(day))) {
+                        return from.plusDays(day);
+                    }
+                }
+                return null;
+            }
+            case WEEKLY -> {
+                LocalDate start = from.isAfter(dueDate) ? from : dueDate;
+                long offset = Math.floorMod(ChronoUnit.DAYS.between(dueDate, start), DAYS_PER_WEEK);
+                return offset == 0 ? start : start.plusDays(DAYS_PER_WEEK - offset);
+            }
+            case MONTHLY -> {
+                // Counted from the due date each time, so a habit due on the 31st comes back on the 31st
+                long months = Math.max(1, ChronoUnit.MONTHS.between(dueDate, from));
+                LocalDate nextDueDate = dueDate.plusMonths(months);
+                while (nextDueDate.isBefore(from)) {
+                    nextDueDate = dueDate.plusMonths(++months); // A missed month rolls on to the next
+                }
+                return nextDueDate;
+            }
+            default -> {
+                return null;
             }
         }
     }
@@ -66,13 +256,29 @@ public class HabitReminderScheduler {
             LocalDate nextDueDate = dueDate.plusMonths(1).withDayOfMonth(
                     Math.min(dueDate.getDayOfMonth(), date.lengthOfMonth()));
             return nextDueDate.equals(date);
+        } else if (habit.getFrequency() == Habit.Frequency.DAILY) {
+            return date.isAfter(dueDate);
+        } else if (habit.getFrequency() == Habit.Frequency.CUSTOM) {
+            return date.isAfter(dueDate) && WeekdaySchedule.of(habit.getCustomDays()).includes(date.getDayOfWeek());
         }
         return false;
     }
 
+    /**
+     * Number of habits with a reminder queued.
+     */
+    int getScheduledCount() {
+        return nextDueByHabit.size();
+    }
+
+    NextDue getNextDue(Long habitId) {
+        return nextDueByHabit.get(habitId);
+    }
+
     public void shutdownNow() {
         if (!scheduler.isShutdown()) {
             LOGGER.info("Forcefully shutting down HabitReminderScheduler...");
+            habitRepository.removeChangeListener(changeListener);
             scheduler.shutdownNow();
             try {
                 if (!scheduler.awaitTermination(5, TimeUnit.SECONDS)) {
@@ -87,4 +293,12 @@ public class HabitReminderScheduler {
         }
     }
 
+    /**
+     * The next reminder of one habit.
+     *
+     * @param dueDate The date the habit is due.
+     * @param fireAt  When the reminder is shown, the day before {@code dueDate}.
+     */
+    record NextDue(Long habitId, String habitName, LocalDate dueDate, Instant fireAt) {
+    }
 }
@@ -24,11 +24,16 @@
 
 package org.habittracker.service;
 
+import org.habittracker.model.CompletionBatchResult;
 import org.habittracker.model.Habit;
+import org.habittracker.model.HabitSummary;
 import org.habittracker.repository.HabitRepository;
 import org.habittracker.util.Notifier;
 import org.habittracker.util.MilestoneManager;
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 public class HabitService {
     private final HabitRepository habitRepository;
@@ -45,7 +50,22 @@ public class HabitService {
         return habitRepository.getAllHabits();
     }
 
-    // Find a habit by its name
+    // Retrieve the lightweight rows shown in the habit list
+    public List<HabitSummary> findSummaries() {
+        return habitRepository.findSummaries();
+    }
+
+    // Retrieve the summaries whose name starts with the search text (not case sensitive)
+    public List<HabitSummary> findSummariesByPrefix(String prefix) {
+        return habitRepository.findSummariesByPrefix(prefix);
+    }
+
+    // Find a habit by its id
+    public Habit findHabitById(Long id) {
+        return habitRepository.findHabitById(id);
+    }
+
+    // Find a habit by its name (not case sensitive)
     public Habit findHabitByName(String name) {
         return habitRepository.findHabitByName(name);
     }
@@ -69,6 +89,28 @@ public class HabitService {
     }
 
 
+    /**
+     * Marks completions for many habits at once, e.g. completing everything due today or importing history.
+     * All dates are written in one transaction and a single summary notification is shown.
+     *
+     * @param datesByHabit Completion dates keyed by habit id.
+     * @return Per-habit results keyed by habit id.
+     */
+    public Map<Long, CompletionBatchResult> markCompletedBatch(Map<Long, ? extends Collection<LocalDate>> datesByHabit) {
+        int[] milestonesReached = new int[1];
+        Map<Long, CompletionBatchResult> results = habitRepository.markCompletedBatch(datesByHabit,
+                (habit, previousStreak) -> milestonesReached[0] += recordMilestonesPassed(habit, previousStreak));
+
+        int added = results.values().stream().mapToInt(CompletionBatchResult::addedCount).sum();
+        long habitsUpdated = results.values().stream().filter(result -> result.addedCount() > 0).count();
+        String message = "Marked " + added + " completion" + (added == 1 ? "" : "s") + " across " + habitsUpdated
+                + " habit" + (habitsUpdated == 1 ? "" : "s") + ".";
+        if (milestonesReached[0] > 0) {
+            message += " Milestones reached: " + milestonesReached[0] + "!";
+        }
+        notifier.showMessage(message, "green");
+        return results;
+    }
 
     public void deleteHabit(Habit habit) {
         habitRepository.deleteHabit(habit);
@@ -77,16 +119,7 @@ public class HabitService {
 
     // Checks milestones and shows a milestone notification if reached
     public boolean checkMilestones(Habit habit) {
-        int streak = habit.getStreakCounter();
-        boolean milestoneReached = false;
-
-        for (int milestone : MilestoneManager.MILESTONES) {
-            if (streak == milestone && !habit.isMilestoneAchieved(milestone)) {
-                habit.addMilestone(milestone); // Mark milestone as achieved
-                milestoneReached = true;
-                break; // Stop further checks once a milestone is achieved
-            }
-        }
+        boolean milestoneReached = recordMilestone(habit);
 
         // If a milestone was reached, notify the user
         if (milestoneReached) {
@@ -98,6 +131,30 @@ public class HabitService {
         return milestoneReached;
     }
 
+    // Marks the milestone matching the current streak as achieved, without notifying
+    private boolean recordMilestone(Habit habit) {
+        int streak = habit.getStreakCounter();
+        for (int milestone : MilestoneManager.MILESTONES) {
+            if (streak == milestone && !habit.isMilestoneAchieved(milestone)) {
+                habit.addMilestone(milestone); // Mark milestone as achieved
+                return true; // Stop further checks once a milestone is achieved
+            }
+        }
+        return false;
+    }
+
+    // A batch can raise the streak by several days at once, so every milestone it passed is recorded
+    private int recordMilestonesPassed(Habit habit, int previousStreak) {
+        int streak = habit.getStreakCounter();
+        int recorded = 0;
+        for (int milestone : MilestoneManager.MILESTONES) {
+            if (milestone > previousStreak && milestone <= streak && !habit.isMilestoneAchieved(milestone)) {
+                habit.addMilestone(milestone);
+                recorded++;
+            }
+        }
+        return recorded;
+    }
 
     String generateMilestoneMessage(int milestone) {
         return switch (milestone) {
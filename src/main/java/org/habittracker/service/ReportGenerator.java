@@ -1,15 +1,15 @@
 package org.habittracker.service;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.habittracker.model.Habit;
 import org.habittracker.model.MonthlyReport;
 import org.habittracker.model.HabitReportData;
 import org.habittracker.repository.HabitRepository;
-import org.habittracker.util.HabitStatisticsCalculator;
-import org.habittracker.util.LocalDateAdapter;
+import org.habittracker.util.HabitStatsSnapshot;
+import org.habittracker.util.MonthlyReportTypeAdapter;
 import org.habittracker.util.Notifier;
 
 import java.io.IOException;
@@ -21,75 +21,117 @@ import java.time.YearMonth;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
 public class ReportGenerator {
     private static final Logger LOGGER = LogManager.getLogger(ReportGenerator.class);
-    private static final Gson GSON = new GsonBuilder()
-            .registerTypeAdapter(LocalDate.class, new LocalDateAdapter()) // Register the LocalDateAdapter
-            .setPrettyPrinting()
-            .create();
+    private static final MonthlyReportTypeAdapter REPORT_ADAPTER = new MonthlyReportTypeAdapter();
+    private static final String PRETTY_INDENT = "  ";
 
     private final HabitRepository habitRepository;
     private final Notifier notifier;
-    private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(1);
+    // Below this many habits the statistics are computed on the calling thread
+    static final int PARALLEL_THRESHOLD = 64;
+    // Shared, bounded pool for the per-habit statistics stage; its worker threads are daemons
+    private static final ForkJoinPool STATS_POOL =
+            new ForkJoinPool(Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), 4)));
 
-    // Reusable list and objects
-    private final List<HabitReportData> habitDataList = new ArrayList<>();
-    private final HabitReportData reusableHabitReportData = new HabitReportData("", 0, 0, 0, 0);
+    private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(1);
+    private boolean prettyPrint;
+    private Path reportsDirectory = Paths.get("reports");
 
     public ReportGenerator(HabitRepository habitRepository, Notifier notifier) {
         this.habitRepository = habitRepository;
         this.notifier = notifier;
     }
 
+    /**
+     * Whether report files are indented. Reports are written compact unless this is turned on.
+     */
+    public void setPrettyPrint(boolean prettyPrint) {
+        this.prettyPrint = prettyPrint;
+    }
+
+    // Lets tests write reports somewhere other than the working directory
+    void setReportsDirectory(Path reportsDirectory) {
+        this.reportsDirectory = reportsDirectory;
+    }
+
+    /**
+     * Generates the report for {@code period}. Statistics are computed as of the last day of that month,
+     * so a report for a past month shows that month's numbers rather than the current month's.
+     */
     public void generateMonthlyReport(YearMonth period) {
-        List<Habit> habits = habitRepository.getAllHabits();
-        habitDataList.clear(); // Clear the list for reuse
+        List<Habit> habits = habitRepository.getAllHabits(HabitRepository.LoadProfile.STATS);
+        writeReports(habits, List.of(period));
 
-        // Collect data for each habit without creating new HabitReportData objects
-        for (Habit habit : habits) {
-            reusableHabitReportData.setHabitName(habit.getName());
-            reusableHabitReportData.setCompletionRate(HabitStatisticsCalculator.calculateMonthlyPerformance(habit));
-            reusableHabitReportData.setLongestStreak(HabitStatisticsCalculator.calculateLongestStreak(habit));
-            reusableHabitReportData.setMonthlyConsistency(HabitStatisticsCalculator.calculateMonthlyConsistency(habit));
-            reusableHabitReportData.setRanking(0);
-
-            // Clone the reusable object to avoid overwriting data and add to the list
-            habitDataList.add(new HabitReportData(
-                    reusableHabitReportData.getHabitName(),
-                    reusableHabitReportData.getCompletionRate(),
-                    reusableHabitReportData.getLongestStreak(),
-                    reusableHabitReportData.getMonthlyConsistency(),
-                    reusableHabitReportData.getRanking()
-            ));
-        }
+        // Notify user about the new report
+        notifier.showMessage("New Monthly Report for " + period + " is available!", "green");
+    }
 
-        // Sort habits by completion rate and then assign rankings
-        habitDataList.sort(Comparator.comparingInt(HabitReportData::getCompletionRate).reversed());
-        for (int i = 0; i < habitDataList.size(); i++) {
-            habitDataList.get(i).setRanking(i + 1);
-        }
+    /**
+     * Writes one report per month in {@code months}, which must be in ascending order. Every habit's
+     * completions are scanned once, as of the end of the last month, and all months are read from that pass.
+     */
+    private void writeReports(List<Habit> habits, List<YearMonth> months) {
+        LocalDate snapshotDate = months.get(months.size() - 1).atEndOfMonth();
+        List<HabitStatsSnapshot> snapshots = collectSnapshots(habits, snapshotDate);
+
+        for (YearMonth period : months) {
+            List<HabitReportData> habitDataList = new ArrayList<>(habits.size());
+            for (int i = 0; i < habits.size(); i++) {
+                habitDataList.add(toReportData(habits.get(i), snapshots.get(i), period));
+            }
 
-        // Create the report
-        MonthlyReport monthlyReport = new MonthlyReport(
-                period.toString(),
-                new ArrayList<>(habitDataList), // Ensure a separate list is passed
-                LocalDate.now()
-        );
+            // Sort habits by completion rate and then assign rankings. The sort is stable, so ties keep repository order
+            habitDataList.sort(Comparator.comparingInt(HabitReportData::getCompletionRate).reversed());
+            for (int i = 0; i < habitDataList.size(); i++) {
+                habitDataList.get(i).setRanking(i + 1);
+            }
 
-        // Save the report to JSON
-        saveReportAsJson(monthlyReport, period);
+            // Create the report
+            MonthlyReport monthlyReport = new MonthlyReport(
+                    period.toString(),
+                    habitDataList,
+                    LocalDate.now()
+            );
 
-        // Notify user about the new report
-        notifier.showMessage("New Monthly Report for " + period + " is available!", "green");
+            // Save the report to JSON
+            saveReportAsJson(monthlyReport, period);
+        }
+    }
+
+    /**
+     * Computes one statistics snapshot per habit. Each snapshot depends only on its own habit, so large lists
+     * are mapped in parallel on the shared pool; the ordered collect keeps repository order either way.
+     */
+    private List<HabitStatsSnapshot> collectSnapshots(List<Habit> habits, LocalDate snapshotDate) {
+        if (habits.size() < PARALLEL_THRESHOLD) {
+            return habits.stream().map(habit -> HabitStatsSnapshot.of(habit, snapshotDate)).toList();
+        }
+        try {
+            return STATS_POOL.submit(() -> habits.parallelStream()
+                    .map(habit -> HabitStatsSnapshot.of(habit, snapshotDate))
+                    .toList()).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while computing report statistics", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Error computing report statistics", e.getCause());
+        }
+    }
+
+    private static HabitReportData toReportData(Habit habit, HabitStatsSnapshot stats, YearMonth period) {
+        return new HabitReportData(habit.getName(), stats.getMonthlyPerformance(period), stats.getLongestStreak(period),
+                stats.getMonthlyConsistency(period), 0);
     }
 
     private void saveReportAsJson(MonthlyReport report, YearMonth period) {
-        String fileName = "MonthlyReport-" + period.toString() + ".json";
-        Path filePath = Paths.get("reports", fileName);
+        Path filePath = reportPath(period);
 
         // Ensure the 'reports' directory exists
         Path directory = filePath.getParent();
@@ -98,8 +140,11 @@ public class ReportGenerator {
                 Files.createDirectories(directory);
             }
 
-            try (var writer = Files.newBufferedWriter(filePath)) {
-                GSON.toJson(report, writer);
+            try (JsonWriter writer = new JsonWriter(Files.newBufferedWriter(filePath))) {
+                if (prettyPrint) {
+                    writer.setIndent(PRETTY_INDENT);
+                }
+                REPORT_ADAPTER.write(writer, report);
                 LOGGER.info("Report saved successfully to {}", filePath);
             }
         } catch (IOException e) {
@@ -108,31 +153,59 @@ public class ReportGenerator {
     }
 
     public MonthlyReport loadMonthlyReport(YearMonth period) {
-        String fileName = "MonthlyReport-" + period.toString() + ".json";
-        Path filePath = Paths.get("reports", fileName);
+        Path filePath = reportPath(period);
 
-        try (var reader = Files.newBufferedReader(filePath)) {
-            return GSON.fromJson(reader, MonthlyReport.class);
+        try (JsonReader reader = new JsonReader(Files.newBufferedReader(filePath))) {
+            return REPORT_ADAPTER.read(reader);
         } catch (IOException e) {
             LOGGER.error("Error loading monthly report from JSON file: {}", filePath, e);
             return null;
         }
     }
 
+    /**
+     * Generates every missing report from the month of the earliest completion up to last month, all from
+     * a single statistics pass per habit.
+     */
     public void checkForMissedReports() {
-        LocalDate lastDayOfPreviousMonth = LocalDate.now().minusMonths(1).withDayOfMonth(LocalDate.now().minusMonths(1).lengthOfMonth());
-        YearMonth lastMonth = YearMonth.from(lastDayOfPreviousMonth);
-        String reportFilename = "MonthlyReport-" + lastMonth.toString() + ".json";
-        Path filePath = Paths.get("reports", reportFilename);
-
-        // If the report file doesn’t exist, generate it
-        if (!Files.exists(filePath)) {
-            LOGGER.info("Generating missed report for {}", lastMonth);
-            generateMonthlyReport(lastMonth);
-            notifier.showMessage("New Monthly Report for " + lastMonth.getMonth() + " is available!", "green");
-        } else {
+        YearMonth lastMonth = YearMonth.now().minusMonths(1);
+        List<Habit> habits = habitRepository.getAllHabits(HabitRepository.LoadProfile.STATS);
+
+        List<YearMonth> missedMonths = new ArrayList<>();
+        for (YearMonth month = earliestCompletionMonth(habits, lastMonth); !month.isAfter(lastMonth); month = month.plusMonths(1)) {
+            if (!Files.exists(reportPath(month))) {
+                missedMonths.add(month);
+            }
+        }
+
+        // If any report file doesn’t exist, generate it
+        if (missedMonths.isEmpty()) {
             LOGGER.info("Report for {} already exists. No action needed.", lastMonth);
+            return;
         }
+        LOGGER.info("Generating {} missed report(s) from {} to {}", missedMonths.size(), missedMonths.get(0), lastMonth);
+        writeReports(habits, missedMonths);
+
+        if (missedMonths.size() == 1) {
+            notifier.showMessage("New Monthly Report for " + missedMonths.get(0).getMonth() + " is available!", "green");
+        } else {
+            notifier.showMessage(missedMonths.size() + " missed Monthly Reports are now available!", "green");
+        }
+    }
+
+    private static YearMonth earliestCompletionMonth(List<Habit> habits, YearMonth latest) {
+        YearMonth earliest = latest;
+        for (Habit habit : habits) {
+            LocalDate first = habit.getCompletions().first();
+            if (first != null && YearMonth.from(first).isBefore(earliest)) {
+                earliest = YearMonth.from(first);
+            }
+        }
+        return earliest;
+    }
+
+    private Path reportPath(YearMonth period) {
+        return reportsDirectory.resolve("MonthlyReport-" + period.toString() + ".json");
     }
 
 
@@ -0,0 +1,84 @@
+package org.habittracker.util;
+
+import org.habittracker.repository.HabitChange;
+import org.habittracker.repository.HabitChangeListener;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Change journal for incremental backups: which habits were written since the last backup.
+ * <p>
+ * Changes are coalesced per habit, so a habit that is completed many times between two backups is written
+ * once, with its state at backup time. A deletion replaces any earlier change to the same habit, and clearing
+ * every habit drops everything recorded before it.
+ */
+final class BackupJournal implements HabitChangeListener {
+
+    private final Map<Long, HabitChange.Type> changes = new LinkedHashMap<>();
+    private boolean cleared;
+
+    @Override
+    public synchronized void habitChanged(HabitChange change) {
+        if (change.type() == HabitChange.Type.CLEARED) {
+            changes.clear();
+            cleared = true;
+            return;
+        }
+        if (change.habitId() == null) {
+            return;
+        }
+        changes.put(change.habitId(), change.type()); // Only the latest change to each habit matters
+    }
+
+    synchronized boolean isEmpty() {
+        return !cleared && changes.isEmpty();
+    }
+
+    synchronized int size() {
+        return changes.size();
+    }
+
+    /**
+     * Returns everything recorded so far and starts a new, empty journal.
+     */
+    synchronized Pending drain() {
+        List<Long> changed = new ArrayList<>();
+        List<Long> deleted = new ArrayList<>();
+        for (Map.Entry<Long, HabitChange.Type> entry : changes.entrySet()) {
+            (entry.getValue() == HabitChange.Type.DELETED ? deleted : changed).add(entry.getKey());
+        }
+        Pending pending = new Pending(cleared, changed, deleted);
+        changes.clear();
+        cleared = false;
+        return pending;
+    }
+
+    /**
+     * Puts back changes taken by {@link #drain()} that could not be written. Anything recorded since the
+     * drain is newer and wins.
+     */
+    synchronized void restore(Pending pending) {
+        if (cleared) {
+            return;
+        }
+        Map<Long, HabitChange.Type> newer = new LinkedHashMap<>(changes);
+        changes.clear();
+        pending.deletedIds().forEach(id -> changes.put(id, HabitChange.Type.DELETED));
+        pending.changedIds().forEach(id -> changes.put(id, HabitChange.Type.UPDATED));
+        changes.putAll(newer);
+        cleared = pending.cleared();
+    }
+
+    /**
+     * Changes taken from the journal for one backup.
+     *
+     * @param cleared    Whether every habit was removed before the other changes.
+     * @param changedIds Habits created or changed since the last backup.
+     * @param deletedIds Habits deleted since the last backup.
+     */
+    record Pending(boolean cleared, List<Long> changedIds, List<Long> deletedIds) {
+    }
+}
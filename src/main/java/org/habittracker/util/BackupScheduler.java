@@ -1,64 +1,189 @@
 package org.habittracker.util;
 
-import javafx.application.Platform;
-import java.util.Timer;
-import java.util.TimerTask;
-import java.time.LocalDate;
-import java.time.temporal.ChronoUnit;
-import java.util.List;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.habittracker.model.Habit;
+import org.habittracker.repository.HabitRepository;
 
+/**
+ * Monthly automatic backups.
+ * <p>
+ * Backups run on a single daemon thread, never on the JavaFX application thread, and read the habits straight
+ * from the repository through an {@link IncrementalBackup}, which writes each file to a temporary file and renames
+ * it into place and removes old backups by count and size. Runs are scheduled whole calendar months after
+ * auto-backup was enabled, at the same local time. The executor's delays do not advance while the computer is
+ * suspended, so the backup thread sleeps at most an hour at a time and checks the wall clock in the system time zone
+ * each time it wakes; a run that fell due while the computer slept happens within an hour of it waking up.
+ */
 public class BackupScheduler {
     private static final Logger LOGGER = LogManager.getLogger(BackupScheduler.class);
 
-    private static Timer timer;
+    static final Path BACKUP_DIRECTORY = Path.of("backups");
+    // Upper bound on a single sleep, so a suspended computer or a clock change delays a backup by at most this
+    static final Duration MAX_SLEEP = Duration.ofHours(1);
+
+    private static final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "auto-backup");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static ScheduledFuture<?> nextBackup;
+    private static ZonedDateTime nextBackupTime;
     private static boolean autoBackupStatus;
+    private static IncrementalBackup incrementalBackup;
 
-    public static void startAutoBackup(List<Habit> habits) {
+    public static synchronized void startAutoBackup() {
         if (autoBackupStatus) {
-            LocalDate nextBackupDate = LocalDate.now().plus(1, ChronoUnit.MONTHS);
-            timer = new Timer(true);
-            timer.scheduleAtFixedRate(new TimerTask() {
-                @Override
-                public void run() {
-                    Platform.runLater(() -> {
-                        // Generate file path with date
-                        String filePath = "backup_" + nextBackupDate + ".json";
-                        JsonBackupHelper.backupHabitsToJson(habits, filePath);
-                        if (LOGGER.isInfoEnabled()) {
-                            LOGGER.info("Monthly backup created: " + filePath);
-                        }
-
-                    });
-                }
-            }, nextBackupDate.toEpochDay(), ChronoUnit.MONTHS.getDuration().toMillis());
+            if (incrementalBackup == null) {
+                // Starts recording changes now, so every backup after the first full one only writes what changed
+                incrementalBackup = new IncrementalBackup(BACKUP_DIRECTORY, HabitRepository.getInstance());
+            }
+            cancelNextBackup();
+            schedule(ZonedDateTime.now(), 1);
             if (LOGGER.isInfoEnabled()) {
-                LOGGER.info("Auto-backup timer scheduled to run every month starting from " + nextBackupDate);
+                LOGGER.info("Auto-backup scheduled to run every month starting from " + nextBackupTime);
             }
         } else {
             LOGGER.warn("Auto-backup is disabled. Unable to start backup scheduling.");
         }
     }
 
-    public static void enableAutoBackup(List<Habit> habits) {
+    public static synchronized void enableAutoBackup() {
         autoBackupStatus = true;
         LOGGER.info("Auto-backup enabled.");
-        startAutoBackup(habits);
+        startAutoBackup();
     }
 
-    public static void disableAutoBackup() {
+    public static synchronized void disableAutoBackup() {
         autoBackupStatus = false;
-        if (timer != null) {
-            timer.cancel();
-            LOGGER.info("Auto-backup disabled and timer cancelled.");
+        if (nextBackup != null) {
+            cancelNextBackup();
+            LOGGER.info("Auto-backup disabled and scheduled backup cancelled.");
         } else {
-            LOGGER.warn("Auto-backup was already disabled; no timer to cancel.");
+            LOGGER.warn("Auto-backup was already disabled; no scheduled backup to cancel.");
+        }
+        if (incrementalBackup != null) {
+            IncrementalBackup backup = incrementalBackup;
+            incrementalBackup = null;
+            // Writing the pending changes is done on the backup thread, after any backup that is running
+            executor.execute(() -> {
+                try {
+                    backup.close();
+                } catch (IOException e) {
+                    LOGGER.error("Failed to write the pending incremental backup", e);
+                }
+            });
         }
     }
 
     public static boolean isAutoBackupEnabled() {
         return autoBackupStatus;
     }
+
+    /**
+     * Time of the next scheduled backup, or {@code null} if none is scheduled.
+     */
+    public static synchronized ZonedDateTime getNextBackupTime() {
+        return nextBackupTime;
+    }
+
+    /**
+     * Runs a backup on the backup thread now, without changing the schedule.
+     *
+     * @return The file written, or {@code null} if auto-backup is disabled or nothing changed.
+     */
+    public static Future<Path> backupNow() {
+        return executor.submit(BackupScheduler::runBackup);
+    }
+
+    // Counted from the first backup rather than the previous one, so Jan 31 is followed by Feb 28 and Mar 31
+    static ZonedDateTime backupTime(ZonedDateTime start, long months) {
+        return start.plusMonths(months);
+    }
+
+    // Milliseconds from now until the given time, or 0 if it has passed
+    static long delayMillis(ZonedDateTime now, ZonedDateTime time) {
+        return Math.max(0, Duration.between(now, time).toMillis());
+    }
+
+    // How long the backup thread sleeps before checking the wall clock again
+    static long sleepMillis(ZonedDateTime now, ZonedDateTime time) {
+        return Math.min(delayMillis(now, time), MAX_SLEEP.toMillis());
+    }
+
+    private static void schedule(ZonedDateTime start, long months) {
+        ZonedDateTime time = backupTime(start, months);
+        nextBackupTime = time;
+        wakeUpFor(start, months, time);
+    }
+
+    // Callers hold the class lock
+    private static void wakeUpFor(ZonedDateTime start, long months, ZonedDateTime time) {
+        nextBackup = executor.schedule(() -> {
+            synchronized (BackupScheduler.class) {
+                if (!autoBackupStatus || nextBackupTime != time) {
+                    return;
+                }
+                if (ZonedDateTime.now().isBefore(time)) {
+                    wakeUpFor(start, months, time);
+                    return;
+                }
+            }
+            try {
+                runBackup();
+            } catch (RuntimeException e) {
+                LOGGER.error("Monthly backup failed", e);
+            } finally {
+                // A failed backup must not end the schedule
+                synchronized (BackupScheduler.class) {
+                    if (autoBackupStatus && nextBackupTime == time) {
+                        long next = months + 1;
+                        ZonedDateTime now = ZonedDateTime.now();
+                        while (!backupTime(start, next).isAfter(now)) {
+                            next++; // Missed backups are not repeated
+                        }
+                        schedule(start, next);
+                    }
+                }
+            }
+        }, sleepMillis(ZonedDateTime.now(), time), TimeUnit.MILLISECONDS);
+    }
+
+    private static void cancelNextBackup() {
+        if (nextBackup != null) {
+            nextBackup.cancel(false);
+            nextBackup = null;
+        }
+        nextBackupTime = null;
+    }
+
+    private static Path runBackup() {
+        IncrementalBackup backup;
+        synchronized (BackupScheduler.class) {
+            backup = incrementalBackup;
+        }
+        if (backup == null) {
+            return null;
+        }
+        long start = System.nanoTime();
+        try {
+            Path filePath = backup.backup();
+            if (filePath != null && LOGGER.isInfoEnabled()) {
+                LOGGER.info("Monthly backup created: {} in {} ms", filePath, (System.nanoTime() - start) / 1_000_000);
+            }
+            return filePath;
+        } catch (IOException e) {
+            LOGGER.error("Monthly backup failed", e);
+            return null;
+        }
+    }
 }
@@ -0,0 +1,733 @@
+package org.habittracker.util;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.habittracker.model.CompletionBitmap;
+import org.habittracker.model.Habit;
+import org.habittracker.repository.HabitRepository;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Backups in the compact binary {@code .htb} format.
+ * <p>
+ * A file starts with a fixed header (magic, format version, flags and a CRC of those fields) that is never
+ * compressed. The rest is a sequence of sections, optionally compressed as one Deflate stream. Each section is
+ * a little-endian length, the payload and a CRC32 of the payload; there is one section per habit and a final
+ * section holding the number of habits, so truncated or damaged files are rejected instead of half-restored.
+ * <p>
+ * A habit section holds its scalar fields as varints and length-prefixed UTF-8 strings, then its completions
+ * either as runs of consecutive days (the gap from the end of the previous run and the run length, both as
+ * varints) or as a bitmap over the days between the first and last completion, whichever is smaller. Dates
+ * are epoch days. Files are written and read through a {@link FileChannel}, one habit at a time; a backup is
+ * written to a temporary file that is synced and renamed into place once it is complete.
+ * <p>
+ * Incremental backups ({@link IncrementalBackup}) use the same framing with a delta flag in the header and two
+ * more section types: the id of a deleted habit, and a marker that every habit was removed.
+ */
+public class BinaryBackupHelper {
+    private static final Logger LOGGER = LogManager.getLogger(BinaryBackupHelper.class);
+
+    public static final String FILE_EXTENSION = ".htb";
+
+    static final int MAGIC = 0x4854424B; // "HTBK"
+    static final int VERSION = 1;
+    static final int FLAG_DEFLATE = 1;
+    static final int FLAG_DELTA = 1 << 1;
+    private static final int HEADER_SIZE = 12;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    static final String TEMP_SUFFIX = ".tmp";
+    private static final int DEFAULT_RESTORE_BATCH_SIZE = 250;
+
+    private static final byte SECTION_HABIT = 1;
+    private static final byte SECTION_END = 2;
+    private static final byte SECTION_DELETED = 3;
+    private static final byte SECTION_CLEARED = 4;
+
+    private static final byte COMPLETIONS_NONE = 0;
+    private static final byte COMPLETIONS_RUNS = 1;
+    private static final byte COMPLETIONS_BITMAP = 2;
+
+    private static final int HABIT_COMPLETED = 1;
+    private static final int HABIT_REMINDER_ELIGIBLE = 1 << 1;
+    private static final int HABIT_HAS_CREATION_DATE = 1 << 2;
+    private static final int HABIT_HAS_LAST_COMPLETED_DATE = 1 << 3;
+    private static final int HABIT_HAS_CUSTOM_DAYS = 1 << 4;
+
+    private static final DayOfWeek[] DAYS = DayOfWeek.values();
+    private static final Habit.Frequency[] FREQUENCIES = Habit.Frequency.values();
+
+    /**
+     * Writes every habit in the repository to {@code filePath}, compressed.
+     */
+    public static void backupHabitsToBinary(String filePath) {
+        backupHabitsToBinary(filePath, true);
+    }
+
+    /**
+     * Writes every habit in the repository to {@code filePath}, reading them through
+     * {@link HabitRepository#forEachHabit(Consumer)} so that only one chunk of habits is in memory at a time.
+     *
+     * @param compress Whether to Deflate everything after the file header.
+     */
+    public static void backupHabitsToBinary(String filePath, boolean compress) {
+        backup(HabitRepository.getInstance()::forEachHabit, filePath, compress);
+    }
+
+    public static void backupHabitsToBinary(List<Habit> habits, String filePath, boolean compress) {
+        backup(habits::forEach, filePath, compress);
+    }
+
+    public static int restoreDataFromBinary(String filePath) {
+        return restoreDataFromBinary(filePath, DEFAULT_RESTORE_BATCH_SIZE, restored -> { });
+    }
+
+    /**
+     * Restores the habits in a binary backup that do not exist yet, matching names ignoring case, in the same
+     * way as {@link JsonBackupHelper#restoreDataFromJson(String, int, IntConsumer)}.
+     *
+     * @return The number of habits restored, or {@code -1} if the file could not be read.
+     */
+    public static int restoreDataFromBinary(String filePath, int batchSize, IntConsumer onProgress) {
+        HabitImporter importer = new HabitImporter(filePath, batchSize, onProgress);
+        try {
+            readHabits(Path.of(filePath), importer::accept);
+            return importer.finish();
+        } catch (IOException e) {
+            if (LOGGER.isWarnEnabled()) {
+                LOGGER.warn("Failed to restore data from " + filePath, e);
+            }
+            return -1;
+        }
+    }
+
+    private static void backup(Consumer<Consumer<? super Habit>> source, String filePath, boolean compress) {
+        try {
+            writeHabits(source, Path.of(filePath), compress);
+            LOGGER.info("Backup saved successfully to {}", filePath);
+        } catch (IOException | UncheckedIOException e) {
+            if (LOGGER.isWarnEnabled()) {
+                LOGGER.warn("Backup encountered an issue", e);
+            }
+        }
+    }
+
+    static void writeHabits(Consumer<Consumer<? super Habit>> source, Path path, boolean compress) throws IOException {
+        writeBackup(path, compress ? FLAG_DEFLATE : 0, out -> source.accept(out::habit));
+    }
+
+    /**
+     * Writes an incremental backup: an optional marker that every habit was removed, the ids of deleted habits
+     * and the current state of created or changed habits, applied in that order by
+     * {@link #readDelta(Path, DeltaVisitor)}.
+     */
+    static void writeDelta(Path path, boolean cleared, Collection<Long> deletedIds, Collection<Habit> changedHabits)
+            throws IOException {
+        writeBackup(path, FLAG_DEFLATE | FLAG_DELTA, out -> {
+            if (cleared) {
+                out.cleared();
+            }
+            deletedIds.forEach(out::deleted);
+            changedHabits.forEach(out::habit);
+        });
+    }
+
+    private static void writeBackup(Path path, int flags, Consumer<SectionOutput> body) throws IOException {
+        // Written next to the target and renamed over it once complete, so a crash never leaves a partial backup
+        Path temp = path.resolveSibling(path.getFileName() + TEMP_SUFFIX);
+        try {
+            writeBackupFile(temp, flags, body);
+            try {
+                Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static void writeBackupFile(Path path, int flags, Consumer<SectionOutput> body) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC).putShort((short) VERSION).putShort((short) flags);
+            header.putInt(crc(header.array(), 0, HEADER_SIZE - 4)).flip();
+            writeFully(channel, header);
+
+            SectionOutput out = new SectionOutput(new SectionWriter(channel, (flags & FLAG_DEFLATE) != 0));
+            try {
+                body.accept(out);
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            out.finish();
+            channel.force(true);
+        }
+    }
+
+    /**
+     * Reads every habit in a binary backup, in the order they were written.
+     *
+     * @throws IOException If the file is not a full binary backup, is of a newer version, or fails a CRC check.
+     */
+    static void readHabits(Path path, Consumer<? super Habit> action) throws IOException {
+        readBackup(path, false, action::accept);
+    }
+
+    /**
+     * Reads the sections of an incremental backup written by {@link #writeDelta}, in file order.
+     */
+    static void readDelta(Path path, DeltaVisitor visitor) throws IOException {
+        readBackup(path, true, visitor);
+    }
+
+    private static void readBackup(Path path, boolean delta, DeltaVisitor visitor) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining()) {
+                if (channel.read(header) < 0) {
+                    throw new EOFException("Not a binary backup: " + path);
+                }
+            }
+            header.flip();
+            if (header.getInt() != MAGIC) {
+                throw new IOException("Not a binary backup: " + path);
+            }
+            int version = header.getShort() & 0xFFFF;
+            int flags = header.getShort() & 0xFFFF;
+            if (header.getInt() != crc(header.array(), 0, HEADER_SIZE - 4)) {
+                throw new IOException("Backup header is damaged: " + path);
+            }
+            if (version > VERSION) {
+                throw new IOException("Backup version " + version + " is newer than this application supports");
+            }
+            if (((flags & FLAG_DELTA) != 0) != delta) {
+                throw new IOException(path + (delta ? " is not an incremental backup" : " is an incremental backup"));
+            }
+
+            SectionReader reader = new SectionReader(channel, (flags & FLAG_DEFLATE) != 0);
+            try {
+                readSections(reader, visitor);
+            } finally {
+                reader.end();
+            }
+        }
+    }
+
+    private static void readSections(SectionReader reader, DeltaVisitor visitor) throws IOException {
+        long count = 0;
+        while (true) {
+            ByteBuffer section = reader.next();
+            byte type = section.get();
+            switch (type) {
+                case SECTION_END -> {
+                    long expected = getVarLong(section);
+                    if (expected != count) {
+                        throw new IOException("Backup should contain " + expected + " sections but has " + count);
+                    }
+                    return;
+                }
+                case SECTION_HABIT -> visitor.habit(decodeHabit(section));
+                case SECTION_DELETED -> visitor.deleted(getVarLong(section));
+                case SECTION_CLEARED -> visitor.cleared();
+                default -> throw new IOException("Unknown backup section type " + type);
+            }
+            count++;
+        }
+    }
+
+    /**
+     * Receives the sections of a backup in file order. Full backups only contain habits.
+     */
+    interface DeltaVisitor {
+        void habit(Habit habit);
+
+        default void deleted(long habitId) throws IOException {
+            throw new IOException("Full backups do not contain deletions");
+        }
+
+        default void cleared() throws IOException {
+            throw new IOException("Full backups do not contain deletions");
+        }
+    }
+
+    static void encodeHabit(Habit habit, Payload out) {
+        int flags = (habit.checkCompletion() ? HABIT_COMPLETED : 0)
+                | (habit.isReminderEligible() ? HABIT_REMINDER_ELIGIBLE : 0)
+                | (habit.getCreationDate() != null ? HABIT_HAS_CREATION_DATE : 0)
+                | (habit.getLastCompletedDate() != null ? HABIT_HAS_LAST_COMPLETED_DATE : 0)
+                | (habit.getCustomDays() != null ? HABIT_HAS_CUSTOM_DAYS : 0);
+        out.putVarLong(habit.getId() == null ? 0 : habit.getId() + 1);
+        out.putString(habit.getName());
+        out.putString(habit.getColor());
+        out.putByte((byte) flags);
+        out.putByte((byte) (habit.getFrequency() == null ? 0 : habit.getFrequency().ordinal() + 1));
+        out.putSignedVarLong(habit.getStreakCounter());
+        out.putSignedVarLong(habit.getBestStreak());
+        if (habit.getCreationDate() != null) {
+            out.putSignedVarLong(habit.getCreationDate().toEpochDay());
+        }
+        if (habit.getLastCompletedDate() != null) {
+            out.putSignedVarLong(habit.getLastCompletedDate().toEpochDay());
+        }
+        if (habit.getCustomDays() != null) {
+            out.putVarLong(habit.getCustomDays().size());
+            for (DayOfWeek day : habit.getCustomDays()) {
+                out.putByte((byte) day.ordinal());
+            }
+        }
+        out.putVarLong(habit.getCompletedMilestones().size());
+        for (int milestone : habit.getCompletedMilestones()) {
+            out.putSignedVarLong(milestone);
+        }
+        encodeCompletions(habit.getCompletions(), out);
+    }
+
+    static Habit decodeHabit(ByteBuffer in) {
+        long id = getVarLong(in);
+        String name = getString(in);
+        String color = getString(in);
+        int flags = in.get();
+        int frequency = in.get();
+        int streakCounter = (int) getSignedVarLong(in);
+        int bestStreak = (int) getSignedVarLong(in);
+        LocalDate creationDate = (flags & HABIT_HAS_CREATION_DATE) != 0
+                ? LocalDate.ofEpochDay(getSignedVarLong(in)) : null;
+        LocalDate lastCompletedDate = (flags & HABIT_HAS_LAST_COMPLETED_DATE) != 0
+                ? LocalDate.ofEpochDay(getSignedVarLong(in)) : null;
+
+        Habit habit = new Habit(id == 0 ? null : id - 1, name, color, (flags & HABIT_COMPLETED) != 0, creationDate,
+                lastCompletedDate, frequency == 0 ? null : FREQUENCIES[frequency - 1], streakCounter, bestStreak,
+                (flags & HABIT_REMINDER_ELIGIBLE) != 0);
+        if ((flags & HABIT_HAS_CUSTOM_DAYS) != 0) {
+            int days = (int) getVarLong(in);
+            DayOfWeek[] customDays = new DayOfWeek[days];
+            for (int i = 0; i < days; i++) {
+                customDays[i] = DAYS[in.get()];
+            }
+            habit.setCustomDays(new ArrayList<>(Arrays.asList(customDays)));
+        }
+        long milestones = getVarLong(in);
+        for (long i = 0; i < milestones; i++) {
+            habit.addMilestone((int) getSignedVarLong(in));
+        }
+        habit.setCompletions(decodeCompletions(in));
+        return habit;
+    }
+
+    // Writes the completions as runs, then replaces them with a bitmap if that turns out smaller
+    private static void encodeCompletions(CompletionBitmap completions, Payload out) {
+        if (completions == null || completions.isEmpty()) {
+            out.putByte(COMPLETIONS_NONE);
+            return;
+        }
+        int start = out.position();
+        out.putByte(COMPLETIONS_RUNS);
+        long[] run = {Long.MIN_VALUE, Long.MIN_VALUE, 0}; // start, end, previous run end
+        int[] runs = {0};
+        Payload runData = new Payload();
+        completions.forEach(date -> {
+            long day = date.toEpochDay();
+            if (day == run[1] + 1) {
+                run[1] = day;
+                return;
+            }
+            if (run[0] != Long.MIN_VALUE) {
+                runData.putSignedVarLong(run[0] - run[2]);
+                runData.putVarLong(run[1] - run[0]);
+                run[2] = run[1];
+                runs[0]++;
+            }
+            run[0] = day;
+            run[1] = day;
+        });
+        runData.putSignedVarLong(run[0] - run[2]);
+        runData.putVarLong(run[1] - run[0]);
+        runs[0]++;
+        out.putVarLong(runs[0]);
+        out.putBytes(runData.array(), 0, runData.position());
+
+        long first = completions.first().toEpochDay();
+        long span = completions.last().toEpochDay() - first + 1;
+        int bitmapSize = 1 + Payload.signedVarLongSize(first) + Payload.varLongSize(span) + (int) ((span + 7) / 8);
+        if (bitmapSize < out.position() - start) {
+            out.truncate(start);
+            out.putByte(COMPLETIONS_BITMAP);
+            out.putSignedVarLong(first);
+            out.putVarLong(span);
+            byte[] bits = new byte[(int) ((span + 7) / 8)];
+            completions.forEach(date -> {
+                long offset = date.toEpochDay() - first;
+                bits[(int) (offset >>> 3)] |= (byte) (1 << (offset & 7));
+            });
+            out.putBytes(bits, 0, bits.length);
+        }
+    }
+
+    private static CompletionBitmap decodeCompletions(ByteBuffer in) {
+        CompletionBitmap completions = new CompletionBitmap();
+        byte encoding = in.get();
+        if (encoding == COMPLETIONS_RUNS) {
+            long runs = getVarLong(in);
+            long previousEnd = 0;
+            for (long i = 0; i < runs; i++) {
+                long start = previousEnd + getSignedVarLong(in);
+                long end = start + getVarLong(in);
+                for (long day = start; day <= end; day++) {
+                    completions.add(LocalDate.ofEpochDay(day));
+                }
+                previousEnd = end;
+            }
+        } else if (encoding == COMPLETIONS_BITMAP) {
+            long first = getSignedVarLong(in);
+            long span = getVarLong(in);
+            byte[] bits = new byte[(int) ((span + 7) / 8)];
+            in.get(bits);
+            for (int offset = 0; offset < span; offset++) {
+                if ((bits[offset >>> 3] & (1 << (offset & 7))) != 0) {
+                    completions.add(LocalDate.ofEpochDay(first + offset));
+                }
+            }
+        }
+        return completions;
+    }
+
+    private static long getVarLong(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+    }
+
+    private static long getSignedVarLong(ByteBuffer in) {
+        long zigzag = getVarLong(in);
+        return (zigzag >>> 1) ^ -(zigzag & 1);
+    }
+
+    private static String getString(ByteBuffer in) {
+        int length = (int) getVarLong(in);
+        if (length == 0) {
+            return null;
+        }
+        String value = new String(in.array(), in.arrayOffset() + in.position(), length - 1, StandardCharsets.UTF_8);
+        in.position(in.position() + length - 1);
+        return value;
+    }
+
+    private static int crc(byte[] bytes, int offset, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes, offset, length);
+        return (int) crc.getValue();
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * Growable byte array that section payloads are encoded into.
+     */
+    static final class Payload {
+        private byte[] bytes = new byte[256];
+        private int position;
+
+        void reset() {
+            position = 0;
+        }
+
+        int position() {
+            return position;
+        }
+
+        byte[] array() {
+            return bytes;
+        }
+
+        void truncate(int newPosition) {
+            position = newPosition;
+        }
+
+        void putByte(byte value) {
+            ensureCapacity(1);
+            bytes[position++] = value;
+        }
+
+        void putBytes(byte[] source, int offset, int length) {
+            ensureCapacity(length);
+            System.arraycopy(source, offset, bytes, position, length);
+            position += length;
+        }
+
+        void putVarLong(long value) {
+            ensureCapacity(10);
+            while ((value & ~0x7FL) != 0) {
+                bytes[position++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            bytes[position++] = (byte) value;
+        }
+
+        void putSignedVarLong(long value) {
+            putVarLong((value << 1) ^ (value >> 63));
+        }
+
+        // Strings are prefixed with their byte length plus one, so that 0 can stand for null
+        void putString(String value) {
+            if (value == null) {
+                putVarLong(0);
+                return;
+            }
+            byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+            putVarLong(utf8.length + 1L);
+            putBytes(utf8, 0, utf8.length);
+        }
+
+        static int varLongSize(long value) {
+            int size = 1;
+            while ((value & ~0x7FL) != 0) {
+                value >>>= 7;
+                size++;
+            }
+            return size;
+        }
+
+        static int signedVarLongSize(long value) {
+            return varLongSize((value << 1) ^ (value >> 63));
+        }
+
+        private void ensureCapacity(int extra) {
+            if (position + extra > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, position + extra));
+            }
+        }
+    }
+
+    /**
+     * Encodes sections into a {@link SectionWriter} and counts them for the closing section.
+     */
+    private static final class SectionOutput {
+        private final SectionWriter writer;
+        private final Payload payload = new Payload();
+        private long count;
+
+        private SectionOutput(SectionWriter writer) {
+            this.writer = writer;
+        }
+
+        void habit(Habit habit) {
+            payload.reset();
+            payload.putByte(SECTION_HABIT);
+            encodeHabit(habit, payload);
+            write();
+        }
+
+        void deleted(long habitId) {
+            payload.reset();
+            payload.putByte(SECTION_DELETED);
+            payload.putVarLong(habitId);
+            write();
+        }
+
+        void cleared() {
+            payload.reset();
+            payload.putByte(SECTION_CLEARED);
+            write();
+        }
+
+        void finish() throws IOException {
+            payload.reset();
+            payload.putByte(SECTION_END);
+            payload.putVarLong(count);
+            writer.write(payload);
+            writer.finish();
+        }
+
+        private void write() {
+            try {
+                writer.write(payload);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            count++;
+        }
+    }
+
+    /**
+     * Frames payloads as length, payload and CRC, and writes them to the channel, through a Deflater if asked.
+     */
+    private static final class SectionWriter {
+        private final FileChannel channel;
+        private final Deflater deflater;
+        private final ByteBuffer frame = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+        private final byte[] output = new byte[BUFFER_SIZE];
+        private final ByteBuffer pending = ByteBuffer.allocate(BUFFER_SIZE);
+
+        private SectionWriter(FileChannel channel, boolean compress) {
+            this.channel = channel;
+            this.deflater = compress ? new Deflater(Deflater.BEST_SPEED) : null;
+        }
+
+        void write(Payload payload) throws IOException {
+            frame.clear();
+            frame.putInt(payload.position());
+            emit(frame.array(), 0, 4);
+            emit(payload.array(), 0, payload.position());
+            frame.clear();
+            frame.putInt(crc(payload.array(), 0, payload.position()));
+            emit(frame.array(), 0, 4);
+        }
+
+        void finish() throws IOException {
+            if (deflater != null) {
+                deflater.finish();
+                while (!deflater.finished()) {
+                    drain(deflater.deflate(output));
+                }
+                deflater.end();
+            }
+            pending.flip();
+            writeFully(channel, pending);
+            pending.clear();
+        }
+
+        private void emit(byte[] bytes, int offset, int length) throws IOException {
+            if (deflater == null) {
+                buffer(bytes, offset, length);
+                return;
+            }
+            deflater.setInput(bytes, offset, length);
+            while (!deflater.needsInput()) {
+                drain(deflater.deflate(output));
+            }
+        }
+
+        private void drain(int length) throws IOException {
+            buffer(output, 0, length);
+        }
+
+        private void buffer(byte[] bytes, int offset, int length) throws IOException {
+            while (length > 0) {
+                int chunk = Math.min(length, pending.remaining());
+                pending.put(bytes, offset, chunk);
+                offset += chunk;
+                length -= chunk;
+                if (!pending.hasRemaining()) {
+                    pending.flip();
+                    writeFully(channel, pending);
+                    pending.clear();
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads framed sections back from the channel, inflating them first if the file is compressed, and checks
+     * each section's CRC.
+     */
+    private static final class SectionReader {
+        private final FileChannel channel;
+        private final Inflater inflater;
+        private final ByteBuffer input = ByteBuffer.allocate(BUFFER_SIZE);
+        private final byte[] frame = new byte[4];
+        private byte[] section = new byte[256];
+
+        private SectionReader(FileChannel channel, boolean compressed) {
+            this.channel = channel;
+            this.inflater = compressed ? new Inflater() : null;
+            input.flip();
+        }
+
+        ByteBuffer next() throws IOException {
+            readFully(frame, 4);
+            int length = ByteBuffer.wrap(frame).order(ByteOrder.LITTLE_ENDIAN).getInt();
+            if (length <= 0) {
+                throw new IOException("Backup section has an invalid length " + length);
+            }
+            if (length > section.length) {
+                section = new byte[Math.max(length, section.length * 2)];
+            }
+            readFully(section, length);
+            readFully(frame, 4);
+            if (ByteBuffer.wrap(frame).order(ByteOrder.LITTLE_ENDIAN).getInt() != crc(section, 0, length)) {
+                throw new IOException("Backup section failed its CRC check");
+            }
+            return ByteBuffer.wrap(section, 0, length);
+        }
+
+        private void readFully(byte[] target, int length) throws IOException {
+            int offset = 0;
+            while (offset < length) {
+                if (inflater == null) {
+                    if (!input.hasRemaining() && !fill()) {
+                        throw new EOFException("Backup ends in the middle of a section");
+                    }
+                    int chunk = Math.min(length - offset, input.remaining());
+                    input.get(target, offset, chunk);
+                    offset += chunk;
+                    continue;
+                }
+                try {
+                    int inflated = inflater.inflate(target, offset, length - offset);
+                    offset += inflated;
+                    if (inflated == 0) {
+                        if (inflater.finished() || inflater.needsDictionary()) {
+                            throw new EOFException("Backup ends in the middle of a section");
+                        }
+                        if (inflater.needsInput()) {
+                            if (!fill()) {
+                                throw new EOFException("Backup ends in the middle of a section");
+                            }
+                            inflater.setInput(input.array(), input.position(), input.remaining());
+                            input.position(input.limit());
+                        }
+                    }
+                } catch (DataFormatException e) {
+                    throw new IOException("Backup data is damaged", e);
+                }
+            }
+        }
+
+        void end() {
+            if (inflater != null) {
+                inflater.end();
+            }
+        }
+
+        private boolean fill() throws IOException {
+            input.clear();
+            int read = channel.read(input);
+            input.flip();
+            return read > 0;
+        }
+    }
+}
@@ -47,7 +47,6 @@ public class HabitCalendarPopulator {
     // Pre-instantiate reusable objects
     private final Label[] dayNameLabels = new Label[7];
     private final List<Label> dayLabels = new ArrayList<>();
-    private final Tooltip reusableTooltip = new Tooltip();
 
     public HabitCalendarPopulator(GridPane calendarGrid, Label calendarMonthLabel, HabitRepository habitRepository) {
         this.calendarGrid = calendarGrid;
@@ -68,15 +67,39 @@ public class HabitCalendarPopulator {
     }
 
     public void populateCalendar(LocalDate referenceDate, boolean isDarkModeEnabled) {
+        populateCalendar(referenceDate, isDarkModeEnabled, habitRepository.getAllHabits(HabitRepository.LoadProfile.SCHEDULE));
+    }
+
+    /**
+     * Populates the calendar from an already loaded habit snapshot instead of querying the repository.
+     *
+     * @param referenceDate     Any date within the month to display.
+     * @param isDarkModeEnabled Whether dark mode styling should be applied.
+     * @param habits            Habits used to build the "due on this day" tooltips.
+     */
+    public void populateCalendar(LocalDate referenceDate, boolean isDarkModeEnabled, List<Habit> habits) {
+        populateCalendar(referenceDate, isDarkModeEnabled, MonthDueIndex.build(YearMonth.from(referenceDate), habits));
+    }
+
+    /**
+     * Populates the calendar from a precomputed due index. The index can be built off the FX thread,
+     * leaving only label layout to do here.
+     *
+     * @param referenceDate     Any date within the month to display; must fall in the index's month.
+     * @param isDarkModeEnabled Whether dark mode styling should be applied.
+     * @param dueIndex          Habits due on each day of the displayed month.
+     */
+    public void populateCalendar(LocalDate referenceDate, boolean isDarkModeEnabled, MonthDueIndex dueIndex) {
         // Set the month label text and apply custom styles
         calendarMonthLabel.setText(referenceDate.getMonth().getDisplayName(TextStyle.FULL, Locale.getDefault()) + " " + referenceDate.getYear());
         calendarMonthLabel.getStyleClass().add("custom-label");
 
         calendarGrid.getChildren().clear();
 
-        YearMonth yearMonth = YearMonth.from(referenceDate);
+        YearMonth yearMonth = dueIndex.getMonth();
         LocalDate firstOfMonth = yearMonth.atDay(1);
         int daysInMonth = yearMonth.lengthOfMonth();
+        LocalDate today = LocalDate.now();
 
         // Determine the starting day of the week (Monday = 1, Sunday = 7)
         int startDay = firstOfMonth.getDayOfWeek().getValue();
@@ -99,7 +122,7 @@ public class HabitCalendarPopulator {
             dayLabel.getStyleClass().add("custom-label");
 
             // Style the current day with distinct colors and borders
-            if (date.equals(LocalDate.now())) {
+            if (date.equals(today)) {
                 dayLabel.setStyle(isDarkModeEnabled
                         ? "-fx-background-color: #4d4dff; -fx-text-fill: white; -fx-border-color: blue; -fx-border-width: 1px; -fx-alignment: center; -fx-pref-width: 35; -fx-pref-height: 35;"
                         : "-fx-background-color: lightblue; -fx-text-fill: black; -fx-border-color: blue; -fx-border-width: 1px; -fx-alignment: center; -fx-pref-width: 35; -fx-pref-height: 35;");
@@ -107,18 +130,9 @@ public class HabitCalendarPopulator {
                 dayLabel.setStyle("-fx-alignment: center; -fx-pref-width: 35; -fx-pref-height: 35;");
             }
 
-            // Add tooltip showing habits due on this day
-            List<Habit> dueHabits = habitRepository.getAllHabits().stream()
-                    .filter(habit -> isHabitDueToday(habit, date))
-                    .collect(Collectors.toList());
-
-            if (!dueHabits.isEmpty()) {
-                reusableTooltip.setText(dueHabits.stream()
-                        .map(Habit::getName)
-                        .collect(Collectors.joining("\n")));
-                Tooltip.install(dayLabel, reusableTooltip);
-            } else {
-                Tooltip.uninstall(dayLabel, reusableTooltip);
+            // Add tooltip showing habits due on this day; its text is only built when it is shown
+            if (dueIndex.hasHabitsDueOn(day)) {
+                Tooltip.install(dayLabel, createDueHabitsTooltip(dueIndex, day));
             }
 
             // Calculate the row and column for this day
@@ -129,6 +143,14 @@ public class HabitCalendarPopulator {
         }
     }
 
+    private Tooltip createDueHabitsTooltip(MonthDueIndex dueIndex, int day) {
+        Tooltip tooltip = new Tooltip();
+        tooltip.setOnShowing(event -> tooltip.setText(dueIndex.habitsDueOn(day).stream()
+                .map(Habit::getName)
+                .collect(Collectors.joining("\n"))));
+        return tooltip;
+    }
+
     private void addDayNamesToCalendar() {
         for (int i = 0; i < dayNameLabels.length; i++) {
             calendarGrid.add(dayNameLabels[i], i, 0);
@@ -136,7 +158,6 @@ public class HabitCalendarPopulator {
     }
 
     boolean isHabitDueToday(Habit habit, LocalDate today) {
-        return habit.getFrequency() == Habit.Frequency.DAILY ||
-                (habit.getCustomDays() != null && habit.getCustomDays().contains(today.getDayOfWeek()));
+        return MonthDueIndex.isDue(habit, today);
     }
 }
@@ -0,0 +1,90 @@
+package org.habittracker.util;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.habittracker.model.Habit;
+import org.habittracker.model.HabitSummary;
+import org.habittracker.repository.HabitRepository;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.IntConsumer;
+
+/**
+ * Adds habits read from a backup, one at a time, skipping every name that already exists ignoring case.
+ * <p>
+ * The existing names are loaded once when the importer is created, and names are added to that set as habits
+ * are accepted, so repeated names within the backup itself are skipped too. New habits are collected into
+ * batches that are each inserted in a single transaction through {@link HabitRepository#addHabits(List)}.
+ * Shared by the JSON and binary restore.
+ */
+final class HabitImporter {
+    private static final Logger LOGGER = LogManager.getLogger(HabitImporter.class);
+
+    private final HabitRepository habitRepository = HabitRepository.getInstance();
+    private final Set<String> existingNames = new HashSet<>();
+    private final String source;
+    private final int batchSize;
+    private final IntConsumer onProgress;
+    private final long start = System.nanoTime();
+
+    private List<Habit> batch;
+    private int read;
+    private int restored;
+
+    /**
+     * @param source     Name of the backup, for logging.
+     * @param batchSize  How many habits to insert per transaction.
+     * @param onProgress Called after each batch with the number of habits read so far.
+     */
+    HabitImporter(String source, int batchSize, IntConsumer onProgress) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be positive: " + batchSize);
+        }
+        this.source = source;
+        this.batchSize = batchSize;
+        this.onProgress = onProgress;
+        this.batch = new ArrayList<>(batchSize);
+        for (HabitSummary summary : habitRepository.findSummaries()) {
+            existingNames.add(normalize(summary.name()));
+        }
+    }
+
+    void accept(Habit habit) {
+        read++;
+        if (habit != null && habit.getName() != null && existingNames.add(normalize(habit.getName()))) {
+            batch.add(habit);
+        }
+        if (batch.size() == batchSize) {
+            flush();
+        }
+    }
+
+    /**
+     * Inserts the last partial batch and logs the totals.
+     *
+     * @return The number of habits restored.
+     */
+    int finish() {
+        flush();
+        if (LOGGER.isInfoEnabled()) {
+            double seconds = Math.max(System.nanoTime() - start, 1) / 1e9;
+            LOGGER.info("Restored {} of {} habits from {} in {} ms ({} habits/s)", restored, read, source,
+                    Math.round(seconds * 1000), Math.round(read / seconds));
+        }
+        return restored;
+    }
+
+    private void flush() {
+        restored += habitRepository.addHabits(batch).size();
+        batch = new ArrayList<>(batchSize);
+        onProgress.accept(read);
+    }
+
+    private static String normalize(String name) {
+        return name.toLowerCase(Locale.ENGLISH);
+    }
+}
@@ -0,0 +1,60 @@
+package org.habittracker.util;
+
+import org.habittracker.model.HabitSummary;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Brings a displayed list of {@link HabitSummary} rows in line with a fresh list by habit id, touching only
+ * the rows that changed. Applied to a JavaFX {@code ObservableList}, a completion replaces one row and a
+ * delete removes one row, so the list view only re-renders the affected cells instead of every row.
+ */
+public final class HabitListDiff {
+
+    private HabitListDiff() {
+    }
+
+    /**
+     * Updates {@code rows} in place so it equals {@code updated}.
+     *
+     * @return the number of rows that were replaced, inserted or removed.
+     */
+    public static int apply(List<HabitSummary> rows, List<HabitSummary> updated) {
+        Set<Long> updatedIds = new HashSet<>(updated.size() * 2);
+        for (HabitSummary summary : updated) {
+            updatedIds.add(summary.id());
+        }
+
+        int changes = 0;
+        for (int i = rows.size() - 1; i >= 0; i--) {
+            if (!updatedIds.contains(rows.get(i).id())) {
+                rows.remove(i);
+                changes++;
+            }
+        }
+
+        // Rows that survive keep their relative order, so one walk either keeps, replaces or inserts each row
+        for (int i = 0; i < updated.size(); i++) {
+            HabitSummary summary = updated.get(i);
+            if (i < rows.size() && Objects.equals(rows.get(i).id(), summary.id())) {
+                if (!rows.get(i).equals(summary)) {
+                    rows.set(i, summary);
+                    changes++;
+                }
+            } else {
+                rows.add(i, summary);
+                changes++;
+            }
+        }
+
+        if (rows.size() > updated.size()) {
+            // Only reached when the order changed and moved rows were inserted a second time
+            changes += rows.size() - updated.size();
+            rows.subList(updated.size(), rows.size()).clear();
+        }
+        return changes;
+    }
+}
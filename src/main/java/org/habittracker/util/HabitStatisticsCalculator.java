@@ -24,14 +24,13 @@
 
 package org.habittracker.util;
 
+import org.habittracker.model.CompletionBitmap;
 import org.habittracker.model.Habit;
 
 import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.YearMonth;
 import java.time.temporal.ChronoUnit;
-import java.util.List;
-import java.util.Set;
 
 public class HabitStatisticsCalculator {
 
@@ -47,10 +46,12 @@ public class HabitStatisticsCalculator {
     }
 
     public static int calculateMonthlyPerformance(Habit habit) {
-        LocalDate today = LocalDate.now();
-        YearMonth currentMonth = YearMonth.from(today);
-        LocalDate startOfMonth = currentMonth.atDay(1);
-        LocalDate endOfMonth = currentMonth.atEndOfMonth();
+        return calculateMonthlyPerformance(habit, YearMonth.now());
+    }
+
+    public static int calculateMonthlyPerformance(Habit habit, YearMonth month) {
+        LocalDate startOfMonth = month.atDay(1);
+        LocalDate endOfMonth = month.atEndOfMonth();
 
         return calculatePerformance(habit, startOfMonth, endOfMonth);
     }
@@ -64,9 +65,7 @@ public class HabitStatisticsCalculator {
 
     private static int calculatePerformance(Habit habit, LocalDate startDate, LocalDate endDate) {
         int expectedCompletions = calculateExpectedCompletions(habit, startDate, endDate);
-        int actualCompletions = (int) habit.getCompletedDates().stream()
-                .filter(date -> !date.isBefore(startDate) && !date.isAfter(endDate))
-                .count();
+        int actualCompletions = habit.getCompletions().countInRange(startDate, endDate);
 
         int performance = expectedCompletions > 0
                 ? (int) ((actualCompletions / (double) expectedCompletions) * DAILY_COMPLETION_PERCENT)
@@ -90,18 +89,8 @@ public class HabitStatisticsCalculator {
     }
 
     private static int calculateCustomExpectedCompletions(Habit habit, LocalDate startDate, LocalDate endDate) {
-        int expectedCount = 0;
-        Set<DayOfWeek> customDays = Set.copyOf(habit.getCustomDays());
-        LocalDate date = startDate;
-
-        while (!date.isAfter(endDate)) {
-            if (customDays.contains(date.getDayOfWeek())) {
-                expectedCount++;
-            }
-            date = date.plusDays(1);
-        }
-
-        return expectedCount;
+        // Full weeks times the selected weekdays plus a remainder lookup, instead of a walk over every day
+        return WeekdaySchedule.of(habit.getCustomDays()).countBetween(startDate, endDate);
     }
 
     public static int calculateWeeklyConsistency(Habit habit) {
@@ -112,10 +101,11 @@ public class HabitStatisticsCalculator {
     }
 
     public static int calculateMonthlyConsistency(Habit habit) {
-        LocalDate today = LocalDate.now();
-        YearMonth currentMonth = YearMonth.from(today);
+        return calculateMonthlyConsistency(habit, YearMonth.now());
+    }
 
-        return calculateConsistency(habit, currentMonth.atDay(1), ChronoUnit.MONTHS);
+    public static int calculateMonthlyConsistency(Habit habit, YearMonth month) {
+        return calculateConsistency(habit, month.atDay(1), ChronoUnit.MONTHS);
     }
 
     private static int calculateConsistency(Habit habit, LocalDate startDate, ChronoUnit unit) {
@@ -149,47 +139,28 @@ public class HabitStatisticsCalculator {
                 ? startDate.with(DayOfWeek.SUNDAY)
                 : YearMonth.from(startDate).atEndOfMonth();
 
+        CompletionBitmap completions = habit.getCompletions();
         switch (habit.getFrequency()) {
             case DAILY:
-                return startDate.datesUntil(endDate.plusDays(1)) // Inclusive
-                        .allMatch(date -> habit.getCompletedDates().contains(date));
+                // Every day of the period is completed exactly when the popcount equals its length
+                return completions.countInRange(startDate, endDate) == ChronoUnit.DAYS.between(startDate, endDate) + 1;
             case WEEKLY:
-                return habit.getCompletedDates().stream()
-                        .anyMatch(date -> !date.isBefore(startDate) && !date.isAfter(endDate));
+            case MONTHLY:
+                return completions.countInRange(startDate, endDate) > 0;
             case CUSTOM:
                 return isCustomPeriodConsistent(habit, startDate, endDate);
-            case MONTHLY:
-                return habit.getCompletedDates().stream()
-                        .anyMatch(date -> !date.isBefore(startDate) && !date.isAfter(endDate));
             default:
                 return false;
         }
     }
 
     private static boolean isCustomPeriodConsistent(Habit habit, LocalDate startDate, LocalDate endDate) {
-        Set<DayOfWeek> customDays = Set.copyOf(habit.getCustomDays());
-        return customDays.stream()
-                .allMatch(day -> startDate.datesUntil(endDate.plusDays(1)) // Check all custom days within range
-                        .filter(date -> date.getDayOfWeek() == day)
-                        .allMatch(habit.getCompletedDates()::contains)); // All should be completed
+        // All custom days within range should be completed
+        return WeekdaySchedule.of(habit.getCustomDays()).isFullyCompleted(habit.getCompletions(), startDate, endDate);
     }
 
 
     public static int calculateLongestStreak(Habit habit) {
-        List<LocalDate> completedDates = habit.getCompletedDates().stream().sorted().toList();
-        int longestStreak = 0;
-        int currentStreak = 0;
-        LocalDate lastDate = null;
-
-        for (LocalDate date : completedDates) {
-            if (lastDate != null && date.equals(lastDate.plusDays(1))) {
-                currentStreak++;
-            } else {
-                longestStreak = Math.max(longestStreak, currentStreak);
-                currentStreak = 1;
-            }
-            lastDate = date;
-        }
-        return Math.max(longestStreak, currentStreak);
+        return habit.getCompletions().longestRun();
     }
 }
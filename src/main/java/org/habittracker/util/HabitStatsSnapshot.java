@@ -0,0 +1,269 @@
+package org.habittracker.util;
+
+import org.habittracker.model.CompletionBitmap;
+import org.habittracker.model.Habit;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.YearMonth;
+
+/**
+ * Every statistic shown for a habit, computed together in one ascending pass over its completions.
+ * <p>
+ * The pass counts completions per ISO week and per calendar month (and, for CUSTOM habits, completions that
+ * fall on one of the selected weekdays) into arrays indexed by week or month ordinal, along with the
+ * completions inside the performance windows and the longest run of consecutive days. Performance is derived
+ * from those counts with the same rules as {@link HabitStatisticsCalculator}, and consistency becomes a backward
+ * scan over the period arrays, so the progress view and the monthly report no longer rescan the completions
+ * once per metric or once per period. The month-parameterized getters read the same arrays, which lets the
+ * report generator produce several months from one pass.
+ */
+public final class HabitStatsSnapshot {
+
+    private static final int MAX_CONSECUTIVE_INCOMPLETE = 2;
+    private static final int FULL_PERCENT = 100;
+    private static final int DAYS_PER_WEEK = 7;
+    private static final int MONTHS_PER_YEAR = 12;
+
+    private final Habit habit;
+    private final LocalDate today;
+    private final WeekdaySchedule customDays;
+    private final LocalDate weekStart;
+    private final LocalDate weekEnd;
+    private final YearMonth currentMonth;
+
+    private final PeriodCounts completionsByWeek;
+    private final PeriodCounts customCompletionsByWeek;
+    private final PeriodCounts completionsByMonth;
+    private final PeriodCounts customCompletionsByMonth;
+    private final PeriodCounts longestStreakByMonth;
+
+    private int totalCompletions;
+    private int weekCompletions;
+    private int overallCompletions;
+    private int longestStreak;
+    private int currentRun;
+    private LocalDate previousDate;
+
+    private int weeklyPerformance;
+    private int monthlyPerformance;
+    private int overallPerformance;
+    private int weeklyConsistency;
+    private int monthlyConsistency;
+
+    private HabitStatsSnapshot(Habit habit, LocalDate today) {
+        this.habit = habit;
+        this.today = today;
+        this.customDays = WeekdaySchedule.of(habit.getCustomDays());
+        this.weekStart = today.with(DayOfWeek.MONDAY);
+        this.weekEnd = today.with(DayOfWeek.SUNDAY);
+        this.currentMonth = YearMonth.from(today);
+
+        // The arrays cover every completion plus every period the consistency walk can reach
+        CompletionBitmap completions = habit.getCompletions();
+        LocalDate first = earliest(earliest(completions.first(), habit.getCreationDate()), today);
+        LocalDate last = latest(completions.last(), today);
+        long firstWeek = weekIndex(first);
+        long lastWeek = weekIndex(last);
+        long firstMonth = monthIndex(YearMonth.from(first));
+        long lastMonth = monthIndex(YearMonth.from(last));
+        this.completionsByWeek = new PeriodCounts(firstWeek, lastWeek);
+        this.customCompletionsByWeek = new PeriodCounts(firstWeek, lastWeek);
+        this.completionsByMonth = new PeriodCounts(firstMonth, lastMonth);
+        this.customCompletionsByMonth = new PeriodCounts(firstMonth, lastMonth);
+        this.longestStreakByMonth = new PeriodCounts(firstMonth, lastMonth);
+    }
+
+    /**
+     * Computes the statistics of {@code habit} as of today.
+     */
+    public static HabitStatsSnapshot of(Habit habit) {
+        return of(habit, LocalDate.now());
+    }
+
+    /**
+     * Computes the statistics of {@code habit} as they would be shown on {@code today}.
+     */
+    public static HabitStatsSnapshot of(Habit habit, LocalDate today) {
+        HabitStatsSnapshot snapshot = new HabitStatsSnapshot(habit, today);
+        habit.getCompletions().forEach(snapshot::accept);
+        snapshot.finish();
+        return snapshot;
+    }
+
+    private void accept(LocalDate date) {
+        totalCompletions++;
+
+        long week = weekIndex(date);
+        long month = monthIndex(YearMonth.from(date));
+        completionsByWeek.increment(week);
+        completionsByMonth.increment(month);
+        if (customDays.includes(date.getDayOfWeek())) {
+            customCompletionsByWeek.increment(week);
+            customCompletionsByMonth.increment(month);
+        }
+
+        if (!date.isBefore(weekStart) && !date.isAfter(weekEnd)) {
+            weekCompletions++;
+        }
+        if (habit.getCreationDate() != null && !date.isBefore(habit.getCreationDate()) && !date.isAfter(today)) {
+            overallCompletions++;
+        }
+
+        currentRun = previousDate != null && date.equals(previousDate.plusDays(1)) ? currentRun + 1 : 1;
+        longestStreak = Math.max(longestStreak, currentRun);
+        longestStreakByMonth.set(month, longestStreak);
+        previousDate = date;
+    }
+
+    private void finish() {
+        longestStreakByMonth.carryForward(); // Months without completions keep the longest streak so far
+        if (habit.getFrequency() == null || habit.getCreationDate() == null) {
+            return;
+        }
+        weeklyPerformance = performance(weekCompletions, weekStart, weekEnd);
+        monthlyPerformance = getMonthlyPerformance(currentMonth);
+        overallPerformance = performance(overallCompletions, habit.getCreationDate(), today);
+        weeklyConsistency = weeklyConsistency();
+        monthlyConsistency = getMonthlyConsistency(currentMonth);
+    }
+
+    private int performance(int actual, LocalDate startDate, LocalDate endDate) {
+        int expected = HabitStatisticsCalculator.calculateExpectedCompletions(habit, startDate, endDate);
+        int performance = expected > 0 ? (int) ((actual / (double) expected) * FULL_PERCENT) : 0;
+        return Math.min(performance, FULL_PERCENT);
+    }
+
+    private int weeklyConsistency() {
+        // The earliest week the walk may visit is the first one that starts on or after the creation date
+        long firstWeek = Math.floorDiv(habit.getCreationDate().toEpochDay() + 3 + DAYS_PER_WEEK - 1, DAYS_PER_WEEK);
+        int consistent = 0;
+        int incompleteInARow = 0;
+        for (long week = weekIndex(weekStart); week >= firstWeek; week--) {
+            boolean isConsistent = switch (habit.getFrequency()) {
+                case DAILY -> completionsByWeek.get(week) == DAYS_PER_WEEK;
+                case WEEKLY, MONTHLY -> completionsByWeek.get(week) > 0;
+                case CUSTOM -> customCompletionsByWeek.get(week) == customDays.getDaysPerWeek();
+            };
+            if (isConsistent) {
+                consistent++;
+                incompleteInARow = 0;
+            } else if (++incompleteInARow >= MAX_CONSECUTIVE_INCOMPLETE) {
+                break;
+            }
+        }
+        return consistent;
+    }
+
+    private int monthlyConsistency(YearMonth fromMonth) {
+        LocalDate creationDate = habit.getCreationDate();
+        long firstMonth = monthIndex(YearMonth.from(creationDate)) + (creationDate.getDayOfMonth() == 1 ? 0 : 1);
+        int consistent = 0;
+        int incompleteInARow = 0;
+        for (long index = monthIndex(fromMonth); index >= firstMonth; index--) {
+            YearMonth month = YearMonth.of((int) Math.floorDiv(index, MONTHS_PER_YEAR), Math.floorMod(index, MONTHS_PER_YEAR) + 1);
+            boolean isConsistent = switch (habit.getFrequency()) {
+                case DAILY -> completionsByMonth.get(index) == month.lengthOfMonth();
+                case WEEKLY, MONTHLY -> completionsByMonth.get(index) > 0;
+                case CUSTOM -> customCompletionsByMonth.get(index)
+                        == customDays.countBetween(month.atDay(1), month.atEndOfMonth());
+            };
+            if (isConsistent) {
+                consistent++;
+                incompleteInARow = 0;
+            } else if (++incompleteInARow >= MAX_CONSECUTIVE_INCOMPLETE) {
+                break;
+            }
+        }
+        return consistent;
+    }
+
+    private static LocalDate earliest(LocalDate a, LocalDate b) {
+        return a == null || b != null && b.isBefore(a) ? b : a;
+    }
+
+    private static LocalDate latest(LocalDate a, LocalDate b) {
+        return a == null || b != null && b.isAfter(a) ? b : a;
+    }
+
+    // Weeks counted from the Monday before the epoch (1970-01-01 was a Thursday)
+    private static long weekIndex(LocalDate date) {
+        return Math.floorDiv(date.toEpochDay() + 3, DAYS_PER_WEEK);
+    }
+
+    private static long monthIndex(YearMonth month) {
+        return month.getYear() * (long) MONTHS_PER_YEAR + month.getMonthValue() - 1;
+    }
+
+    public LocalDate getToday() {
+        return today;
+    }
+
+    public int getTotalCompletions() {
+        return totalCompletions;
+    }
+
+    public int getWeeklyPerformance() {
+        return weeklyPerformance;
+    }
+
+    public int getMonthlyPerformance() {
+        return monthlyPerformance;
+    }
+
+    public int getOverallPerformance() {
+        return overallPerformance;
+    }
+
+    public int getWeeklyConsistency() {
+        return weeklyConsistency;
+    }
+
+    public int getMonthlyConsistency() {
+        return monthlyConsistency;
+    }
+
+    /**
+     * Longest run of consecutive completed days, as {@link HabitStatisticsCalculator#calculateLongestStreak(Habit)}.
+     */
+    public int getLongestStreak() {
+        return longestStreak;
+    }
+
+    /**
+     * Monthly performance for any month, as the report for that month would show it. Months after the
+     * snapshot date only see the completions that existed when the snapshot was taken.
+     */
+    public int getMonthlyPerformance(YearMonth month) {
+        if (habit.getFrequency() == null || habit.getCreationDate() == null) {
+            return 0;
+        }
+        return performance(getCompletionsInMonth(month), month.atDay(1), month.atEndOfMonth());
+    }
+
+    /**
+     * Monthly consistency counted backwards from {@code month} instead of the snapshot's own month.
+     */
+    public int getMonthlyConsistency(YearMonth month) {
+        if (habit.getFrequency() == null || habit.getCreationDate() == null) {
+            return 0;
+        }
+        return monthlyConsistency(month);
+    }
+
+    /**
+     * Longest run of consecutive completed days among the completions up to the end of {@code month}.
+     */
+    public int getLongestStreak(YearMonth month) {
+        long index = monthIndex(month);
+        return index > longestStreakByMonth.getLastOrdinal() ? longestStreak : longestStreakByMonth.get(index);
+    }
+
+    public int getCompletionsInMonth(YearMonth month) {
+        return completionsByMonth.get(monthIndex(month));
+    }
+
+    public int getCompletionsInMonth(int year, int month) {
+        return getCompletionsInMonth(YearMonth.of(year, month));
+    }
+}
@@ -0,0 +1,161 @@
+package org.habittracker.util;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import org.habittracker.model.CompletionBitmap;
+import org.habittracker.model.Habit;
+
+import java.io.IOException;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hand-written JSON mapping for {@link Habit}, used by the streaming backup and restore.
+ * <p>
+ * Field names and order match what reflective Gson wrote for {@code Habit}, and {@code null} fields are left out
+ * in the same way, so older backups still load and new backups load in older versions. Writing goes straight from
+ * the getters to the {@link JsonWriter} without reflection or an intermediate tree, and completions are written
+ * from the bitmap in date order.
+ */
+public class HabitTypeAdapter extends TypeAdapter<Habit> {
+
+    @Override
+    public void write(JsonWriter out, Habit habit) throws IOException {
+        if (habit == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        if (habit.getId() != null) {
+            out.name("id").value(habit.getId());
+        }
+        if (habit.getName() != null) {
+            out.name("name").value(habit.getName());
+        }
+        if (habit.getColor() != null) {
+            out.name("color").value(habit.getColor());
+        }
+        out.name("isCompleted").value(habit.checkCompletion());
+        writeDate(out, "creationDate", habit.getCreationDate());
+        writeDate(out, "lastCompletedDate", habit.getLastCompletedDate());
+        out.name("completedMilestones").beginArray();
+        for (int milestone : habit.getCompletedMilestones()) {
+            out.value(milestone);
+        }
+        out.endArray();
+        if (habit.getCustomDays() != null) {
+            out.name("customDays").beginArray();
+            for (DayOfWeek day : habit.getCustomDays()) {
+                out.value(day.name());
+            }
+            out.endArray();
+        }
+        if (habit.getFrequency() != null) {
+            out.name("frequency").value(habit.getFrequency().name());
+        }
+        out.name("streakCounter").value(habit.getStreakCounter());
+        out.name("reminderEligible").value(habit.isReminderEligible());
+        if (habit.getCompletions() != null) {
+            out.name("completions").beginArray();
+            IOException[] failure = new IOException[1];
+            habit.getCompletions().forEach(date -> {
+                if (failure[0] == null) {
+                    try {
+                        out.value(date.toString());
+                    } catch (IOException e) {
+                        failure[0] = e;
+                    }
+                }
+            });
+            if (failure[0] != null) {
+                throw failure[0];
+            }
+            out.endArray();
+        }
+        out.name("bestStreak").value(habit.getBestStreak());
+        out.endObject();
+    }
+
+    @Override
+    public Habit read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        Long id = null;
+        String name = null;
+        String color = null;
+        boolean isCompleted = false;
+        LocalDate creationDate = null;
+        LocalDate lastCompletedDate = null;
+        Habit.Frequency frequency = null;
+        int streakCounter = 0;
+        int bestStreak = 0;
+        boolean reminderEligible = true;
+        List<Integer> milestones = new ArrayList<>();
+        List<DayOfWeek> customDays = null;
+        CompletionBitmap completions = new CompletionBitmap();
+
+        in.beginObject();
+        while (in.hasNext()) {
+            String field = in.nextName();
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                continue;
+            }
+            switch (field) {
+                case "id" -> id = in.nextLong();
+                case "name" -> name = in.nextString();
+                case "color" -> color = in.nextString();
+                case "isCompleted" -> isCompleted = in.nextBoolean();
+                case "creationDate" -> creationDate = LocalDate.parse(in.nextString());
+                case "lastCompletedDate" -> lastCompletedDate = LocalDate.parse(in.nextString());
+                case "frequency" -> frequency = Habit.Frequency.valueOf(in.nextString());
+                case "streakCounter" -> streakCounter = in.nextInt();
+                case "bestStreak" -> bestStreak = in.nextInt();
+                case "reminderEligible" -> reminderEligible = in.nextBoolean();
+                case "completedMilestones" -> {
+                    in.beginArray();
+                    while (in.hasNext()) {
+                        milestones.add(in.nextInt());
+                    }
+                    in.endArray();
+                }
+                case "customDays" -> {
+                    customDays = new ArrayList<>();
+                    in.beginArray();
+                    while (in.hasNext()) {
+                        customDays.add(DayOfWeek.valueOf(in.nextString()));
+                    }
+                    in.endArray();
+                }
+                case "completions" -> {
+                    in.beginArray();
+                    while (in.hasNext()) {
+                        completions.add(LocalDate.parse(in.nextString()));
+                    }
+                    in.endArray();
+                }
+                default -> in.skipValue(); // Fields from newer or older versions
+            }
+        }
+        in.endObject();
+
+        Habit habit = new Habit(id, name, color, isCompleted, creationDate, lastCompletedDate, frequency,
+                streakCounter, bestStreak, reminderEligible);
+        milestones.forEach(habit::addMilestone);
+        habit.setCustomDays(customDays);
+        habit.setCompletions(completions);
+        return habit;
+    }
+
+    private static void writeDate(JsonWriter out, String name, LocalDate date) throws IOException {
+        if (date != null) {
+            out.name(name).value(date.toString());
+        }
+    }
+}
@@ -0,0 +1,287 @@
+package org.habittracker.util;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.habittracker.model.Habit;
+import org.habittracker.repository.HabitRepository;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntConsumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Incremental backups: periodic full snapshots with small delta files in between.
+ * <p>
+ * While it is open, the backup listens to every write made through the repository and records it in a
+ * {@link BackupJournal}. {@link #backup()} writes a full snapshot the first time and after every
+ * {@code deltasPerSnapshot} deltas; otherwise it writes a delta holding only the habits that changed since the
+ * previous backup, read from the repository at backup time, plus the ids of deleted habits. Nothing is written
+ * when nothing changed, so the cost of a backup follows the number of changed habits rather than the number of
+ * habits. All files use the binary format of {@link BinaryBackupHelper} and are numbered in the order they were
+ * written, e.g. {@code habits-000001-full.htb} followed by {@code habits-000002-delta.htb}.
+ * <p>
+ * After each full snapshot, older backups are removed a whole snapshot (with its deltas) at a time, oldest
+ * first, while there are more than {@code maxSnapshots} snapshots or the files take more than
+ * {@code maxTotalBytes}. The newest snapshot and its deltas are always kept.
+ * <p>
+ * {@link #restore(Path)} replays the newest full snapshot and every later delta, then adds the result in the
+ * same way as the other restores.
+ */
+public class IncrementalBackup implements AutoCloseable {
+    private static final Logger LOGGER = LogManager.getLogger(IncrementalBackup.class);
+
+    static final int DEFAULT_DELTAS_PER_SNAPSHOT = 30;
+    static final int DEFAULT_MAX_SNAPSHOTS = 6;
+    static final long DEFAULT_MAX_TOTAL_BYTES = 64L * 1024 * 1024;
+    private static final int DEFAULT_RESTORE_BATCH_SIZE = 250;
+    private static final String FULL = "full";
+    private static final String DELTA = "delta";
+    private static final Pattern FILE_NAME =
+            Pattern.compile("habits-(\\d+)-(" + FULL + "|" + DELTA + ")" + Pattern.quote(BinaryBackupHelper.FILE_EXTENSION));
+
+    private final Path directory;
+    private final HabitRepository repository;
+    private final int deltasPerSnapshot;
+    private final BackupJournal journal = new BackupJournal();
+    private int maxSnapshots = DEFAULT_MAX_SNAPSHOTS;
+    private long maxTotalBytes = DEFAULT_MAX_TOTAL_BYTES;
+
+    // Deltas are only valid on top of a snapshot taken while the journal was recording
+    private boolean hasSnapshot;
+    private int deltasSinceSnapshot;
+    private long sequence = -1;
+
+    public IncrementalBackup(Path directory, HabitRepository repository) {
+        this(directory, repository, DEFAULT_DELTAS_PER_SNAPSHOT);
+    }
+
+    public IncrementalBackup(Path directory, HabitRepository repository, int deltasPerSnapshot) {
+        if (deltasPerSnapshot < 0) {
+            throw new IllegalArgumentException("Deltas per snapshot must not be negative: " + deltasPerSnapshot);
+        }
+        this.directory = directory;
+        this.repository = repository;
+        this.deltasPerSnapshot = deltasPerSnapshot;
+        repository.addChangeListener(journal);
+    }
+
+    /**
+     * Sets how many snapshots, and how many bytes of backups, are kept when older backups are removed.
+     */
+    public synchronized void setRetention(int maxSnapshots, long maxTotalBytes) {
+        if (maxSnapshots < 1) {
+            throw new IllegalArgumentException("At least one snapshot must be kept: " + maxSnapshots);
+        }
+        this.maxSnapshots = maxSnapshots;
+        this.maxTotalBytes = maxTotalBytes;
+    }
+
+    /**
+     * Writes a full snapshot or a delta, whichever is due.
+     *
+     * @return The file written, or {@code null} if nothing changed since the previous backup.
+     */
+    public synchronized Path backup() throws IOException {
+        if (!hasSnapshot || deltasSinceSnapshot >= deltasPerSnapshot) {
+            return writeSnapshot();
+        }
+        if (journal.isEmpty()) {
+            LOGGER.info("No habit changes since the last backup");
+            return null;
+        }
+        return writeDelta();
+    }
+
+    /**
+     * Writes a full snapshot of every habit, which later deltas build on.
+     */
+    public synchronized Path writeSnapshot() throws IOException {
+        journal.drain(); // The snapshot reads live data, so it already contains everything recorded so far
+        Path path = nextFile(FULL);
+        BinaryBackupHelper.writeHabits(repository::forEachHabit, path, true);
+        hasSnapshot = true;
+        deltasSinceSnapshot = 0;
+        if (LOGGER.isInfoEnabled()) {
+            LOGGER.info("Full backup written to {} ({} bytes)", path, Files.size(path));
+        }
+        rotate();
+        return path;
+    }
+
+    private void rotate() throws IOException {
+        List<List<Path>> chains = new ArrayList<>();
+        long totalBytes = 0;
+        for (Path file : listBackups(directory)) {
+            if (isFull(file) || chains.isEmpty()) {
+                chains.add(new ArrayList<>());
+            }
+            chains.get(chains.size() - 1).add(file);
+            totalBytes += Files.size(file);
+        }
+
+        int removed = 0;
+        while (chains.size() - removed > 1
+                && (chains.size() - removed > maxSnapshots || totalBytes > maxTotalBytes)) {
+            for (Path file : chains.get(removed)) {
+                totalBytes -= Files.size(file);
+                Files.delete(file);
+            }
+            removed++;
+        }
+        if (removed > 0 && LOGGER.isInfoEnabled()) {
+            LOGGER.info("Removed {} old backup snapshot(s) from {}, {} bytes kept", removed, directory, totalBytes);
+        }
+    }
+
+    private Path writeDelta() throws IOException {
+        BackupJournal.Pending pending = journal.drain();
+        try {
+            List<Habit> changed = new ArrayList<>(pending.changedIds().size());
+            List<Long> deleted = new ArrayList<>(pending.deletedIds());
+            for (Long id : pending.changedIds()) {
+                Habit habit = repository.findHabitById(id);
+                if (habit == null) {
+                    deleted.add(id); // Deleted through another repository instance
+                } else {
+                    changed.add(habit);
+                }
+            }
+            Path path = nextFile(DELTA);
+            BinaryBackupHelper.writeDelta(path, pending.cleared(), deleted, changed);
+            deltasSinceSnapshot++;
+            if (LOGGER.isInfoEnabled()) {
+                LOGGER.info("Incremental backup written to {}: {} changed, {} deleted ({} bytes)", path,
+                        changed.size(), deleted.size(), Files.size(path));
+            }
+            return path;
+        } catch (IOException | RuntimeException e) {
+            journal.restore(pending);
+            throw e;
+        }
+    }
+
+    /**
+     * Writes any changes that are not backed up yet and stops recording new ones.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            if (hasSnapshot && !journal.isEmpty()) {
+                writeDelta();
+            }
+        } finally {
+            repository.removeChangeListener(journal);
+        }
+    }
+
+    private Path nextFile(String kind) throws IOException {
+        Files.createDirectories(directory);
+        if (sequence < 0) {
+            List<Path> existing = listBackups(directory);
+            sequence = existing.isEmpty() ? 0 : sequenceOf(existing.get(existing.size() - 1));
+        }
+        sequence++;
+        return directory.resolve(String.format("habits-%06d-%s%s", sequence, kind, BinaryBackupHelper.FILE_EXTENSION));
+    }
+
+    public static int restore(Path directory) {
+        return restore(directory, DEFAULT_RESTORE_BATCH_SIZE, restored -> { });
+    }
+
+    /**
+     * Restores the habits as of the latest incremental backup in {@code directory} that do not exist yet,
+     * matching names ignoring case.
+     *
+     * @return The number of habits restored, or {@code -1} if the backups could not be read.
+     */
+    public static int restore(Path directory, int batchSize, IntConsumer onProgress) {
+        HabitImporter importer = new HabitImporter(directory.toString(), batchSize, onProgress);
+        try {
+            replay(directory).forEach(importer::accept);
+            return importer.finish();
+        } catch (IOException e) {
+            if (LOGGER.isWarnEnabled()) {
+                LOGGER.warn("Failed to restore data from " + directory, e);
+            }
+            return -1;
+        }
+    }
+
+    /**
+     * Rebuilds the habits as they were at the latest backup: the newest full snapshot with every later delta
+     * applied in order.
+     *
+     * @return The habits, with the ids they had when they were backed up.
+     */
+    static Collection<Habit> replay(Path directory) throws IOException {
+        List<Path> files = listBackups(directory);
+        int base = files.size() - 1;
+        while (base >= 0 && !isFull(files.get(base))) {
+            base--;
+        }
+        if (base < 0) {
+            throw new IOException("No full backup found in " + directory);
+        }
+
+        Map<Long, Habit> habits = new LinkedHashMap<>();
+        BinaryBackupHelper.readHabits(files.get(base), habit -> habits.put(habit.getId(), habit));
+        for (Path delta : files.subList(base + 1, files.size())) {
+            BinaryBackupHelper.readDelta(delta, new BinaryBackupHelper.DeltaVisitor() {
+                @Override
+                public void habit(Habit habit) {
+                    habits.put(habit.getId(), habit);
+                }
+
+                @Override
+                public void deleted(long habitId) {
+                    habits.remove(habitId);
+                }
+
+                @Override
+                public void cleared() {
+                    habits.clear();
+                }
+            });
+        }
+        return habits.values();
+    }
+
+    // Backup files in the directory, oldest first
+    static List<Path> listBackups(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> FILE_NAME.matcher(path.getFileName().toString()).matches())
+                    .sorted(Comparator.comparingLong(IncrementalBackup::sequenceOf))
+                    .toList();
+        }
+    }
+
+    /**
+     * Returns whether {@code path} is named like a snapshot or delta written by this class.
+     */
+    public static boolean isBackupFile(Path path) {
+        return FILE_NAME.matcher(path.getFileName().toString()).matches();
+    }
+
+    static boolean isFull(Path path) {
+        Matcher matcher = FILE_NAME.matcher(path.getFileName().toString());
+        return matcher.matches() && FULL.equals(matcher.group(2));
+    }
+
+    private static long sequenceOf(Path path) {
+        Matcher matcher = FILE_NAME.matcher(path.getFileName().toString());
+        return matcher.matches() ? Long.parseLong(matcher.group(1)) : -1;
+    }
+}
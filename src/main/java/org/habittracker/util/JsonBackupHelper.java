@@ -1,33 +1,64 @@
 package org.habittracker.util;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.habittracker.model.Habit;
 import org.habittracker.repository.HabitRepository;
 
 import java.io.IOException;
-import java.lang.reflect.Type;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.time.LocalDate;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
 
 public class JsonBackupHelper {
     private static final Logger LOGGER = LogManager.getLogger(JsonBackupHelper.class);
-    private static final Gson GSON = new GsonBuilder()
-            .registerTypeAdapter(LocalDate.class, new LocalDateAdapter())
-            .setPrettyPrinting()
-            .create();
+    private static final HabitTypeAdapter HABIT_ADAPTER = new HabitTypeAdapter();
+    private static final String PRETTY_INDENT = "  ";
+    private static final int DEFAULT_RESTORE_BATCH_SIZE = 250;
+
+    /**
+     * Writes every habit in the repository to {@code filePath} as compact JSON.
+     */
+    public static void backupHabitsToJson(String filePath) {
+        backupHabitsToJson(filePath, false);
+    }
+
+    /**
+     * Writes every habit in the repository to {@code filePath}, reading them through
+     * {@link HabitRepository#forEachHabit(Consumer)} so that only one chunk of habits is in memory at a time.
+     *
+     * @param prettyPrint Whether to indent the output; compact output is smaller and faster to write.
+     */
+    public static void backupHabitsToJson(String filePath, boolean prettyPrint) {
+        writeHabits(HabitRepository.getInstance()::forEachHabit, filePath, prettyPrint);
+    }
 
     public static void backupHabitsToJson(List<Habit> habits, String filePath) {
+        writeHabits(habits::forEach, filePath, false);
+    }
+
+    private static void writeHabits(Consumer<Consumer<? super Habit>> source, String filePath, boolean prettyPrint) {
         Path path = Path.of(filePath);
-        try (var writer = Files.newBufferedWriter(path)) {
-            GSON.toJson(habits, writer);
+        try (JsonWriter writer = new JsonWriter(Files.newBufferedWriter(path))) {
+            if (prettyPrint) {
+                writer.setIndent(PRETTY_INDENT);
+            }
+            writer.beginArray();
+            source.accept(habit -> {
+                try {
+                    HABIT_ADAPTER.write(writer, habit);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            writer.endArray();
             LOGGER.info("Backup saved successfully to {}", filePath);
-        } catch (IOException e) {
+        } catch (IOException | UncheckedIOException e) {
             if (LOGGER.isWarnEnabled()) {
                 LOGGER.warn("Backup encountered an issue", e);
             }
@@ -35,27 +66,44 @@ public class JsonBackupHelper {
         }
     }
 
-    public static void restoreDataFromJson(String filePath) {
-        Path path = Path.of(filePath);
-        try (var reader = Files.newBufferedReader(path)) {
-            Type habitListType = new TypeToken<List<Habit>>() {}.getType();
-            List<Habit> habits = GSON.fromJson(reader, habitListType);
-
-            HabitRepository habitRepository = HabitRepository.getInstance();
-            for (Habit habit : habits) {
-                if (!habitRepository.habitExistsByName(habit.getName())) {
-                    habitRepository.addHabit(habit);
-                }
-            }
+    public static int restoreDataFromJson(String filePath) {
+        return restoreDataFromJson(filePath, DEFAULT_RESTORE_BATCH_SIZE, restored -> { });
+    }
 
-            if (LOGGER.isInfoEnabled()) {
-                LOGGER.info("Restored data from " + filePath);
+    /**
+     * Restores the habits in a backup file that do not exist yet, matching names ignoring case.
+     * <p>
+     * Habits are read from the file one at a time and handed to a {@link HabitImporter}, so neither the file nor
+     * the existing habits are held in memory as full habit objects. New habits are inserted {@code batchSize} at
+     * a time, each batch in a single transaction.
+     *
+     * @param batchSize  How many habits to insert per transaction.
+     * @param onProgress Called after each batch with the number of habits read from the file so far.
+     * @return The number of habits restored, or {@code -1} if the file could not be read.
+     */
+    public static int restoreDataFromJson(String filePath, int batchSize, IntConsumer onProgress) {
+        HabitImporter importer = new HabitImporter(filePath, batchSize, onProgress);
+        try (JsonReader reader = new JsonReader(Files.newBufferedReader(Path.of(filePath)))) {
+            reader.beginArray();
+            while (reader.hasNext()) {
+                importer.accept(readHabit(reader));
             }
-
-        } catch (IOException e) {
-            if (LOGGER.isInfoEnabled()) {
-                LOGGER.info("Failed to restore data from " + filePath);
+            reader.endArray();
+            return importer.finish();
+        } catch (IOException | IllegalStateException e) {
+            if (LOGGER.isWarnEnabled()) {
+                LOGGER.warn("Failed to restore data from " + filePath, e);
             }
+            return -1;
+        }
+    }
+
+    // Bad field values, such as an unknown frequency or a malformed date, make the file unreadable too
+    private static Habit readHabit(JsonReader reader) throws IOException {
+        try {
+            return HABIT_ADAPTER.read(reader);
+        } catch (RuntimeException e) {
+            throw new IOException("Invalid habit at " + reader.getPath(), e);
         }
     }
 }
@@ -0,0 +1,120 @@
+package org.habittracker.util;
+
+import org.habittracker.model.Habit;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Precomputed view of which habits are due on each day of a month, built from a single habit snapshot.
+ * Each day holds a bitset over the snapshot positions, so building the index costs one pass over the
+ * habits plus one bitset union per day, instead of one repository query per day.
+ */
+public final class MonthDueIndex {
+
+    private final YearMonth month;
+    private final List<Habit> habits;
+    private final BitSet[] dueByDay;
+
+    private MonthDueIndex(YearMonth month, List<Habit> habits, BitSet[] dueByDay) {
+        this.month = month;
+        this.habits = habits;
+        this.dueByDay = dueByDay;
+    }
+
+    public static MonthDueIndex build(YearMonth month, List<Habit> habits) {
+        List<Habit> snapshot = List.copyOf(habits);
+        int daysInMonth = month.lengthOfMonth();
+
+        BitSet everyDay = new BitSet(snapshot.size());
+        BitSet[] byWeekday = new BitSet[DayOfWeek.values().length];
+        BitSet[] byDayOfMonth = new BitSet[daysInMonth];
+        for (int i = 0; i < byWeekday.length; i++) {
+            byWeekday[i] = new BitSet(snapshot.size());
+        }
+        for (int i = 0; i < byDayOfMonth.length; i++) {
+            byDayOfMonth[i] = new BitSet(snapshot.size());
+        }
+
+        for (int position = 0; position < snapshot.size(); position++) {
+            Habit habit = snapshot.get(position);
+            if (habit.getFrequency() == null) {
+                continue;
+            }
+            switch (habit.getFrequency()) {
+                case DAILY -> everyDay.set(position);
+                case CUSTOM -> {
+                    if (habit.getCustomDays() != null) {
+                        for (DayOfWeek day : habit.getCustomDays()) {
+                            byWeekday[day.ordinal()].set(position);
+                        }
+                    }
+                }
+                case WEEKLY -> {
+                    if (habit.getCreationDate() != null) {
+                        byWeekday[habit.getCreationDate().getDayOfWeek().ordinal()].set(position);
+                    }
+                }
+                case MONTHLY -> {
+                    if (habit.getCreationDate() != null) {
+                        int dueDay = Math.min(habit.getCreationDate().getDayOfMonth(), daysInMonth);
+                        byDayOfMonth[dueDay - 1].set(position);
+                    }
+                }
+            }
+        }
+
+        BitSet[] dueByDay = new BitSet[daysInMonth];
+        for (int day = 1; day <= daysInMonth; day++) {
+            BitSet due = (BitSet) everyDay.clone();
+            due.or(byWeekday[month.atDay(day).getDayOfWeek().ordinal()]);
+            due.or(byDayOfMonth[day - 1]);
+            dueByDay[day - 1] = due;
+        }
+        return new MonthDueIndex(month, snapshot, dueByDay);
+    }
+
+    /**
+     * Applies the same scheduling rules as the index to a single habit and date.
+     * WEEKLY habits are due on the weekday they were created, MONTHLY habits on the day of month
+     * they were created (or the last day of shorter months).
+     */
+    public static boolean isDue(Habit habit, LocalDate date) {
+        if (habit.getFrequency() == null) {
+            return false;
+        }
+        LocalDate creationDate = habit.getCreationDate();
+        return switch (habit.getFrequency()) {
+            case DAILY -> true;
+            case CUSTOM -> habit.getCustomDays() != null && habit.getCustomDays().contains(date.getDayOfWeek());
+            case WEEKLY -> creationDate != null && creationDate.getDayOfWeek() == date.getDayOfWeek();
+            case MONTHLY -> creationDate != null
+                    && Math.min(creationDate.getDayOfMonth(), date.lengthOfMonth()) == date.getDayOfMonth();
+        };
+    }
+
+    public YearMonth getMonth() {
+        return month;
+    }
+
+    public boolean hasHabitsDueOn(int dayOfMonth) {
+        return !dueByDay[dayOfMonth - 1].isEmpty();
+    }
+
+    public int countDueOn(int dayOfMonth) {
+        return dueByDay[dayOfMonth - 1].cardinality();
+    }
+
+    public List<Habit> habitsDueOn(int dayOfMonth) {
+        BitSet due = dueByDay[dayOfMonth - 1];
+        List<Habit> result = new ArrayList<>(due.cardinality());
+        for (int position = due.nextSetBit(0); position >= 0; position = due.nextSetBit(position + 1)) {
+            result.add(habits.get(position));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,108 @@
+package org.habittracker.util;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import org.habittracker.model.HabitReportData;
+import org.habittracker.model.MonthlyReport;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hand-written JSON mapping for {@link MonthlyReport} and its rows, in the same shape reflective Gson used,
+ * so reports written before and after the change load the same way.
+ */
+public class MonthlyReportTypeAdapter extends TypeAdapter<MonthlyReport> {
+
+    @Override
+    public void write(JsonWriter out, MonthlyReport report) throws IOException {
+        if (report == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        if (report.getPeriod() != null) {
+            out.name("period").value(report.getPeriod());
+        }
+        if (report.getHabitData() != null) {
+            out.name("habitData").beginArray();
+            for (HabitReportData row : report.getHabitData()) {
+                out.beginObject();
+                if (row.getHabitName() != null) {
+                    out.name("habitName").value(row.getHabitName());
+                }
+                out.name("completionRate").value(row.getCompletionRate());
+                out.name("longestStreak").value(row.getLongestStreak());
+                out.name("monthlyConsistency").value(row.getMonthlyConsistency());
+                out.name("ranking").value(row.getRanking());
+                out.endObject();
+            }
+            out.endArray();
+        }
+        if (report.getReportGeneratedDate() != null) {
+            out.name("reportGeneratedDate").value(report.getReportGeneratedDate().toString());
+        }
+        out.endObject();
+    }
+
+    @Override
+    public MonthlyReport read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        String period = null;
+        List<HabitReportData> habitData = null;
+        LocalDate reportGeneratedDate = null;
+
+        in.beginObject();
+        while (in.hasNext()) {
+            String field = in.nextName();
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                continue;
+            }
+            switch (field) {
+                case "period" -> period = in.nextString();
+                case "reportGeneratedDate" -> reportGeneratedDate = LocalDate.parse(in.nextString());
+                case "habitData" -> {
+                    habitData = new ArrayList<>();
+                    in.beginArray();
+                    while (in.hasNext()) {
+                        habitData.add(readRow(in));
+                    }
+                    in.endArray();
+                }
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+        return new MonthlyReport(period, habitData, reportGeneratedDate);
+    }
+
+    private static HabitReportData readRow(JsonReader in) throws IOException {
+        HabitReportData row = new HabitReportData(null, 0, 0, 0, 0);
+        in.beginObject();
+        while (in.hasNext()) {
+            String field = in.nextName();
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                continue;
+            }
+            switch (field) {
+                case "habitName" -> row.setHabitName(in.nextString());
+                case "completionRate" -> row.setCompletionRate(in.nextInt());
+                case "longestStreak" -> row.setLongestStreak(in.nextInt());
+                case "monthlyConsistency" -> row.setMonthlyConsistency(in.nextInt());
+                case "ranking" -> row.setRanking(in.nextInt());
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+        return row;
+    }
+}
@@ -1,34 +1,99 @@
 package org.habittracker.util;
 
+import javafx.animation.Animation;
+import javafx.animation.PauseTransition;
 import javafx.application.Platform;
 import javafx.scene.control.Label;
+import javafx.util.Duration;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Shows messages in a label, one at a time.
+ * <p>
+ * Messages can be sent from any thread. They are handed to the JavaFX application thread with at most one
+ * pending {@link Platform#runLater(Runnable)} and wait in a {@link NotificationQueue}, which drops duplicates and
+ * combines grouped messages into a summary. A message arriving while the label is idle is shown after a short
+ * delay that lets a burst of messages arrive and be combined, and each message stays up for at least
+ * {@link #MIN_DISPLAY_TIME} before the next one replaces it. The label is hidden {@link #DISPLAY_TIME} after
+ * the last message was shown. Both delays are {@link PauseTransition}s, so no thread is started per message
+ * and an older message can no longer hide a newer one.
+ */
 public class NotificationHelper implements Notifier {
-    private final Label notificationLabel;
     private static final Logger LOGGER = LogManager.getLogger(NotificationHelper.class);
 
+    static final Duration DISPLAY_TIME = Duration.seconds(4);
+    static final Duration MIN_DISPLAY_TIME = Duration.millis(1500);
+    static final Duration BURST_WINDOW = Duration.millis(100);
+    private static final int MAX_PENDING = 20;
+
+    private final Label notificationLabel;
+    private final Queue<NotificationQueue.Notification> incoming = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean drainScheduled = new AtomicBoolean();
+
+    // Only used on the JavaFX application thread
+    private final NotificationQueue pending = new NotificationQueue(MAX_PENDING);
+    private PauseTransition nextTimer;
+    private PauseTransition hideTimer;
+
     public NotificationHelper(Label notificationLabel) {
         this.notificationLabel = notificationLabel;
     }
 
     @Override
     public void showMessage(String message, String color) {
-        Platform.runLater(() -> {
-            notificationLabel.setText(message);
-            notificationLabel.setStyle("-fx-text-fill: " + color + ";");
-            notificationLabel.setVisible(true);
-        });
-
-        new Thread(() -> {
-            try {
-                Thread.sleep(4000); // 4-second delay
-                Platform.runLater(() -> notificationLabel.setVisible(false));
-            } catch (InterruptedException e) {
-                LOGGER.error("Thread was interrupted while trying to hide the notification label.", e);
-            }
-        }).start();
+        enqueue(new NotificationQueue.Notification(message, color, null));
+    }
+
+    @Override
+    public void showGroupedMessage(String message, String color, String summaryFormat) {
+        enqueue(new NotificationQueue.Notification(message, color, summaryFormat));
+    }
+
+    private void enqueue(NotificationQueue.Notification notification) {
+        incoming.add(notification);
+        if (drainScheduled.compareAndSet(false, true)) {
+            Platform.runLater(this::drain);
+        }
+    }
+
+    private void drain() {
+        drainScheduled.set(false);
+        NotificationQueue.Notification notification;
+        while ((notification = incoming.poll()) != null) {
+            pending.add(notification);
+        }
+        if (nextTimer == null) {
+            nextTimer = new PauseTransition();
+            nextTimer.setOnFinished(event -> showNext());
+            hideTimer = new PauseTransition(DISPLAY_TIME);
+            hideTimer.setOnFinished(event -> notificationLabel.setVisible(false));
+        }
+        if (nextTimer.getStatus() != Animation.Status.RUNNING && !pending.isEmpty()) {
+            nextTimer.setDuration(BURST_WINDOW);
+            nextTimer.playFromStart();
+        }
+    }
+
+    private void showNext() {
+        NotificationQueue.Notification notification = pending.next();
+        if (notification == null) {
+            return; // Idle until the next message arrives
+        }
+        notificationLabel.setText(notification.message());
+        notificationLabel.setStyle("-fx-text-fill: " + notification.color() + ";");
+        notificationLabel.setVisible(true);
+        hideTimer.playFromStart();
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Notification shown: {} ({} waiting, {} dropped)", notification.message(), pending.size(),
+                    pending.getDropped());
+        }
 
+        nextTimer.setDuration(MIN_DISPLAY_TIME);
+        nextTimer.playFromStart();
     }
 }
@@ -0,0 +1,83 @@
+package org.habittracker.util;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Objects;
+
+/**
+ * Messages waiting to be shown by a {@link NotificationHelper}, in arrival order.
+ * <p>
+ * A message that is already waiting is not queued twice. Messages added with the same summary format are
+ * taken together: {@link #next()} returns the first of them unchanged if it is alone, or a single summary
+ * such as "3 habits are due tomorrow!" in its place. When more than {@code capacity} messages are waiting the
+ * oldest one is dropped, so a flood of messages cannot keep the label busy for long after it ends. Not thread
+ * safe; {@link NotificationHelper} only uses it on the JavaFX application thread.
+ */
+final class NotificationQueue {
+
+    private final Deque<Notification> pending = new ArrayDeque<>();
+    private final int capacity;
+    private int dropped;
+
+    NotificationQueue(int capacity) {
+        this.capacity = capacity;
+    }
+
+    void add(Notification notification) {
+        if (pending.contains(notification)) {
+            return;
+        }
+        pending.addLast(notification);
+        if (pending.size() > capacity) {
+            pending.removeFirst();
+            dropped++;
+        }
+    }
+
+    boolean isEmpty() {
+        return pending.isEmpty();
+    }
+
+    int size() {
+        return pending.size();
+    }
+
+    /**
+     * Number of messages dropped because the queue was full.
+     */
+    int getDropped() {
+        return dropped;
+    }
+
+    /**
+     * Removes and returns the next message to show, combined with every waiting message of the same kind, or
+     * {@code null} if nothing is waiting.
+     */
+    Notification next() {
+        Notification first = pending.pollFirst();
+        if (first == null || first.summaryFormat() == null) {
+            return first;
+        }
+        int count = 1;
+        for (Iterator<Notification> it = pending.iterator(); it.hasNext(); ) {
+            if (first.summaryFormat().equals(it.next().summaryFormat())) {
+                it.remove();
+                count++;
+            }
+        }
+        return count == 1 ? first : new Notification(String.format(first.summaryFormat(), count), first.color(), null);
+    }
+
+    /**
+     * One message.
+     *
+     * @param summaryFormat Format of the message shown in place of several messages with the same format; it
+     *                      receives their number. {@code null} for messages that are never combined.
+     */
+    record Notification(String message, String color, String summaryFormat) {
+        Notification {
+            Objects.requireNonNull(message, "message");
+        }
+    }
+}
@@ -3,4 +3,13 @@ package org.habittracker.util;
 public interface Notifier {
 
     void showMessage(String message, String color);
+
+    /**
+     * Shows a message that may be combined with other messages of the same kind waiting to be shown, e.g.
+     * several reminders become one "3 habits are due tomorrow!". {@code summaryFormat} receives the number of
+     * messages combined.
+     */
+    default void showGroupedMessage(String message, String color, String summaryFormat) {
+        showMessage(message, color);
+    }
 }
@@ -0,0 +1,42 @@
+package org.habittracker.util;
+
+/**
+ * Completion counts for a contiguous range of periods (weeks or months), stored in an array indexed by the
+ * period's ordinal minus the first ordinal. Ordinals outside the range read as zero.
+ */
+final class PeriodCounts {
+
+    private final long firstOrdinal;
+    private final int[] counts;
+
+    PeriodCounts(long firstOrdinal, long lastOrdinal) {
+        this.firstOrdinal = firstOrdinal;
+        this.counts = new int[(int) Math.max(lastOrdinal - firstOrdinal + 1, 0)];
+    }
+
+    void increment(long ordinal) {
+        counts[(int) (ordinal - firstOrdinal)]++;
+    }
+
+    void set(long ordinal, int value) {
+        counts[(int) (ordinal - firstOrdinal)] = value;
+    }
+
+    /**
+     * Replaces every count with the largest count at or before its period, for running maximums.
+     */
+    void carryForward() {
+        for (int i = 1; i < counts.length; i++) {
+            counts[i] = Math.max(counts[i], counts[i - 1]);
+        }
+    }
+
+    long getLastOrdinal() {
+        return firstOrdinal + counts.length - 1;
+    }
+
+    int get(long ordinal) {
+        long index = ordinal - firstOrdinal;
+        return index < 0 || index >= counts.length ? 0 : counts[(int) index];
+    }
+}
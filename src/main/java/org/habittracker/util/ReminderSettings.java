@@ -0,0 +1,48 @@
+package org.habittracker.util;
+
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.prefs.Preferences;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * The local time of day at which habit reminders are shown, kept in the user's preferences so it survives a
+ * restart.
+ */
+public class ReminderSettings {
+    private static final Logger LOGGER = LogManager.getLogger(ReminderSettings.class);
+
+    public static final LocalTime DEFAULT_REMINDER_TIME = LocalTime.of(9, 0);
+    static final String REMINDER_TIME_KEY = "reminderTime";
+
+    private final Preferences preferences;
+
+    public ReminderSettings() {
+        this(Preferences.userNodeForPackage(ReminderSettings.class));
+    }
+
+    ReminderSettings(Preferences preferences) {
+        this.preferences = preferences;
+    }
+
+    /**
+     * The saved reminder time, or {@link #DEFAULT_REMINDER_TIME} if none was saved or it cannot be read.
+     */
+    public LocalTime getReminderTime() {
+        String saved = preferences.get(REMINDER_TIME_KEY, null);
+        if (saved == null) {
+            return DEFAULT_REMINDER_TIME;
+        }
+        try {
+            return LocalTime.parse(saved);
+        } catch (DateTimeParseException e) {
+            LOGGER.warn("Ignoring invalid reminder time {}", saved);
+            return DEFAULT_REMINDER_TIME;
+        }
+    }
+
+    public void setReminderTime(LocalTime reminderTime) {
+        preferences.put(REMINDER_TIME_KEY, reminderTime.toString());
+    }
+}
@@ -0,0 +1,40 @@
+package org.habittracker.util;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Logs how long each stage of application startup takes, measured from the
+ * previous stage and from the moment the application was launched.
+ */
+public class StartupTimer {
+    private static final Logger LOGGER = LogManager.getLogger(StartupTimer.class);
+
+    private final long launchTimestamp;
+    private long lastPhaseTimestamp;
+
+    public StartupTimer(long launchTimestamp) {
+        this.launchTimestamp = launchTimestamp;
+        this.lastPhaseTimestamp = launchTimestamp;
+    }
+
+    /**
+     * Records the end of a startup phase. Phases may complete on different threads.
+     *
+     * @param phase Human-readable name of the phase that just finished.
+     * @return Time spent in this phase, in milliseconds.
+     */
+    public synchronized long markPhase(String phase) {
+        long now = System.currentTimeMillis();
+        long phaseDuration = now - lastPhaseTimestamp;
+        lastPhaseTimestamp = now;
+        if (LOGGER.isInfoEnabled()) {
+            LOGGER.info("Startup phase '{}' completed in {} ms ({} ms since launch)", phase, phaseDuration, now - launchTimestamp);
+        }
+        return phaseDuration;
+    }
+
+    public long getLaunchTimestamp() {
+        return launchTimestamp;
+    }
+}
@@ -0,0 +1,180 @@
+package org.habittracker.util;
+
+import javafx.application.Platform;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+/**
+ * Runs repository queries and statistics for the views on a small pool of background threads and hands
+ * the results back to the JavaFX application thread, so a large dataset cannot freeze the UI.
+ * <p>
+ * Every task has a key naming what it loads. Submitting a task cancels the previous task with the same key, and
+ * {@link #cancelAll()} cancels everything when the user navigates away, so a slow query never overwrites the view
+ * with stale rows. A cancelled task may still finish running, but its result is dropped. The time each task spent
+ * queued and running is logged and kept per key.
+ * <p>
+ * Callers that are not on the JavaFX application thread, such as tests and background loaders, have nothing to
+ * keep responsive, so their work and its result run directly on the calling thread.
+ */
+public final class UiTaskRunner {
+    private static final Logger LOGGER = LogManager.getLogger(UiTaskRunner.class);
+
+    // SQLite serializes access to the file, so more threads would only queue on the database
+    private static final int WORKER_THREADS = 2;
+
+    private static final UiTaskRunner INSTANCE = new UiTaskRunner(newWorkerPool(), Platform::runLater,
+            Platform::isFxApplicationThread);
+
+    private final ExecutorService workers;
+    private final Executor uiExecutor;
+    private final BooleanSupplier onUiThread;
+    private final Map<String, Task> activeTasks = new ConcurrentHashMap<>();
+    private final Map<String, Long> lastRunMillis = new ConcurrentHashMap<>();
+
+    UiTaskRunner(ExecutorService workers, Executor uiExecutor, BooleanSupplier onUiThread) {
+        this.workers = workers;
+        this.uiExecutor = uiExecutor;
+        this.onUiThread = onUiThread;
+    }
+
+    public static UiTaskRunner getInstance() {
+        return INSTANCE;
+    }
+
+    private static ExecutorService newWorkerPool() {
+        AtomicInteger threadCount = new AtomicInteger();
+        return Executors.newFixedThreadPool(WORKER_THREADS, runnable -> {
+            Thread thread = new Thread(runnable, "ui-task-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Runs {@code work} in the background and passes its result to {@code onResult} on the JavaFX application
+     * thread, unless the task is cancelled first. A task that throws is logged and {@code onResult} is not called.
+     *
+     * @param key      What the task loads; a pending task with the same key is cancelled.
+     * @param work     Repository or statistics work that does not touch any node.
+     * @param onResult Updates the view with the result.
+     */
+    public <T> void submit(String key, Callable<T> work, Consumer<? super T> onResult) {
+        if (!onUiThread.getAsBoolean()) {
+            runInline(key, work, onResult);
+            return;
+        }
+
+        Task task = new Task(System.nanoTime());
+        Task previous = activeTasks.put(key, task);
+        if (previous != null) {
+            previous.cancel();
+        }
+        task.future = workers.submit(() -> {
+            if (task.cancelled) {
+                return;
+            }
+            long started = System.nanoTime();
+            T result;
+            try {
+                result = work.call();
+            } catch (Exception e) {
+                activeTasks.remove(key, task);
+                LOGGER.error("Background task {} failed", key, e);
+                return;
+            } finally {
+                recordLatency(key, task.submitted, started);
+            }
+            uiExecutor.execute(() -> {
+                // Checked on the UI thread, so a cancel issued there before this runs always wins
+                if (activeTasks.remove(key, task) && !task.cancelled) {
+                    onResult.accept(result);
+                }
+            });
+        });
+    }
+
+    private <T> void runInline(String key, Callable<T> work, Consumer<? super T> onResult) {
+        long started = System.nanoTime();
+        T result;
+        try {
+            result = work.call();
+        } catch (Exception e) {
+            LOGGER.error("Task {} failed", key, e);
+            return;
+        } finally {
+            recordLatency(key, started, started);
+        }
+        onResult.accept(result);
+    }
+
+    /**
+     * Cancels the pending task with {@code key}, if any, so its result is never shown.
+     */
+    public void cancel(String key) {
+        Task task = activeTasks.remove(key);
+        if (task != null) {
+            task.cancel();
+        }
+    }
+
+    /**
+     * Cancels every pending task; called when the user leaves the view that submitted them.
+     */
+    public void cancelAll() {
+        for (String key : activeTasks.keySet()) {
+            cancel(key);
+        }
+    }
+
+    boolean isPending(String key) {
+        return activeTasks.containsKey(key);
+    }
+
+    /**
+     * Returns how long the last task with {@code key} took from submission to the end of its work, in
+     * milliseconds, or -1 if no such task has finished yet.
+     */
+    public long getLastRunMillis(String key) {
+        return lastRunMillis.getOrDefault(key, -1L);
+    }
+
+    private void recordLatency(String key, long submitted, long started) {
+        long finished = System.nanoTime();
+        long queuedMillis = (started - submitted) / 1_000_000;
+        long totalMillis = (finished - submitted) / 1_000_000;
+        lastRunMillis.put(key, totalMillis);
+        if (LOGGER.isInfoEnabled()) {
+            LOGGER.info("Task {} completed in {} ms ({} ms queued)", key, totalMillis, queuedMillis);
+        }
+    }
+
+    private static final class Task {
+        private final long submitted;
+        private volatile boolean cancelled;
+        private volatile Future<?> future;
+
+        private Task(long submitted) {
+            this.submitted = submitted;
+        }
+
+        private void cancel() {
+            cancelled = true;
+            Future<?> running = future;
+            if (running != null) {
+                // Not interrupted: an interrupted JDBC call can leave the shared connection unusable
+                running.cancel(false);
+            }
+        }
+    }
+}
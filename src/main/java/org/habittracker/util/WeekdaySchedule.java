@@ -0,0 +1,92 @@
+package org.habittracker.util;
+
+import org.habittracker.model.CompletionBitmap;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.Collection;
+
+/**
+ * Arithmetic over a fixed set of weekdays, as used by CUSTOM habits.
+ * <p>
+ * The weekdays are kept as a 7-bit mask indexed by {@link DayOfWeek#ordinal()}. Counting the scheduled days in
+ * a range takes the number of full weeks times the number of selected weekdays, plus a lookup in a remainder
+ * table for the leftover days, so the cost does not depend on the length of the range. Completed scheduled days
+ * are counted with {@link CompletionBitmap#countInRange(LocalDate, LocalDate, int)}.
+ */
+public final class WeekdaySchedule {
+
+    private static final int DAYS_PER_WEEK = 7;
+
+    private final int mask;
+    private final int daysPerWeek;
+    // remainder[weekday][n] is the number of scheduled days among the n days starting on that weekday
+    private final int[][] remainder = new int[DAYS_PER_WEEK][DAYS_PER_WEEK];
+
+    private WeekdaySchedule(int mask) {
+        this.mask = mask;
+        this.daysPerWeek = Integer.bitCount(mask);
+        for (int weekday = 0; weekday < DAYS_PER_WEEK; weekday++) {
+            for (int days = 1; days < DAYS_PER_WEEK; days++) {
+                int added = (mask >>> ((weekday + days - 1) % DAYS_PER_WEEK)) & 1;
+                remainder[weekday][days] = remainder[weekday][days - 1] + added;
+            }
+        }
+    }
+
+    /**
+     * Creates a schedule for the given weekdays; {@code null} is treated as no weekdays.
+     */
+    public static WeekdaySchedule of(Collection<DayOfWeek> days) {
+        int mask = 0;
+        if (days != null) {
+            for (DayOfWeek day : days) {
+                mask |= 1 << day.ordinal();
+            }
+        }
+        return new WeekdaySchedule(mask);
+    }
+
+    public int getMask() {
+        return mask;
+    }
+
+    /**
+     * Number of selected weekdays, which is also the number of scheduled days in any full week.
+     */
+    public int getDaysPerWeek() {
+        return daysPerWeek;
+    }
+
+    public boolean includes(DayOfWeek day) {
+        return (mask & (1 << day.ordinal())) != 0;
+    }
+
+    /**
+     * Counts the scheduled days between two dates, both inclusive. Returns 0 when {@code end} is before
+     * {@code start}.
+     */
+    public int countBetween(LocalDate start, LocalDate end) {
+        long days = end.toEpochDay() - start.toEpochDay() + 1;
+        if (days <= 0) {
+            return 0;
+        }
+        long fullWeeks = days / DAYS_PER_WEEK;
+        int leftover = (int) (days % DAYS_PER_WEEK);
+        return (int) (fullWeeks * daysPerWeek) + remainder[start.getDayOfWeek().ordinal()][leftover];
+    }
+
+    /**
+     * Counts the completions between two dates, both inclusive, that fall on a scheduled day.
+     */
+    public int countCompleted(CompletionBitmap completions, LocalDate start, LocalDate end) {
+        return completions.countInRange(start, end, mask);
+    }
+
+    /**
+     * Whether every scheduled day between two dates, both inclusive, has a completion.
+     */
+    public boolean isFullyCompleted(CompletionBitmap completions, LocalDate start, LocalDate end) {
+        return countCompleted(completions, start, end) == countBetween(start, end);
+    }
+}
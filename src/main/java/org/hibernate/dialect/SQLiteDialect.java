@@ -74,6 +74,14 @@ public class SQLiteDialect extends Dialect {
         return query + (offset > 0 ? " limit " + limit + " offset " + offset : " limit " + limit);
     }
 
+    // getLimitString writes the values into the SQL, so Hibernate must not bind them as parameters.
+    // Deprecated, but the default LegacyLimitHandler still reads it alongside supportsLimit and getLimitString.
+    @Override
+    @SuppressWarnings("deprecation")
+    public boolean supportsVariableLimit() {
+        return false;
+    }
+
     @Override
     public boolean bindLimitParametersInReverseOrder() {
         return true;
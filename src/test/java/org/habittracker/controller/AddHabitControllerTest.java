@@ -21,9 +21,7 @@ import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.time.DayOfWeek;
 import java.time.LocalDate;
-import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -228,7 +226,7 @@ public class AddHabitControllerTest {
     @Tag("JavaFX")
     void testHabitLimitAndMilestoneNotifications(int existingHabitsCount, String expectedNotification, boolean isAdditionAllowed) throws Exception {
         // Simulate habit repository having `existingHabitsCount` habits
-        when(habitRepository.getAllHabits()).thenReturn(new ArrayList<>(Collections.nCopies(existingHabitsCount, new Habit())));
+        when(habitRepository.getHabitCount()).thenReturn(existingHabitsCount);
 
         // Set habit details
         TextField habitNameField = (TextField) getPrivateField(addHabitController, "habitNameField");
@@ -7,10 +7,12 @@ import javafx.scene.layout.GridPane;
 import javafx.scene.layout.StackPane;
 import javafx.scene.layout.VBox;
 import org.habittracker.model.Habit;
+import org.habittracker.model.HabitSummary;
 import org.habittracker.repository.HabitRepository;
 import org.habittracker.service.HabitReminderScheduler;
 import org.habittracker.util.HabitCalendarPopulator;
 import org.habittracker.util.JavaFxInitializer;
+import org.habittracker.util.MonthDueIndex;
 import org.habittracker.util.Notifier;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
@@ -23,6 +25,7 @@ import javax.persistence.EntityManager;
 import javax.persistence.EntityManagerFactory;
 import javax.persistence.Persistence;
 import java.time.LocalDate;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -83,7 +86,7 @@ public class MainControllerTest {
     void testShowMainView() {
         mainController.showMainView();
 
-        verify(calendarPopulator).populateCalendar(LocalDate.now(), false); // Dark mode off by default
+        verify(calendarPopulator).populateCalendar(eq(LocalDate.now()), eq(false), any(MonthDueIndex.class)); // Dark mode off by default
         assertTrue(mainController.mainView.isVisible(), "mainView should be visible");
         assertFalse(mainController.dynamicViewContainer.isVisible(), "dynamicViewContainer should be hidden");
     }
@@ -151,4 +154,46 @@ public class MainControllerTest {
         assertTrue(mainController.dynamicViewContainer.isVisible(), "dynamicViewContainer should be visible");
         assertFalse(mainController.mainView.isVisible(), "mainView should be hidden");
     }
+
+    @Test
+    void testCompleteAllDueTodayCompletesTheUnfinishedHabits() {
+        HabitRepository.initialize("habittracker-test");
+        HabitRepository repository = HabitRepository.getInstance();
+        repository.clearAll();
+        LocalDate today = LocalDate.now();
+        try {
+            Habit reading = new Habit("Reading", Habit.Frequency.DAILY);
+            reading.setCreationDate(today.minusDays(2));
+            Habit running = new Habit("Running", Habit.Frequency.DAILY);
+            running.setCreationDate(today.minusDays(2));
+            running.markAsCompletedOnDate(today);
+            Long readingId = repository.addHabit(reading).getId();
+            Long runningId = repository.addHabit(running).getId();
+            mainController.habitsDueTodayList.getItems().setAll(
+                    new HabitSummary(readingId, "Reading", Habit.Frequency.DAILY, today.minusDays(2), 0, false),
+                    new HabitSummary(runningId, "Running", Habit.Frequency.DAILY, today.minusDays(2), 1, true));
+
+            mainController.completeAllDueToday(); // Runs inline, as this is not the FX thread
+
+            Habit completed = repository.findHabitById(readingId);
+            assertEquals(List.of(today), completed.getCompletions().toSortedList());
+            assertEquals(1, completed.getStreakCounter());
+            assertEquals(List.of(today), repository.findHabitById(runningId).getCompletions().toSortedList(),
+                    "A habit already done today should be left as it is");
+            assertTrue(mainController.habitsDueTodayList.getItems().stream().allMatch(HabitSummary::completedToday),
+                    "The list should be reloaded after the batch");
+        } finally {
+            repository.clearAll();
+        }
+    }
+
+    @Test
+    void testCompleteAllDueTodayWithNothingLeftToComplete() {
+        mainController.habitsDueTodayList.getItems().setAll(
+                new HabitSummary(1L, "Reading", Habit.Frequency.DAILY, LocalDate.now(), 1, true));
+
+        mainController.completeAllDueToday();
+
+        verify(notifier).showMessage("All habits due today are already completed.", "green");
+    }
 }
@@ -8,6 +8,7 @@ import javafx.scene.layout.VBox;
 import org.habittracker.model.HabitReportData;
 import org.habittracker.model.MonthlyReport;
 import org.habittracker.util.JavaFxInitializer;
+import org.habittracker.util.MockNotifier;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
@@ -17,9 +18,11 @@ import org.mockito.Mockito;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.LocalDate;
 import java.util.Arrays;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
@@ -48,6 +51,7 @@ public class ReportViewControllerTest {
         reportViewController.reportPeriodLabel = new Label();
         reportViewController.habitReportTable = new TableView<>();
         reportViewController.reportContent = new VBox();
+        reportViewController.notificationLabel = new Label();
 
         // Manually initialize TableColumn fields
         reportViewController.habitNameColumn = new TableColumn<>("Habit Name");
@@ -136,6 +140,35 @@ public class ReportViewControllerTest {
         assertEquals(2, reportViewController.habitReportTable.getItems().size(), "Habit report table should contain two entries");
     }
 
+    @Test
+    @Tag("JavaFX")
+    void testOnMonthSelected_UnreadableReportShowsError() {
+        MockNotifier notifier = new MockNotifier();
+        reportViewController.setNotifier(notifier);
+        reportViewController.monthSelector.getItems().add("2023-11");
+        reportViewController.monthSelector.setValue("2023-11");
+
+        reportViewController.onMonthSelected();
+
+        assertFalse(reportViewController.reportContent.isVisible(), "Report content should stay hidden when the report cannot be read");
+        assertEquals(List.of("Could not load the report for 2023-11"), notifier.getMessages());
+    }
+
+    @Test
+    @Tag("JavaFX")
+    void testOnMonthSelected_MalformedReportShowsError() throws IOException {
+        Files.writeString(tempDir.resolve("reports").resolve("2023-12.json"), "{ \"period\": ");
+        MockNotifier notifier = new MockNotifier();
+        reportViewController.setNotifier(notifier);
+        reportViewController.monthSelector.getItems().add("2023-12");
+        reportViewController.monthSelector.setValue("2023-12");
+
+        reportViewController.onMonthSelected();
+
+        assertFalse(reportViewController.reportContent.isVisible(), "Report content should stay hidden when the report is malformed");
+        assertEquals(List.of("Could not load the report for 2023-12"), notifier.getMessages());
+    }
+
     @Test
     @Tag("JavaFX")
     void testLoadReportData() {
@@ -4,6 +4,7 @@ import javafx.scene.control.Label;
 import org.habittracker.model.Habit;
 import org.habittracker.repository.HabitRepository;
 import org.habittracker.util.BackupScheduler;
+import org.habittracker.util.BinaryBackupHelper;
 import org.habittracker.util.JavaFxInitializer;
 import org.habittracker.util.JsonBackupHelper;
 import org.habittracker.util.NotificationHelper;
@@ -18,9 +19,13 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 
@@ -120,16 +125,65 @@ public class SettingsControllerIntegrationTest {
         assertTrue(restoredHabits.stream().anyMatch(habit -> "Restored Habit 2".equals(habit.getName())), "Habit 2 should be restored.");
     }
 
+    @Test
+    @Tag("Integration")
+    void testRestoreDataFromJsonInBatches() {
+        String backupFile = "generated-json/Habits_1000.json";
+        habitRepository.clearAll();
+
+        List<Integer> progress = new ArrayList<>();
+        long start = System.nanoTime();
+        int restored = JsonBackupHelper.restoreDataFromJson(backupFile, 250, progress::add);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertEquals(1000, restored);
+        assertEquals(1000, habitRepository.getHabitCount());
+        assertEquals(List.of(250, 500, 750, 1000), progress.subList(0, 4));
+        assertTrue(elapsedMillis < 1000, "Restoring 1000 habits took " + elapsedMillis + " ms");
+
+        // Every name now exists, so a second restore adds nothing
+        assertEquals(0, JsonBackupHelper.restoreDataFromJson(backupFile, 250, progress::add));
+        habitRepository.clearAll();
+    }
+
+    @Test
+    @Tag("Integration")
+    void testRestoreDataFromJsonWithInvalidValues() throws IOException {
+        Path backupFile = tempDir.resolve("invalid.json");
+        Files.writeString(backupFile, "[{\"name\": \"Bad Frequency\", \"frequency\": \"HOURLY\"}]");
+        assertEquals(-1, JsonBackupHelper.restoreDataFromJson(backupFile.toString()));
+
+        Files.writeString(backupFile, "[{\"name\": \"Bad Date\", \"creationDate\": \"yesterday\"}]");
+        assertEquals(-1, JsonBackupHelper.restoreDataFromJson(backupFile.toString()));
+    }
+
+    @Test
+    @Tag("Integration")
+    void testRestoreDataFromBinary() {
+        File backupFile = new File(tempDir.toFile(), "backup" + BinaryBackupHelper.FILE_EXTENSION);
+        Habit habit = new Habit("Binary Habit", Habit.Frequency.CUSTOM, List.of(DayOfWeek.MONDAY));
+        habit.addCompletionForTesting(LocalDate.now());
+        BinaryBackupHelper.backupHabitsToBinary(List.of(habit), backupFile.getAbsolutePath(), true);
+        habitRepository.clearAll();
+
+        assertEquals(1, BinaryBackupHelper.restoreDataFromBinary(backupFile.getAbsolutePath(), 250, read -> { }));
+
+        Habit restored = habitRepository.findHabitByName("Binary Habit");
+        assertEquals(List.of(DayOfWeek.MONDAY), restored.getCustomDays());
+        assertTrue(restored.getCompletions().contains(LocalDate.now()));
+        habitRepository.clearAll();
+    }
+
     @Test
     void testEnableAutoBackup() {
-        BackupScheduler.enableAutoBackup(habitRepository.getAllHabits());
+        BackupScheduler.enableAutoBackup();
         assertTrue(BackupScheduler.isAutoBackupEnabled(), "Auto backup should be enabled.");
     }
 
     @Test
     void testDisableAutoBackup() {
         // Enable auto-backup first
-        BackupScheduler.enableAutoBackup(habitRepository.getAllHabits());
+        BackupScheduler.enableAutoBackup();
 
         // Disable auto-backup
         BackupScheduler.disableAutoBackup();
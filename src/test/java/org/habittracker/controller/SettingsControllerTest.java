@@ -1,15 +1,18 @@
 package org.habittracker.controller;
 
 import javafx.scene.Scene;
+import javafx.scene.control.ComboBox;
 import javafx.scene.control.Label;
 import javafx.scene.layout.StackPane;
 import javafx.stage.FileChooser;
 import org.habittracker.Main;
 import org.habittracker.model.Habit;
+import org.habittracker.service.HabitReminderScheduler;
 import org.habittracker.util.BackupScheduler;
 import org.habittracker.util.JavaFxInitializer;
 import org.habittracker.util.JsonBackupHelper;
 import org.habittracker.util.Notifier;
+import org.habittracker.util.ReminderSettings;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
@@ -18,6 +21,7 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
 import java.io.File;
+import java.time.LocalTime;
 import java.util.Collections;
 import java.util.List;
 
@@ -34,6 +38,9 @@ public class SettingsControllerTest {
     @Mock
     private Notifier notifier;
 
+    @Mock
+    private ReminderSettings reminderSettings;
+
     @InjectMocks
     private SettingsController settingsController;
 
@@ -77,4 +84,19 @@ public class SettingsControllerTest {
         settingsController.goBack();
         verify(mainController, times(1)).showMainView();
     }
+
+    @Test
+    void testChangeReminderTimeSavesAndReschedules() {
+        HabitReminderScheduler reminderScheduler = mock(HabitReminderScheduler.class);
+        when(mainController.getReminderScheduler()).thenReturn(reminderScheduler);
+        when(reminderSettings.getReminderTime()).thenReturn(ReminderSettings.DEFAULT_REMINDER_TIME);
+        settingsController.reminderTimeBox = new ComboBox<>();
+        settingsController.reminderTimeBox.setValue(LocalTime.of(18, 0));
+
+        settingsController.changeReminderTime();
+
+        verify(reminderSettings).setReminderTime(LocalTime.of(18, 0));
+        verify(reminderScheduler).setReminderTime(LocalTime.of(18, 0));
+        verify(notifier).showMessage("Reminders will be shown at 18:00", "green");
+    }
 }
@@ -0,0 +1,63 @@
+package org.habittracker.controller;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ViewCacheTest {
+
+    private final List<String> parsed = new ArrayList<>();
+
+    private ViewCache newCache(int capacity) {
+        return new ViewCache(capacity, fxmlPath -> {
+            parsed.add(fxmlPath);
+            return new ViewCache.CachedView(null, new Object());
+        });
+    }
+
+    private ViewCache.CachedView show(ViewCache cache, String fxmlPath) throws IOException {
+        ViewCache.CachedView view = cache.getIfPresent(fxmlPath);
+        if (view == null) {
+            view = cache.load(fxmlPath);
+            cache.put(fxmlPath, view);
+        }
+        return view;
+    }
+
+    @Test
+    void testEachViewIsParsedOnce() throws IOException {
+        ViewCache cache = newCache(5);
+        ViewCache.CachedView first = show(cache, "/view/HabitListView.fxml");
+        show(cache, "/view/ReportView.fxml");
+
+        assertSame(first, show(cache, "/view/HabitListView.fxml"), "The controller is kept with the view");
+        assertEquals(List.of("/view/HabitListView.fxml", "/view/ReportView.fxml"), parsed);
+    }
+
+    @Test
+    void testLeastRecentlyShownViewIsEvicted() throws IOException {
+        ViewCache cache = newCache(2);
+        show(cache, "/view/HabitListView.fxml");
+        show(cache, "/view/ReportView.fxml");
+        show(cache, "/view/HabitListView.fxml");
+        show(cache, "/view/HelpView.fxml");
+
+        assertEquals(2, cache.size());
+        assertTrue(cache.contains("/view/HabitListView.fxml"));
+        assertFalse(cache.contains("/view/ReportView.fxml"));
+    }
+
+    @Test
+    void testPrewarmedViewDoesNotReplaceShownView() throws IOException {
+        ViewCache cache = newCache(5);
+        ViewCache.CachedView shown = show(cache, "/view/ProgressView.fxml");
+
+        cache.put("/view/ProgressView.fxml", cache.load("/view/ProgressView.fxml"));
+
+        assertSame(shown, cache.getIfPresent("/view/ProgressView.fxml"));
+    }
+}
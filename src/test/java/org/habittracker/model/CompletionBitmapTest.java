@@ -0,0 +1,153 @@
+package org.habittracker.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CompletionBitmapTest {
+
+    private static final LocalDate START = LocalDate.of(2024, 1, 1);
+
+    @Test
+    void testAddContainsRemove() {
+        CompletionBitmap bitmap = new CompletionBitmap();
+        assertTrue(bitmap.isEmpty());
+
+        assertTrue(bitmap.add(START));
+        assertFalse(bitmap.add(START), "Adding the same date twice should report no change");
+        assertTrue(bitmap.contains(START));
+        assertFalse(bitmap.contains(START.plusDays(1)));
+        assertEquals(1, bitmap.size());
+
+        assertTrue(bitmap.remove(START));
+        assertFalse(bitmap.remove(START));
+        assertFalse(bitmap.contains(START));
+        assertTrue(bitmap.isEmpty());
+    }
+
+    @Test
+    void testGrowsInBothDirections() {
+        CompletionBitmap bitmap = new CompletionBitmap();
+        bitmap.add(START);
+        bitmap.add(START.minusYears(2));
+        bitmap.add(START.plusYears(3));
+
+        assertEquals(List.of(START.minusYears(2), START, START.plusYears(3)), bitmap.toSortedList());
+        assertEquals(START.minusYears(2), bitmap.first());
+        assertEquals(START.plusYears(3), bitmap.last());
+    }
+
+    @Test
+    void testCountInRangeAcrossWordBoundaries() {
+        CompletionBitmap bitmap = new CompletionBitmap();
+        for (int i = 0; i < 200; i += 2) {
+            bitmap.add(START.plusDays(i));
+        }
+
+        assertEquals(100, bitmap.countInRange(START.minusDays(30), START.plusDays(300)));
+        assertEquals(50, bitmap.countInRange(START, START.plusDays(99)));
+        assertEquals(1, bitmap.countInRange(START.plusDays(64), START.plusDays(64)));
+        assertEquals(0, bitmap.countInRange(START.plusDays(65), START.plusDays(65)));
+        assertEquals(0, bitmap.countInRange(START.plusDays(10), START.plusDays(5)));
+    }
+
+    @Test
+    void testCountInRangeOnWeekdays() {
+        CompletionBitmap bitmap = new CompletionBitmap();
+        Random random = new Random(9);
+        List<LocalDate> dates = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            LocalDate date = START.plusDays(random.nextInt(700) - 200);
+            bitmap.add(date);
+            dates.add(date);
+        }
+
+        for (int mask = 0; mask < 128; mask++) {
+            LocalDate from = START.plusDays(random.nextInt(300) - 250);
+            LocalDate to = from.plusDays(random.nextInt(400));
+            int weekdays = mask;
+            long expected = dates.stream().distinct()
+                    .filter(date -> !date.isBefore(from) && !date.isAfter(to))
+                    .filter(date -> (weekdays & (1 << date.getDayOfWeek().ordinal())) != 0)
+                    .count();
+            assertEquals(expected, bitmap.countInRange(from, to, mask), "Mask " + mask);
+        }
+    }
+
+    @Test
+    void testRunEndingAtSpansSeveralWords() {
+        CompletionBitmap bitmap = new CompletionBitmap();
+        for (int i = 0; i < 150; i++) {
+            bitmap.add(START.plusDays(i));
+        }
+        bitmap.add(START.minusDays(5));
+
+        assertEquals(150, bitmap.runEndingAt(START.plusDays(149)));
+        assertEquals(70, bitmap.runEndingAt(START.plusDays(69)));
+        assertEquals(1, bitmap.runEndingAt(START.minusDays(5)));
+        assertEquals(0, bitmap.runEndingAt(START.minusDays(1)));
+    }
+
+    @Test
+    void testLongestRun() {
+        CompletionBitmap bitmap = new CompletionBitmap();
+        assertEquals(0, bitmap.longestRun());
+
+        for (int i = 0; i < 10; i++) {
+            bitmap.add(START.plusDays(i));
+        }
+        for (int i = 20; i < 150; i++) {
+            bitmap.add(START.plusDays(i));
+        }
+        assertEquals(130, bitmap.longestRun());
+    }
+
+    @Test
+    void testCopyIsIndependent() {
+        CompletionBitmap original = new CompletionBitmap();
+        original.add(START);
+        CompletionBitmap copy = new CompletionBitmap(original);
+        copy.add(START.plusDays(1));
+
+        assertEquals(1, original.size());
+        assertEquals(2, copy.size());
+        assertNotEquals(original, copy);
+    }
+
+    @Test
+    void testMatchesSortedSetForRandomDates() {
+        Random random = new Random(42);
+        CompletionBitmap bitmap = new CompletionBitmap();
+        TreeSet<LocalDate> expected = new TreeSet<>();
+
+        for (int i = 0; i < 2000; i++) {
+            LocalDate date = START.plusDays(random.nextInt(1500) - 500);
+            if (random.nextInt(4) == 0) {
+                assertEquals(expected.remove(date), bitmap.remove(date));
+            } else {
+                assertEquals(expected.add(date), bitmap.add(date));
+            }
+        }
+
+        assertEquals(new ArrayList<>(expected), bitmap.toSortedList());
+        assertEquals(expected.size(), bitmap.size());
+        assertEquals(expected.first(), bitmap.first());
+        assertEquals(expected.last(), bitmap.last());
+        for (int i = 0; i < 100; i++) {
+            LocalDate date = START.plusDays(random.nextInt(1700) - 600);
+            assertEquals(expected.lower(date), bitmap.previous(date));
+            assertEquals(expected.higher(date), bitmap.next(date));
+        }
+        for (int i = 0; i < 100; i++) {
+            LocalDate from = START.plusDays(random.nextInt(1500) - 500);
+            LocalDate to = from.plusDays(random.nextInt(200));
+            assertEquals(expected.subSet(from, true, to, true).size(), bitmap.countInRange(from, to));
+        }
+    }
+}
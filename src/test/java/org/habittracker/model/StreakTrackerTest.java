@@ -0,0 +1,159 @@
+package org.habittracker.model;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StreakTrackerTest {
+
+    private static final LocalDate START = LocalDate.of(2024, 1, 1);
+
+    static Stream<Arguments> frequenciesAndSeeds() {
+        List<Arguments> arguments = new ArrayList<>();
+        for (Habit.Frequency frequency : Habit.Frequency.values()) {
+            for (long seed = 1; seed <= 25; seed++) {
+                arguments.add(Arguments.of(frequency, seed));
+            }
+        }
+        return arguments.stream();
+    }
+
+    /**
+     * Applies random inserts and removals and checks the tracker against a full recalculation after every step.
+     */
+    @ParameterizedTest
+    @MethodSource("frequenciesAndSeeds")
+    void testMatchesFullRecalculation(Habit.Frequency frequency, long seed) {
+        Random random = new Random(seed);
+        CompletionBitmap completions = new CompletionBitmap();
+        StreakTracker tracker = new StreakTracker(completions, frequency);
+        List<LocalDate> candidates = candidateDates(frequency, random);
+
+        for (int step = 0; step < 300; step++) {
+            LocalDate date = candidates.get(random.nextInt(candidates.size()));
+            if (random.nextInt(3) == 0) {
+                if (completions.remove(date)) {
+                    tracker.remove(date);
+                }
+            } else if (completions.add(date)) {
+                tracker.add(date);
+            }
+
+            int[] expected = recalculate(completions, frequency);
+            assertEquals(expected[0], tracker.getCurrentStreak(), "Current streak after step " + step);
+            assertEquals(expected[1], tracker.getLongestStreak(), "Longest streak after step " + step);
+        }
+
+        StreakTracker rebuilt = new StreakTracker(completions, frequency);
+        assertEquals(tracker.getCurrentStreak(), rebuilt.getCurrentStreak());
+        assertEquals(tracker.getLongestStreak(), rebuilt.getLongestStreak());
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = Habit.Frequency.class, names = {"DAILY", "WEEKLY", "MONTHLY"})
+    void testInsertIntoGapSplitsAndRemoveMerges(Habit.Frequency frequency) {
+        CompletionBitmap completions = new CompletionBitmap();
+        StreakTracker tracker = new StreakTracker(completions, frequency);
+        LocalDate date = START;
+        for (int i = 0; i < 6; i++) {
+            completions.add(date);
+            tracker.add(date);
+            date = step(frequency, date);
+        }
+        assertEquals(6, tracker.getLongestStreak());
+
+        if (frequency != Habit.Frequency.DAILY) {
+            // A completion between two linked dates breaks the chain, as the sorted walk would
+            LocalDate between = step(frequency, START).plusDays(1);
+            completions.add(between);
+            tracker.add(between);
+            assertArrayEquals(recalculate(completions, frequency),
+                    new int[]{tracker.getCurrentStreak(), tracker.getLongestStreak()});
+
+            completions.remove(between);
+            tracker.remove(between);
+            assertEquals(6, tracker.getLongestStreak());
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(Habit.Frequency.class)
+    void testHabitStreakMatchesFullRecalculation(Habit.Frequency frequency) {
+        Random random = new Random(frequency.ordinal());
+        Habit habit = new Habit("Habit", frequency);
+        habit.setCreationDate(START);
+        List<LocalDate> candidates = candidateDates(frequency, random);
+        int best = 0;
+
+        for (int i = 0; i < 150; i++) {
+            LocalDate date = candidates.get(random.nextInt(candidates.size()));
+            if (date.isAfter(LocalDate.now())) {
+                continue;
+            }
+            habit.markAsCompletedOnDate(date);
+
+            int[] expected = recalculate(habit.getCompletions(), frequency);
+            best = Math.max(best, expected[1]);
+            assertEquals(expected[0], habit.getStreakCounter());
+            assertEquals(best, habit.getBestStreak());
+        }
+    }
+
+    private List<LocalDate> candidateDates(Habit.Frequency frequency, Random random) {
+        List<LocalDate> dates = new ArrayList<>();
+        LocalDate date = START;
+        for (int i = 0; i < 80; i++) {
+            dates.add(date);
+            // Mostly on-schedule dates, with a few off-schedule ones to break chains
+            dates.add(date.plusDays(1 + random.nextInt(3)));
+            date = step(frequency, date);
+        }
+        if (frequency == Habit.Frequency.MONTHLY) {
+            dates.add(LocalDate.of(2024, 1, 30));
+            dates.add(LocalDate.of(2024, 1, 31));
+            dates.add(LocalDate.of(2024, 2, 29));
+        }
+        return dates;
+    }
+
+    private LocalDate step(Habit.Frequency frequency, LocalDate date) {
+        return switch (frequency) {
+            case WEEKLY -> date.plusWeeks(1);
+            case MONTHLY -> date.plusMonths(1);
+            default -> date.plusDays(1);
+        };
+    }
+
+    // The sorted walk Habit used before the tracker, kept here as the reference
+    private int[] recalculate(CompletionBitmap completions, Habit.Frequency frequency) {
+        int currentStreak = 0;
+        int longestStreak = 0;
+        LocalDate lastDate = null;
+
+        for (LocalDate date : completions.toSortedList()) {
+            if (lastDate != null) {
+                boolean isConsecutive = switch (frequency) {
+                    case DAILY -> date.equals(lastDate.plusDays(1));
+                    case WEEKLY -> date.equals(lastDate.plusWeeks(1));
+                    case MONTHLY -> date.equals(lastDate.plusMonths(1));
+                    default -> false;
+                };
+                currentStreak = isConsecutive ? currentStreak + 1 : 1;
+            } else {
+                currentStreak = 1;
+            }
+            longestStreak = Math.max(longestStreak, currentStreak);
+            lastDate = date;
+        }
+        return new int[]{currentStreak, longestStreak};
+    }
+}
@@ -0,0 +1,175 @@
+package org.habittracker.repository;
+
+import org.habittracker.model.Habit;
+import org.habittracker.model.HabitSummary;
+import org.junit.jupiter.api.*;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class CachedHabitRepositoryTest {
+
+    private CachedHabitRepository cachedRepository;
+
+    @BeforeAll
+    void init() {
+        HabitRepository.initialize("habittracker-test");
+    }
+
+    @BeforeEach
+    void setUp() {
+        cachedRepository = new CachedHabitRepository();
+        cachedRepository.clearAll();
+        cachedRepository.invalidate();
+    }
+
+    @AfterAll
+    void tearDown() {
+        cachedRepository.clearAll();
+    }
+
+    @Test
+    void testRepeatedReadsDoNotQueryTheDatabase() {
+        cachedRepository.addHabit(new Habit("Reading", Habit.Frequency.DAILY));
+
+        cachedRepository.getAllHabits();
+        assertEquals(1, cachedRepository.getCacheMisses(), "First read should load from the database");
+
+        cachedRepository.getStatistics().clear();
+        for (int i = 0; i < 10; i++) {
+            cachedRepository.getAllHabits(HabitRepository.LoadProfile.SUMMARY);
+            cachedRepository.findHabitByName("Reading");
+            cachedRepository.habitExistsByName("Reading");
+            cachedRepository.getHabitCount();
+            cachedRepository.findSummaries();
+        }
+
+        assertEquals(0, cachedRepository.getStatistics().getPrepareStatementCount());
+        assertEquals(1, cachedRepository.getCacheMisses());
+        assertEquals(50, cachedRepository.getCacheHits(), "Each read should count exactly one hit");
+    }
+
+    @Test
+    void testWritesAreAppliedToTheCache() {
+        Habit added = cachedRepository.addHabit(new Habit("Running", Habit.Frequency.DAILY));
+        assertEquals(1, cachedRepository.getHabitCount());
+
+        Habit toRename = cachedRepository.findHabitByName("Running");
+        toRename.setName("Jogging");
+        cachedRepository.updateHabit(toRename);
+
+        assertNull(cachedRepository.findHabitByName("Running"), "Old name should be removed from the index");
+        assertEquals(added.getId(), cachedRepository.findHabitByName("Jogging").getId());
+        assertEquals("Jogging", cachedRepository.getAllHabits().get(0).getName());
+
+        cachedRepository.deleteHabit(toRename);
+        assertEquals(0, cachedRepository.getHabitCount());
+        assertFalse(cachedRepository.habitExistsByName("Jogging"));
+
+        // A fresh load from the database should agree with the cache
+        cachedRepository.invalidate();
+        assertEquals(0, cachedRepository.getHabitCount());
+    }
+
+    @Test
+    void testNameLookupsFollowRenames() {
+        cachedRepository.addHabit(new Habit("Reading", Habit.Frequency.DAILY));
+        cachedRepository.addHabit(new Habit("Running", Habit.Frequency.DAILY));
+
+        assertTrue(cachedRepository.habitExistsByName("READING"));
+        assertEquals(2, cachedRepository.findSummariesByPrefix("r").size());
+
+        Habit reading = cachedRepository.findHabitByName("reading");
+        reading.setName("Writing");
+        cachedRepository.updateHabit(reading);
+
+        assertFalse(cachedRepository.habitExistsByName("Reading"));
+        assertEquals(List.of("Running"), cachedRepository.findSummariesByPrefix("R").stream().map(HabitSummary::name).toList());
+        assertEquals(reading.getId(), cachedRepository.findHabitByName("wRiTiNg").getId());
+    }
+
+    @Test
+    void testSnapshotsAreImmutableAndFindersReturnCopies() {
+        Habit stretching = new Habit("Stretching", Habit.Frequency.DAILY);
+        stretching.setCreationDate(LocalDate.now().minusDays(3));
+        stretching.markAsCompletedOnDate(LocalDate.now().minusDays(1));
+        cachedRepository.addHabit(stretching);
+        List<Habit> snapshot = cachedRepository.getAllHabits();
+
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.add(new Habit()));
+        assertSame(snapshot, cachedRepository.getAllHabits(), "Repeated reads should share one snapshot");
+        snapshot.get(0).markAsCompleted();
+        assertFalse(cachedRepository.findHabitByName("Stretching").isCompletedToday(),
+                "Changes to a listed habit should not reach the cache without a write");
+        assertTrue(cachedRepository.getAllHabits(HabitRepository.LoadProfile.SUMMARY).get(0).getCompletions().isEmpty(),
+                "Lighter profiles should not carry the completions");
+
+        Habit copy = cachedRepository.findHabitByName("Stretching");
+        copy.setName("Edited without saving");
+        assertNotNull(cachedRepository.findHabitByName("Stretching"), "Unsaved edits should not reach the cache");
+    }
+
+    @Test
+    void testBatchCompletionRefreshesTheCache() {
+        Habit habit = new Habit("Meditation", Habit.Frequency.DAILY);
+        habit.setCreationDate(LocalDate.now().minusDays(2));
+        Long id = cachedRepository.addHabit(habit).getId();
+        List<HabitSummary> before = cachedRepository.findSummaries();
+        assertFalse(before.get(0).completedToday());
+        long misses = cachedRepository.getCacheMisses();
+
+        cachedRepository.markCompletedBatch(Map.of(id, List.of(LocalDate.now())));
+
+        assertTrue(cachedRepository.findSummaries().get(0).completedToday());
+        assertEquals(1, cachedRepository.findHabitById(id).getCompletions().size());
+        assertEquals(1, cachedRepository.findHabitById(id).getStreakCounter());
+        assertEquals(misses, cachedRepository.getCacheMisses(), "The batch should be applied to the cache, not reloaded");
+    }
+
+    @Test
+    void testListenersSeeTheCommittedHabit() {
+        Habit habit = new Habit("Journaling", Habit.Frequency.DAILY);
+        habit.setCreationDate(LocalDate.now().minusDays(2));
+        Long id = cachedRepository.addHabit(habit).getId();
+        cachedRepository.getHabitCount(); // Fill the cache
+
+        List<LocalDate> seen = new ArrayList<>();
+        HabitChangeListener listener = change -> seen.add(cachedRepository.findHabitById(change.habitId()).getLastCompletedDate());
+        cachedRepository.addChangeListener(listener);
+        try {
+            Habit edited = cachedRepository.findHabitById(id);
+            edited.markAsCompleted();
+            cachedRepository.updateHabit(edited);
+        } finally {
+            cachedRepository.removeChangeListener(listener);
+        }
+
+        assertEquals(List.of(LocalDate.now()), seen, "Listeners should run after the cache is updated");
+    }
+
+    @Test
+    void testUpdatingALightHabitKeepsItsCompletions() {
+        Habit habit = new Habit("Walking", Habit.Frequency.DAILY);
+        habit.setCreationDate(LocalDate.now().minusDays(3));
+        habit.markAsCompletedOnDate(LocalDate.now().minusDays(2));
+        cachedRepository.addHabit(habit);
+
+        Habit summary = new Habit(cachedRepository.getAllHabits(HabitRepository.LoadProfile.SUMMARY).get(0));
+        assertFalse(summary.areCompletionsLoaded());
+        summary.setName("Hiking");
+        summary.markAsCompletedOnDate(LocalDate.now().minusDays(1));
+        long misses = cachedRepository.getCacheMisses();
+        cachedRepository.updateHabit(summary);
+
+        List<LocalDate> expected = List.of(LocalDate.now().minusDays(2), LocalDate.now().minusDays(1));
+        assertEquals(expected, cachedRepository.findHabitByName("Hiking").getCompletions().toSortedList(),
+                "New dates should be added without erasing the stored ones");
+        assertEquals(misses, cachedRepository.getCacheMisses(), "The cached history should be kept, not reloaded");
+        assertEquals(expected, new HabitRepository().findHabitByName("Hiking").getCompletions().toSortedList());
+    }
+}
@@ -0,0 +1,111 @@
+package org.habittracker.repository;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HabitNameIndexTest {
+
+    private static final List<String> NAMES = List.of("Reading", "running", "Rowing", "Meditation", "Read News");
+
+    private HabitNameIndex<String> index(List<String> names) {
+        return HabitNameIndex.build(names, Function.identity());
+    }
+
+    @Test
+    void testFindIgnoresCase() {
+        HabitNameIndex<String> index = index(NAMES);
+
+        assertEquals("Reading", index.find("reading"));
+        assertEquals("running", index.find("RUNNING"));
+        assertNull(index.find("Read"));
+        assertNull(index.find(null));
+        assertTrue(index.contains("meditation"));
+        assertFalse(index.contains("Yoga"));
+    }
+
+    @Test
+    void testFindPrefersExactCase() {
+        HabitNameIndex<String> index = index(List.of("yoga", "Yoga", "YOGA"));
+
+        assertEquals("Yoga", index.find("Yoga"));
+        assertEquals("YOGA", index.find("YOGA"));
+        assertEquals("yoga", index.find("yOgA"), "Without an exact match the first in list order wins");
+    }
+
+    @Test
+    void testPrefixSearchKeepsListOrder() {
+        HabitNameIndex<String> index = index(NAMES);
+
+        assertEquals(List.of("Reading", "running", "Rowing", "Read News"), index.findByPrefix("r"));
+        assertEquals(List.of("Reading", "Read News"), index.findByPrefix("READ"));
+        assertEquals(NAMES, index.findByPrefix(""));
+        assertTrue(index.findByPrefix("z").isEmpty());
+    }
+
+    @Test
+    void testPrefixSearchMatchesLinearScan() {
+        Random random = new Random(42);
+        List<String> names = randomNames(random, 2_000);
+        HabitNameIndex<String> index = index(names);
+
+        for (int i = 0; i < 200; i++) {
+            String prefix = names.get(random.nextInt(names.size())).substring(0, 1 + random.nextInt(3));
+            List<String> expected = new ArrayList<>();
+            for (String name : names) {
+                if (name.toLowerCase().startsWith(prefix.toLowerCase())) {
+                    expected.add(name);
+                }
+            }
+            assertEquals(expected, index.findByPrefix(prefix), "Prefix " + prefix);
+        }
+    }
+
+    @Test
+    void testPrefixSearchOverTenThousandHabitsFindsBlockEdges() {
+        Random random = new Random(7);
+        List<String> names = randomNames(random, 10_000);
+        HabitNameIndex<String> index = index(names);
+        List<String> sortedKeys = new ArrayList<>();
+        for (String name : names) {
+            sortedKeys.add(name.toLowerCase());
+        }
+        Collections.sort(sortedKeys);
+        String firstKey = sortedKeys.get(0);
+        String lastKey = sortedKeys.get(sortedKeys.size() - 1);
+
+        // Blocks at both ends of the sorted keys, a whole name as a prefix, and prefixes outside every block
+        for (String prefix : List.of(firstKey.substring(0, 2), lastKey.substring(0, 2), firstKey, lastKey.toUpperCase(),
+                names.get(5_000), "A", "zzzzzzzzzzzzzzzzzz", " ", "{")) {
+            List<String> expected = new ArrayList<>();
+            for (String name : names) {
+                if (name.toLowerCase().startsWith(prefix.toLowerCase())) {
+                    expected.add(name);
+                }
+            }
+            assertEquals(expected, index.findByPrefix(prefix), "Prefix " + prefix);
+        }
+        assertEquals(List.of(names.get(5_000)), index.findByPrefix(names.get(5_000)),
+                "Names end in a unique number, so a whole name matches only itself");
+    }
+
+    private List<String> randomNames(Random random, int count) {
+        List<String> names = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            StringBuilder name = new StringBuilder();
+            int length = 3 + random.nextInt(10);
+            for (int j = 0; j < length; j++) {
+                char letter = (char) ('a' + random.nextInt(26));
+                name.append(j == 0 && random.nextBoolean() ? Character.toUpperCase(letter) : letter);
+            }
+            names.add(name.append(' ').append(i).toString());
+        }
+        return names;
+    }
+}
@@ -1,12 +1,16 @@
 package org.habittracker.repository;
 
 import org.habittracker.model.Habit;
+import org.habittracker.model.HabitSummary;
 import org.habittracker.util.JavaFxInitializer;
 import org.junit.jupiter.api.*;
 
 import javax.persistence.EntityManager;
 import javax.persistence.EntityManagerFactory;
 import javax.persistence.Persistence;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -116,4 +120,140 @@ public class HabitRepositoryIntegrationTest {
         // Cleanup
         habitRepository.deleteHabit(foundHabit);
     }
+
+    @Test
+    void testLoadProfilesStatementCounts() {
+        habitRepository.clearAll();
+        for (int i = 0; i < 150; i++) {
+            Habit habit = new Habit("Habit " + i, Habit.Frequency.DAILY);
+            habit.setCreationDate(LocalDate.now().minusDays(3));
+            habit.markAsCompletedOnDate(LocalDate.now().minusDays(1));
+            habit.addMilestone(1);
+            habitRepository.addHabit(habit);
+        }
+        Habit custom = new Habit("Custom", Habit.Frequency.CUSTOM, List.of(DayOfWeek.MONDAY, DayOfWeek.FRIDAY));
+        habitRepository.addHabit(custom);
+
+        assertEquals(1, countStatements(HabitRepository.LoadProfile.SUMMARY), "Summary should be one scalar query");
+        assertEquals(2, countStatements(HabitRepository.LoadProfile.SCHEDULE), "Schedule should add one query for custom days");
+        assertEquals(3, countStatements(HabitRepository.LoadProfile.STATS), "Stats should add one query for custom days and one for completions");
+        // 151 habits: one habit query, two batches for each collection, one completion query
+        assertEquals(6, countStatements(HabitRepository.LoadProfile.DETAIL), "Detail should batch-fetch collections");
+
+        habitRepository.clearAll();
+    }
+
+    @Test
+    void testLoadProfilesContents() {
+        habitRepository.clearAll();
+        Habit habit = new Habit("Custom", Habit.Frequency.CUSTOM, List.of(DayOfWeek.MONDAY, DayOfWeek.FRIDAY));
+        habit.setCreationDate(LocalDate.now().minusDays(3));
+        habit.markAsCompletedOnDate(LocalDate.now().minusDays(1));
+        habit.addMilestone(1);
+        habitRepository.addHabit(habit);
+
+        HabitRepository database = new HabitRepository();
+        Habit summary = database.getAllHabits(HabitRepository.LoadProfile.SUMMARY).get(0);
+        assertEquals("Custom", summary.getName());
+        assertEquals(1, summary.getStreakCounter());
+        assertTrue(summary.getCompletions().isEmpty(), "Summary should not load completions");
+
+        Habit stats = database.getAllHabits(HabitRepository.LoadProfile.STATS).get(0);
+        assertEquals(List.of(DayOfWeek.MONDAY, DayOfWeek.FRIDAY), stats.getCustomDays());
+        assertTrue(stats.getCompletions().contains(LocalDate.now().minusDays(1)));
+        assertFalse(stats.isMilestoneAchieved(1), "Stats should not load milestones");
+
+        Habit detail = database.getAllHabits(HabitRepository.LoadProfile.DETAIL).get(0);
+        assertTrue(detail.isMilestoneAchieved(1));
+        assertEquals(1, detail.getCompletions().size());
+
+        habitRepository.clearAll();
+    }
+
+    @Test
+    void testFindSummaries() {
+        habitRepository.clearAll();
+        Habit done = new Habit("Done", Habit.Frequency.DAILY);
+        done.setCreationDate(LocalDate.now().minusDays(1));
+        done.markAsCompletedOnDate(LocalDate.now().minusDays(1));
+        done.markAsCompleted();
+        habitRepository.addHabit(done);
+        Habit pending = new Habit("Pending", Habit.Frequency.WEEKLY);
+        pending.setCreationDate(LocalDate.now().minusDays(1));
+        pending.markAsCompletedOnDate(LocalDate.now().minusDays(1));
+        habitRepository.addHabit(pending);
+
+        HabitRepository database = new HabitRepository();
+        database.getStatistics().clear();
+        List<HabitSummary> summaries = database.findSummaries();
+        assertEquals(1, database.getStatistics().getPrepareStatementCount());
+
+        assertEquals(2, summaries.size());
+        HabitSummary doneSummary = summaries.get(0);
+        assertEquals("Done", doneSummary.name());
+        assertEquals(Habit.Frequency.DAILY, doneSummary.frequency());
+        assertEquals(2, doneSummary.streakCounter());
+        assertTrue(doneSummary.completedToday());
+        assertFalse(summaries.get(1).completedToday());
+
+        habitRepository.clearAll();
+    }
+
+    @Test
+    void testForEachHabitVisitsEveryHabitAcrossChunks() {
+        int count = HabitRepository.CURSOR_CHUNK_SIZE + 3;
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        for (int i = 0; i < count; i++) {
+            Habit habit = new Habit("Habit " + i, Habit.Frequency.DAILY);
+            habit.setCreationDate(yesterday);
+            if (i % 100 == 0) {
+                habit.markAsCompletedOnDate(yesterday);
+            }
+            habitRepository.addHabit(habit);
+        }
+
+        List<Habit> visited = new ArrayList<>();
+        new HabitRepository().forEachHabit(visited::add); // Bypass the cache to read through the cursor
+        assertEquals(count, visited.size());
+        for (int i = 1; i < visited.size(); i++) {
+            assertTrue(visited.get(i).getId() > visited.get(i - 1).getId(), "Habits should be visited in id order");
+        }
+        assertEquals(6, visited.stream().filter(habit -> habit.getCompletions().contains(yesterday)).count());
+
+        habitRepository.clearAll();
+    }
+
+    @Test
+    void testAddHabitsStoresEveryCollection() {
+        Habit existing = habitRepository.addHabit(new Habit("Existing", Habit.Frequency.DAILY));
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        Habit custom = new Habit("Custom", Habit.Frequency.CUSTOM, List.of(DayOfWeek.TUESDAY, DayOfWeek.SATURDAY));
+        custom.setId(existing.getId()); // Ids from a backup must not overwrite existing rows
+        custom.setCreationDate(yesterday);
+        custom.addMilestone(7);
+        custom.markAsCompletedOnDate(yesterday);
+        Habit plain = new Habit("Plain", Habit.Frequency.WEEKLY);
+
+        List<Habit> added = habitRepository.addHabits(new ArrayList<>(List.of(custom, plain)));
+        assertNotEquals(existing.getId(), added.get(0).getId());
+
+        HabitRepository database = new HabitRepository();
+        assertEquals(3, database.getHabitCount());
+        Habit stored = database.findHabitByName("Custom");
+        assertEquals(List.of(DayOfWeek.TUESDAY, DayOfWeek.SATURDAY), stored.getCustomDays());
+        assertTrue(stored.isMilestoneAchieved(7));
+        assertTrue(stored.getCompletions().contains(yesterday));
+        assertEquals(yesterday, stored.getCreationDate());
+        assertEquals(Habit.Frequency.WEEKLY, database.findHabitByName("Plain").getFrequency());
+        assertEquals("Existing", database.findHabitById(existing.getId()).getName());
+
+        habitRepository.clearAll();
+    }
+
+    private long countStatements(HabitRepository.LoadProfile profile) {
+        HabitRepository database = new HabitRepository(); // Bypass the cache to measure the queries themselves
+        database.getStatistics().clear();
+        database.getAllHabits(profile);
+        return database.getStatistics().getPrepareStatementCount();
+    }
 }
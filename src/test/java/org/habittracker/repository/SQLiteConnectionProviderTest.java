@@ -0,0 +1,206 @@
+package org.habittracker.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SQLiteConnectionProviderTest {
+
+    @TempDir
+    Path tempDir;
+
+    private SQLiteConnectionProvider provider;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        provider = new SQLiteConnectionProvider();
+        provider.configure(Map.of(
+                "javax.persistence.jdbc.url", "jdbc:sqlite:" + tempDir.resolve("habits.db"),
+                SQLiteConnectionProvider.READER_POOL_SIZE, "2",
+                SQLiteConnectionProvider.ACQUIRE_TIMEOUT, "2000"));
+
+        Connection connection = provider.getConnection();
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate("CREATE TABLE habits (id INTEGER PRIMARY KEY, name TEXT)");
+            statement.executeUpdate("INSERT INTO habits (name) VALUES ('Read')");
+        } finally {
+            provider.closeConnection(connection);
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        provider.stop();
+    }
+
+    private static String queryString(Connection connection, String sql) throws SQLException {
+        try (Statement statement = connection.createStatement(); ResultSet results = statement.executeQuery(sql)) {
+            return results.getString(1);
+        }
+    }
+
+    private static int countHabits(Connection connection) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT COUNT(*) FROM habits");
+             ResultSet results = statement.executeQuery()) {
+            return results.getInt(1);
+        }
+    }
+
+    private static void insertHabit(Connection connection, String name) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("INSERT INTO habits (name) VALUES (?)")) {
+            statement.setString(1, name);
+            statement.executeUpdate();
+        }
+    }
+
+    @Test
+    void testConnectionsUseWalAndTunedPragmas() throws SQLException {
+        Connection connection = provider.getConnection();
+        try {
+            assertEquals("wal", queryString(connection, "PRAGMA journal_mode"));
+            assertEquals("1", queryString(connection, "PRAGMA synchronous"), "NORMAL");
+            assertEquals("-8192", queryString(connection, "PRAGMA cache_size"));
+            assertEquals("2", queryString(connection, "PRAGMA temp_store"), "MEMORY");
+        } finally {
+            provider.closeConnection(connection);
+        }
+    }
+
+    @Test
+    void testReadsDoNotWaitForOpenWriteTransaction() throws Exception {
+        Connection writer = provider.getConnection();
+        writer.setAutoCommit(false);
+        insertHabit(writer, "Walk");
+
+        CompletableFuture<Integer> read = CompletableFuture.supplyAsync(() -> {
+            try {
+                Connection reader = provider.getConnection();
+                try {
+                    return countHabits(reader);
+                } finally {
+                    provider.closeConnection(reader);
+                }
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertEquals(1, read.get(1, TimeUnit.SECONDS), "The reader sees the last committed data");
+
+        writer.commit();
+        writer.setAutoCommit(true);
+        provider.closeConnection(writer);
+
+        Connection reader = provider.getConnection();
+        try {
+            assertEquals(2, countHabits(reader));
+        } finally {
+            provider.closeConnection(reader);
+        }
+    }
+
+    @Test
+    void testWriteTransactionsQueueForTheWriter() throws Exception {
+        Connection first = provider.getConnection();
+        first.setAutoCommit(false);
+        insertHabit(first, "Walk");
+
+        CompletableFuture<Void> second = CompletableFuture.runAsync(() -> {
+            try {
+                Connection connection = provider.getConnection();
+                connection.setAutoCommit(false);
+                insertHabit(connection, "Stretch");
+                connection.commit();
+                provider.closeConnection(connection);
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        Thread.sleep(200);
+        assertFalse(second.isDone(), "The second transaction waits for the first to release the writer");
+
+        first.commit();
+        provider.closeConnection(first);
+        second.get(2, TimeUnit.SECONDS);
+
+        Connection reader = provider.getConnection();
+        try {
+            assertEquals(3, countHabits(reader));
+        } finally {
+            provider.closeConnection(reader);
+        }
+    }
+
+    @Test
+    void testPreparedStatementsAreReusedAndSeeLaterCommits() throws SQLException {
+        Connection reader = provider.getConnection();
+        PreparedStatement first = reader.prepareStatement("SELECT name FROM habits ORDER BY id");
+        first.executeQuery().next();
+        PreparedStatement cached = first.unwrap(PreparedStatement.class);
+        first.close();
+        provider.closeConnection(reader);
+
+        Connection writer = provider.getConnection();
+        writer.setAutoCommit(false);
+        insertHabit(writer, "Walk");
+        writer.commit();
+        provider.closeConnection(writer);
+
+        reader = provider.getConnection();
+        try {
+            assertEquals(2, countHabits(reader), "A statement returned to the cache keeps no stale snapshot");
+            PreparedStatement again = reader.prepareStatement("SELECT name FROM habits ORDER BY id");
+            assertSame(cached, again.unwrap(PreparedStatement.class));
+            again.close();
+        } finally {
+            provider.closeConnection(reader);
+        }
+        assertTrue(provider.getOpenedReaderCount() <= 2);
+    }
+
+    @Test
+    void testReadOnlyTransactionsStayOnAReaderAndSeeOneSnapshot() throws Exception {
+        Connection reader = provider.getConnection();
+        SQLiteConnectionProvider.beginReadOnly(() -> {
+            try {
+                reader.setAutoCommit(false);
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertEquals(1, countHabits(reader));
+
+        CompletableFuture<Void> write = CompletableFuture.runAsync(() -> {
+            try {
+                Connection writer = provider.getConnection();
+                writer.setAutoCommit(false);
+                insertHabit(writer, "Walk");
+                writer.commit();
+                provider.closeConnection(writer);
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        write.get(1, TimeUnit.SECONDS); // Does not wait for the read-only transaction
+
+        try {
+            assertEquals(1, countHabits(reader), "The transaction keeps reading its first snapshot");
+            reader.commit();
+            assertEquals(2, countHabits(reader));
+        } finally {
+            provider.closeConnection(reader);
+        }
+    }
+}
@@ -5,12 +5,19 @@ import org.habittracker.model.Habit;
 import org.habittracker.repository.HabitRepository;
 import org.habittracker.util.JavaFxInitializer;
 import org.habittracker.util.Notifier;
+import org.habittracker.util.ReminderSettings;
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
 import org.mockito.Mockito;
 
+import java.time.Clock;
+import java.time.DayOfWeek;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
 import java.time.temporal.ChronoUnit;
 import java.util.Collections;
 import java.util.List;
@@ -29,7 +36,7 @@ public class HabitReminderSchedulerTest {
         JavaFxInitializer.initToolkit();
         mockNotifier = mock(Notifier.class);
         mockHabitRepository = mock(HabitRepository.class);
-        scheduler = new HabitReminderScheduler(mockNotifier, mockHabitRepository);
+        scheduler = new HabitReminderScheduler(mockNotifier, mockHabitRepository, ReminderSettings.DEFAULT_REMINDER_TIME);
     }
 
     @AfterEach
@@ -57,7 +64,7 @@ public class HabitReminderSchedulerTest {
 
     @Test
     void testCheckUpcomingReminders_NoHabits() {
-        when(mockHabitRepository.getAllHabits()).thenReturn(Collections.emptyList());
+        when(mockHabitRepository.getAllHabits(HabitRepository.LoadProfile.SUMMARY)).thenReturn(Collections.emptyList());
         scheduler.start();
 
         scheduler.checkUpcomingReminders(); // Manually invoke the method
@@ -71,7 +78,8 @@ public class HabitReminderSchedulerTest {
             "2024-11-17, WEEKLY, 2024-11-15, false",
             "2024-11-17, MONTHLY, 2024-10-17, true",
             "2024-11-17, MONTHLY, 2024-09-17, false",
-            "2024-11-17, DAILY, 2024-11-16, false"
+            "2024-11-17, DAILY, 2024-11-16, true",
+            "2024-11-17, DAILY, 2024-11-17, false"
     })
     void testIsReminderDue(String currentDate, String frequency, String dueDate, boolean expected) {
         Habit.Frequency habitFrequency = Habit.Frequency.valueOf(frequency);
@@ -84,8 +92,123 @@ public class HabitReminderSchedulerTest {
 
     @Test
     void testIsReminderDue_UnsupportedFrequency() {
-        Habit habit = new Habit("Test Habit", Habit.Frequency.DAILY); // Not supported in isReminderDue
+        Habit habit = new Habit("Test Habit", Habit.Frequency.DAILY); // Created today, so first due tomorrow
         boolean result = scheduler.isReminderDue(habit, LocalDate.now());
         assertFalse(result); // Should return false
     }
+
+    private static final ZoneId LONDON = ZoneId.of("Europe/London");
+
+    private static Habit habit(long id, Habit.Frequency frequency, LocalDate lastCompleted, boolean reminderEligible) {
+        return new Habit(id, "Habit " + id, "#000000", false, LocalDate.of(2024, 1, 1), lastCompleted,
+                frequency, 0, 0, reminderEligible);
+    }
+
+    private HabitReminderScheduler schedulerAt(LocalDateTime now, List<Habit> habits) {
+        return schedulerAt(now, habits, ReminderSettings.DEFAULT_REMINDER_TIME);
+    }
+
+    private HabitReminderScheduler schedulerAt(LocalDateTime now, List<Habit> habits, LocalTime reminderTime) {
+        scheduler.stop();
+        Clock clock = Clock.fixed(now.atZone(LONDON).toInstant(), LONDON);
+        when(mockHabitRepository.getAllHabits(HabitRepository.LoadProfile.SCHEDULE)).thenReturn(habits);
+        for (Habit habit : habits) {
+            when(mockHabitRepository.findHabitById(habit.getId())).thenReturn(habit);
+        }
+        scheduler = new HabitReminderScheduler(mockNotifier, mockHabitRepository, clock, reminderTime);
+        return scheduler;
+    }
+
+    @Test
+    void testNextDueDateForEveryFrequency() {
+        LocalDate from = LocalDate.of(2024, 11, 18); // A Monday
+        Habit custom = habit(1, Habit.Frequency.CUSTOM, LocalDate.of(2024, 11, 18), true);
+        custom.setCustomDays(List.of(DayOfWeek.MONDAY, DayOfWeek.FRIDAY));
+
+        assertEquals(from, scheduler.nextDueDate(habit(2, Habit.Frequency.DAILY, from.minusDays(1), true), from));
+        assertEquals(LocalDate.of(2024, 11, 22), scheduler.nextDueDate(custom, from));
+        assertEquals(LocalDate.of(2024, 11, 20),
+                scheduler.nextDueDate(habit(3, Habit.Frequency.WEEKLY, LocalDate.of(2024, 11, 6), true), from));
+        assertEquals(LocalDate.of(2024, 12, 10),
+                scheduler.nextDueDate(habit(4, Habit.Frequency.MONTHLY, LocalDate.of(2024, 11, 10), true), from));
+    }
+
+    @Test
+    void testNextDueDateRollsAMissedMonthForward() {
+        LocalDate from = LocalDate.of(2024, 11, 18);
+
+        assertEquals(LocalDate.of(2024, 12, 10),
+                scheduler.nextDueDate(habit(5, Habit.Frequency.MONTHLY, LocalDate.of(2024, 9, 10), true), from));
+        assertEquals(LocalDate.of(2024, 11, 18),
+                scheduler.nextDueDate(habit(6, Habit.Frequency.MONTHLY, LocalDate.of(2024, 5, 18), true), from));
+        assertEquals(LocalDate.of(2024, 11, 30),
+                scheduler.nextDueDate(habit(7, Habit.Frequency.MONTHLY, LocalDate.of(2024, 8, 31), true), from));
+    }
+
+    @Test
+    void testRemindersKeepTheirLocalTimeAcrossDaylightSaving() {
+        HabitReminderScheduler dstScheduler = schedulerAt(LocalDateTime.of(2024, 3, 29, 12, 0), List.of());
+
+        // Clocks go forward at 01:00 on 31 March 2024
+        assertEquals(Instant.parse("2024-03-30T09:00:00Z"), dstScheduler.reminderInstant(LocalDate.of(2024, 3, 31)));
+        assertEquals(Instant.parse("2024-03-31T08:00:00Z"), dstScheduler.reminderInstant(LocalDate.of(2024, 4, 1)));
+
+        // 01:30 does not exist on 31 March, so the reminder is shown at 02:30 BST
+        HabitReminderScheduler earlyScheduler = schedulerAt(LocalDateTime.of(2024, 3, 29, 12, 0), List.of(),
+                LocalTime.of(1, 30));
+        assertEquals(Instant.parse("2024-03-31T01:30:00Z"), earlyScheduler.reminderInstant(LocalDate.of(2024, 4, 1)));
+    }
+
+    @Test
+    void testOnlyEligibleHabitsAreScheduled() {
+        LocalDate today = LocalDate.of(2024, 11, 18);
+        HabitReminderScheduler queueScheduler = schedulerAt(today.atTime(8, 0), List.of(
+                habit(1, Habit.Frequency.DAILY, today.minusDays(1), true),
+                habit(2, Habit.Frequency.DAILY, today.minusDays(1), false),
+                habit(3, Habit.Frequency.MONTHLY, LocalDate.of(2024, 6, 1), true)));
+
+        queueScheduler.checkUpcomingReminders();
+
+        assertEquals(1, queueScheduler.getScheduledCount());
+        HabitReminderScheduler.NextDue next = queueScheduler.getNextDue(1L);
+        assertEquals(today.plusDays(1), next.dueDate());
+        assertEquals(today.atTime(9, 0).atZone(LONDON).toInstant(), next.fireAt());
+    }
+
+    @Test
+    void testChangedHabitIsRescheduledAlone() {
+        LocalDate today = LocalDate.of(2024, 11, 18);
+        Habit weekly = habit(1, Habit.Frequency.WEEKLY, today.minusDays(5), true);
+        Habit daily = habit(2, Habit.Frequency.DAILY, today.minusDays(1), true);
+        HabitReminderScheduler queueScheduler = schedulerAt(today.atTime(8, 0), List.of(weekly, daily));
+        queueScheduler.checkUpcomingReminders();
+        HabitReminderScheduler.NextDue dailyBefore = queueScheduler.getNextDue(2L);
+        assertEquals(today.plusDays(2), queueScheduler.getNextDue(1L).dueDate());
+
+        Habit completed = habit(1, Habit.Frequency.WEEKLY, today, true);
+        when(mockHabitRepository.findHabitById(1L)).thenReturn(completed);
+        queueScheduler.reschedule(1L);
+
+        assertEquals(today.plusDays(7), queueScheduler.getNextDue(1L).dueDate());
+        assertSame(dailyBefore, queueScheduler.getNextDue(2L), "Other habits keep their entry");
+        verify(mockHabitRepository, times(1)).getAllHabits(HabitRepository.LoadProfile.SCHEDULE);
+    }
+
+    @Test
+    void testReminderIsShownOncePerDueDate() {
+        LocalDate today = LocalDate.of(2024, 11, 18);
+        HabitReminderScheduler queueScheduler = schedulerAt(today.atTime(10, 0),
+                List.of(habit(1, Habit.Frequency.DAILY, today.minusDays(1), true)));
+
+        // 09:00 has passed, so tomorrow's reminder is shown straight away and the next one is queued
+        queueScheduler.checkUpcomingReminders();
+        assertEquals(today.plusDays(2), queueScheduler.getNextDue(1L).dueDate());
+
+        // Editing the habit does not bring back the reminder that was already shown
+        queueScheduler.reschedule(1L);
+        queueScheduler.fireDueReminders();
+        assertEquals(today.plusDays(2), queueScheduler.getNextDue(1L).dueDate());
+        verify(mockNotifier, times(1)).showGroupedMessage("Reminder: 'Habit 1' is due tomorrow!", "blue",
+                HabitReminderScheduler.REMINDER_SUMMARY);
+    }
 }
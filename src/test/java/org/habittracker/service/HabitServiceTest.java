@@ -1,5 +1,6 @@
 package org.habittracker.service;
 
+import org.habittracker.model.CompletionBatchResult;
 import org.habittracker.model.Habit;
 import org.habittracker.repository.HabitRepository;
 import org.habittracker.util.JavaFxInitializer;
@@ -13,6 +14,10 @@ import javax.persistence.EntityManagerFactory;
 import javax.persistence.Persistence;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -164,4 +169,77 @@ public class HabitServiceTest {
         String actualMessage = habitService.generateMilestoneMessage(milestone);
         assertEquals(expectedMessage, actualMessage, "Message did not match for milestone: " + milestone);
     }
+
+    @Test
+    public void testMarkCompletedBatch_WritesAllHabitsInOneCall() {
+        LocalDate today = LocalDate.now();
+        Habit reading = new Habit("Reading", Habit.Frequency.DAILY);
+        reading.setCreationDate(today.minusDays(10));
+        Habit running = new Habit("Running", Habit.Frequency.DAILY);
+        running.setCreationDate(today.minusDays(10));
+        Long readingId = habitRepository.addHabit(reading).getId();
+        Long runningId = habitRepository.addHabit(running).getId();
+
+        Map<Long, List<LocalDate>> batch = new LinkedHashMap<>();
+        batch.put(readingId, List.of(today.minusDays(2), today.minusDays(1), today));
+        batch.put(runningId, List.of(today, today.plusDays(1)));
+        batch.put(-1L, List.of(today));
+
+        Map<Long, CompletionBatchResult> results = habitService.markCompletedBatch(batch);
+
+        assertEquals(3, results.get(readingId).addedCount());
+        assertEquals(3, results.get(readingId).streak());
+        assertEquals(1, results.get(runningId).addedCount());
+        assertEquals(1, results.get(runningId).skippedCount(), "Future dates should be skipped.");
+        assertFalse(results.get(-1L).found(), "Unknown habit ids should be reported as not found.");
+
+        Habit storedReading = habitRepository.findHabitById(readingId);
+        assertEquals(3, storedReading.getCompletions().size());
+        assertEquals(3, storedReading.getStreakCounter());
+        assertTrue(storedReading.isCompletedToday());
+        assertTrue(storedReading.isMilestoneAchieved(MilestoneManager.FIRST_DAY),
+                "Milestones passed part way through the batch should be recorded.");
+        assertTrue(habitRepository.findHabitById(runningId).isMilestoneAchieved(MilestoneManager.FIRST_DAY),
+                "Milestones should be saved with the habit.");
+        verify(notifier).showMessage("Marked 4 completions across 2 habits. Milestones reached: 2!", "green");
+    }
+
+    @Test
+    public void testMarkCompletedBatch_SkipsExistingDates() {
+        LocalDate today = LocalDate.now();
+        Habit habit = new Habit("Stretching", Habit.Frequency.DAILY);
+        habit.setCreationDate(today.minusDays(5));
+        habit.markAsCompletedOnDate(today.minusDays(1));
+        Long id = habitRepository.addHabit(habit).getId();
+
+        Map<Long, CompletionBatchResult> results = habitService.markCompletedBatch(
+                Map.of(id, List.of(today.minusDays(1), today)));
+
+        assertEquals(1, results.get(id).addedCount());
+        assertEquals(1, results.get(id).skippedCount());
+        assertEquals(2, results.get(id).streak());
+        assertEquals(2, habitRepository.findHabitById(id).getCompletions().size(),
+                "Existing completion rows should not be duplicated.");
+    }
+
+    @Test
+    public void testMarkCompletedBatch_RecordsEveryMilestonePassed() {
+        LocalDate today = LocalDate.now();
+        Habit habit = new Habit("Journaling", Habit.Frequency.DAILY);
+        habit.setCreationDate(today.minusDays(10));
+        Long id = habitRepository.addHabit(habit).getId();
+
+        List<LocalDate> week = new ArrayList<>();
+        for (int i = 7; i >= 0; i--) {
+            week.add(today.minusDays(i));
+        }
+        habitService.markCompletedBatch(Map.of(id, week));
+
+        Habit stored = habitRepository.findHabitById(id);
+        assertEquals(8, stored.getStreakCounter());
+        assertTrue(stored.isMilestoneAchieved(MilestoneManager.FIRST_DAY));
+        assertTrue(stored.isMilestoneAchieved(MilestoneManager.SEVEN_DAYS));
+        assertFalse(stored.isMilestoneAchieved(MilestoneManager.TWENTY_ONE_DAYS));
+        verify(notifier).showMessage("Marked 8 completions across 1 habit. Milestones reached: 2!", "green");
+    }
 }
@@ -1,20 +1,30 @@
 package org.habittracker.service;
 
 import org.habittracker.model.Habit;
+import org.habittracker.model.HabitReportData;
 import org.habittracker.model.MonthlyReport;
 import org.habittracker.repository.HabitRepository;
+import org.habittracker.util.HabitStatisticsCalculator;
+import org.habittracker.util.HabitStatsSnapshot;
 import org.habittracker.util.Notifier;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDate;
 import java.time.YearMonth;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -30,37 +40,75 @@ public class ReportGeneratorTest {
     @InjectMocks
     private ReportGenerator reportGenerator;
 
+    @TempDir
+    Path tempDir;
+
+    private Path reportsDirectory;
+
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
         reportGenerator = new ReportGenerator(habitRepository, notifier);
 
-        // Ensure the reports directory is empty before each test
-        File reportsDirectory = new File("reports");
-        if (reportsDirectory.exists()) {
-            for (File file : reportsDirectory.listFiles()) {
-                file.delete();
-            }
-        }
-        reportsDirectory.delete();
+        // Each test starts without a reports directory, which the generator creates
+        reportsDirectory = tempDir.resolve("reports");
+        reportGenerator.setReportsDirectory(reportsDirectory);
     }
 
     @Test
     void testGenerateMonthlyReport_createReportAndNotifyUser() {
         Habit testHabit = new Habit("Test Habit", Habit.Frequency.DAILY);
-        when(habitRepository.getAllHabits()).thenReturn(Collections.singletonList(testHabit));
+        when(habitRepository.getAllHabits(HabitRepository.LoadProfile.STATS)).thenReturn(Collections.singletonList(testHabit));
 
         YearMonth period = YearMonth.of(2024, 11);
         reportGenerator.generateMonthlyReport(period);
 
         // Verify that a report file was created
-        File reportFile = new File("reports/MonthlyReport-" + period + ".json");
+        File reportFile = reportsDirectory.resolve("MonthlyReport-" + period + ".json").toFile();
         assertTrue(reportFile.exists(), "Report file should be created");
 
         // Verify that the notifier was triggered
         verify(notifier).showMessage("New Monthly Report for " + period + " is available!", "green");
     }
 
+    @Test
+    void testGenerateMonthlyReport_parallelRowsMatchSequentialOrder() throws IOException {
+        Random random = new Random(14);
+        List<Habit> habits = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            Habit habit = new Habit("Habit " + i, Habit.Frequency.DAILY);
+            habit.setCreationDate(LocalDate.now().minusDays(60));
+            for (int day = 0; day < 60; day++) {
+                if (random.nextInt(4) == 0) {
+                    habit.addCompletionForTesting(LocalDate.now().minusDays(day));
+                }
+            }
+            habits.add(habit);
+        }
+        when(habitRepository.getAllHabits(HabitRepository.LoadProfile.STATS)).thenReturn(habits);
+
+        YearMonth period = YearMonth.now();
+        List<HabitReportData> expected = new ArrayList<>();
+        for (Habit habit : habits) {
+            int completionRate = HabitStatsSnapshot.of(habit, period.atEndOfMonth()).getMonthlyPerformance();
+            expected.add(new HabitReportData(habit.getName(), completionRate, 0, 0, 0));
+        }
+        expected.sort(Comparator.comparingInt(HabitReportData::getCompletionRate).reversed());
+
+        Path reportFile = reportsDirectory.resolve("MonthlyReport-" + period + ".json");
+        reportGenerator.generateMonthlyReport(period);
+        byte[] firstRun = Files.readAllBytes(reportFile);
+        reportGenerator.generateMonthlyReport(period);
+
+        assertArrayEquals(firstRun, Files.readAllBytes(reportFile), "Repeated runs should write identical files");
+        List<HabitReportData> rows = reportGenerator.loadMonthlyReport(period).getHabitData();
+        assertEquals(expected.size(), rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            assertEquals(expected.get(i).getHabitName(), rows.get(i).getHabitName());
+            assertEquals(i + 1, rows.get(i).getRanking());
+        }
+    }
+
     @Test
     void testLoadMonthlyReport_existingReport() {
         // Generate and save a report
@@ -73,6 +121,30 @@ public class ReportGeneratorTest {
         assertEquals(period.toString(), loadedReport.getPeriod(), "Loaded report should match the saved report period");
     }
 
+    @Test
+    void testSaveReport_compactByDefaultAndPrettyOnRequest() throws IOException {
+        Habit habit = new Habit("Compact Habit", Habit.Frequency.DAILY);
+        habit.setCreationDate(LocalDate.of(2024, 10, 1));
+        habit.addCompletionForTesting(LocalDate.of(2024, 11, 3));
+        when(habitRepository.getAllHabits(HabitRepository.LoadProfile.STATS)).thenReturn(List.of(habit));
+        YearMonth period = YearMonth.of(2024, 11);
+        Path reportFile = reportsDirectory.resolve("MonthlyReport-" + period + ".json");
+
+        reportGenerator.generateMonthlyReport(period);
+        String compact = Files.readString(reportFile);
+        assertFalse(compact.contains("\n"), "Reports should be written on a single line by default");
+        MonthlyReport loaded = reportGenerator.loadMonthlyReport(period);
+        assertEquals("Compact Habit", loaded.getHabitData().get(0).getHabitName());
+        assertEquals(1, loaded.getHabitData().get(0).getLongestStreak());
+        assertEquals(1, loaded.getHabitData().get(0).getRanking());
+
+        reportGenerator.setPrettyPrint(true);
+        reportGenerator.generateMonthlyReport(period);
+        String pretty = Files.readString(reportFile);
+        assertTrue(pretty.contains("\n  \"period\": \"2024-11\""));
+        assertEquals(period.toString(), reportGenerator.loadMonthlyReport(period).getPeriod());
+    }
+
     @Test
     void testLoadMonthlyReport_nonexistentReport() {
         YearMonth period = YearMonth.of(2024, 12);
@@ -83,26 +155,46 @@ public class ReportGeneratorTest {
     @Test
     void testCheckForMissedReports_generateMissedReport() {
         YearMonth lastMonth = YearMonth.now().minusMonths(1);
-        String reportFileName = "reports/MonthlyReport-" + lastMonth + ".json";
-
-        // Check the report file does not exist before running the test
-        new File(reportFileName).delete();
+        File reportFile = reportsDirectory.resolve("MonthlyReport-" + lastMonth + ".json").toFile();
 
         reportGenerator.checkForMissedReports();
 
         // Verify that the report file was created
-        File reportFile = new File(reportFileName);
         assertTrue(reportFile.exists(), "Missed report file should be generated");
 
         // Verify that the notifier for the missed report was triggered
         verify(notifier).showMessage("New Monthly Report for " + lastMonth.getMonth() + " is available!", "green");
     }
 
+    @Test
+    void testCheckForMissedReports_backfillsEveryMissingMonth() {
+        YearMonth lastMonth = YearMonth.now().minusMonths(1);
+        YearMonth firstMonth = lastMonth.minusMonths(2);
+        Habit habit = new Habit("Backfilled Habit", Habit.Frequency.DAILY);
+        habit.setCreationDate(firstMonth.atDay(1));
+        for (int day = 1; day <= 10; day++) {
+            habit.addCompletionForTesting(firstMonth.atDay(day));
+        }
+        habit.addCompletionForTesting(lastMonth.atDay(1));
+        when(habitRepository.getAllHabits(HabitRepository.LoadProfile.STATS)).thenReturn(List.of(habit));
+
+        reportGenerator.checkForMissedReports();
+
+        for (YearMonth month = firstMonth; !month.isAfter(lastMonth); month = month.plusMonths(1)) {
+            MonthlyReport report = reportGenerator.loadMonthlyReport(month);
+            assertNotNull(report, "Report for " + month + " should be generated");
+            HabitReportData row = report.getHabitData().get(0);
+            assertEquals(HabitStatisticsCalculator.calculateMonthlyPerformance(habit, month), row.getCompletionRate());
+            assertEquals(HabitStatisticsCalculator.calculateMonthlyConsistency(habit, month), row.getMonthlyConsistency());
+        }
+        assertEquals(10, reportGenerator.loadMonthlyReport(lastMonth).getHabitData().get(0).getLongestStreak());
+        verify(notifier).showMessage("3 missed Monthly Reports are now available!", "green");
+    }
+
     @Test
     void testCheckForMissedReports_noReportGeneratedIfExists() {
         YearMonth lastMonth = YearMonth.now().minusMonths(1);
-        String reportFileName = "reports/MonthlyReport-" + lastMonth + ".json";
-        File reportFile = new File(reportFileName);
+        File reportFile = reportsDirectory.resolve("MonthlyReport-" + lastMonth + ".json").toFile();
 
         // Ensure the 'reports' directory exists
         reportFile.getParentFile().mkdirs();
@@ -131,7 +223,8 @@ public class ReportGeneratorTest {
         MonthlyReport report = new MonthlyReport(period.toString(), Collections.emptyList(), LocalDate.now());
 
         // Make the "reports" directory temporarily unwritable
-        File reportsDir = new File("reports");
+        File reportsDir = reportsDirectory.toFile();
+        reportsDir.mkdirs();
         reportsDir.setWritable(false);
 
         try {
@@ -0,0 +1,49 @@
+package org.habittracker.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BackupSchedulerTest {
+
+    private static final ZoneId ZONE = ZoneId.of("Europe/London");
+
+    @Test
+    void testFirstBackupIsOneMonthAway() {
+        ZonedDateTime now = ZonedDateTime.of(2024, 10, 18, 9, 30, 0, 0, ZONE);
+        ZonedDateTime next = BackupScheduler.backupTime(now, 1);
+
+        assertEquals(ZonedDateTime.of(2024, 11, 18, 9, 30, 0, 0, ZONE), next);
+        // The clocks go back on 27 October, so the month is 31 days and one hour long
+        assertEquals(Duration.ofDays(31).plusHours(1).toMillis(), BackupScheduler.delayMillis(now, next));
+    }
+
+    @Test
+    void testBackupsStayOnTheDayTheyStarted() {
+        ZonedDateTime start = ZonedDateTime.of(2024, 1, 31, 12, 0, 0, 0, ZONE);
+
+        assertEquals(29, BackupScheduler.backupTime(start, 1).getDayOfMonth());
+        assertEquals(31, BackupScheduler.backupTime(start, 2).getDayOfMonth());
+        assertEquals(12, BackupScheduler.backupTime(start, 3).getHour(), "Local time is kept across DST");
+    }
+
+    @Test
+    void testOverdueBackupRunsImmediately() {
+        ZonedDateTime now = ZonedDateTime.of(2024, 10, 18, 9, 30, 0, 0, ZONE);
+        assertEquals(0, BackupScheduler.delayMillis(now, now.minusDays(2)));
+    }
+
+    @Test
+    void testLongWaitsAreSplitIntoShortSleeps() {
+        ZonedDateTime now = ZonedDateTime.of(2024, 10, 18, 9, 30, 0, 0, ZONE);
+
+        assertEquals(BackupScheduler.MAX_SLEEP.toMillis(), BackupScheduler.sleepMillis(now, now.plusMonths(1)),
+                "The wall clock is checked again at least hourly");
+        assertEquals(Duration.ofMinutes(5).toMillis(), BackupScheduler.sleepMillis(now, now.plusMinutes(5)));
+        assertEquals(0, BackupScheduler.sleepMillis(now, now.minusDays(2)));
+    }
+}
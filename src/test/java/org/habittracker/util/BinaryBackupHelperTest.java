@@ -0,0 +1,197 @@
+package org.habittracker.util;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.habittracker.model.CompletionBitmap;
+import org.habittracker.model.Habit;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.CRC32;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BinaryBackupHelperTest {
+
+    private static final Logger LOGGER = LogManager.getLogger(BinaryBackupHelperTest.class);
+
+    private static final LocalDate START = LocalDate.of(2021, 1, 1);
+
+    @TempDir
+    Path tempDir;
+
+    private List<Habit> randomHabits(int count, int days, long seed) {
+        Random random = new Random(seed);
+        Habit.Frequency[] frequencies = Habit.Frequency.values();
+        List<Habit> habits = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Habit.Frequency frequency = frequencies[random.nextInt(frequencies.length)];
+            LocalDate lastCompleted = random.nextBoolean() ? START.plusDays(random.nextInt(days)) : null;
+            Habit habit = new Habit(i % 5 == 0 ? null : (long) i + 1, "Habit " + i + (i % 7 == 0 ? " ✓" : ""),
+                    i % 3 == 0 ? null : "#00FF00", random.nextBoolean(), START, lastCompleted, frequency,
+                    random.nextInt(50), random.nextInt(400), random.nextBoolean());
+            if (frequency == Habit.Frequency.CUSTOM) {
+                habit.setCustomDays(List.of(DayOfWeek.SUNDAY, DayOfWeek.WEDNESDAY));
+            }
+            if (i % 4 == 0) {
+                habit.addMilestone(7);
+                habit.addMilestone(30);
+            }
+            // Alternate dense daily habits with sparse ones so both completion encodings are used
+            double rate = i % 2 == 0 ? 0.85 : 0.05;
+            CompletionBitmap completions = new CompletionBitmap();
+            for (int day = 0; day < days; day++) {
+                if (random.nextDouble() < rate) {
+                    completions.add(START.plusDays(day));
+                }
+            }
+            habit.setCompletions(completions);
+            habits.add(habit);
+        }
+        return habits;
+    }
+
+    private String toJson(Habit habit) throws IOException {
+        StringWriter out = new StringWriter();
+        new HabitTypeAdapter().write(new JsonWriter(out), habit);
+        return out.toString();
+    }
+
+    private List<String> readJson(Path path) throws IOException {
+        List<String> habits = new ArrayList<>();
+        try (JsonReader reader = new JsonReader(Files.newBufferedReader(path))) {
+            HabitTypeAdapter adapter = new HabitTypeAdapter();
+            reader.beginArray();
+            while (reader.hasNext()) {
+                habits.add(toJson(adapter.read(reader)));
+            }
+            reader.endArray();
+        }
+        return habits;
+    }
+
+    private List<String> readBinary(Path path) throws IOException {
+        List<String> habits = new ArrayList<>();
+        IOException[] failure = new IOException[1];
+        BinaryBackupHelper.readHabits(path, habit -> {
+            try {
+                habits.add(toJson(habit));
+            } catch (IOException e) {
+                failure[0] = e;
+            }
+        });
+        if (failure[0] != null) {
+            throw failure[0];
+        }
+        return habits;
+    }
+
+    @Test
+    void testRoundTripMatchesJsonBackup() throws IOException {
+        List<Habit> habits = randomHabits(60, 3 * 365, 42);
+        habits.add(new Habit("No completions", Habit.Frequency.WEEKLY));
+        Path json = tempDir.resolve("backup.json");
+        Path compressed = tempDir.resolve("backup.htb");
+        Path plain = tempDir.resolve("plain.htb");
+
+        JsonBackupHelper.backupHabitsToJson(habits, json.toString());
+        BinaryBackupHelper.backupHabitsToBinary(habits, compressed.toString(), true);
+        BinaryBackupHelper.backupHabitsToBinary(habits, plain.toString(), false);
+
+        List<String> expected = readJson(json);
+        assertEquals(habits.size(), expected.size());
+        assertEquals(expected, readBinary(compressed));
+        assertEquals(expected, readBinary(plain));
+    }
+
+    @Test
+    void testEmptyBackupRoundTrips() throws IOException {
+        Path path = tempDir.resolve("empty.htb");
+        BinaryBackupHelper.backupHabitsToBinary(List.of(), path.toString(), true);
+        assertTrue(readBinary(path).isEmpty());
+    }
+
+    @Test
+    void testDamagedFilesAreRejected() throws IOException {
+        Path path = tempDir.resolve("backup.htb");
+        BinaryBackupHelper.backupHabitsToBinary(randomHabits(5, 365, 7), path.toString(), false);
+        byte[] bytes = Files.readAllBytes(path);
+
+        byte[] flipped = bytes.clone();
+        flipped[bytes.length / 2] ^= 0x10;
+        Files.write(path, flipped);
+        IOException crcFailure = assertThrows(IOException.class, () -> readBinary(path));
+        assertTrue(crcFailure.getMessage().contains("CRC"), crcFailure.getMessage());
+
+        Files.write(path, Arrays.copyOf(bytes, bytes.length - 10));
+        assertThrows(IOException.class, () -> readBinary(path));
+
+        byte[] newer = bytes.clone();
+        newer[4] = (byte) (BinaryBackupHelper.VERSION + 1);
+        Files.write(path, newer);
+        assertThrows(IOException.class, () -> readBinary(path), "The header CRC covers the version");
+
+        Files.writeString(path, "[]");
+        assertThrows(IOException.class, () -> readBinary(path));
+    }
+
+    @Test
+    void testDeletionInFullBackupIsRejected() throws IOException {
+        Path path = tempDir.resolve("backup.htb");
+        BinaryBackupHelper.writeDelta(path, false, List.of(1L), List.of());
+
+        // Relabel the delta as a full backup, with a valid header CRC
+        ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(path)).order(ByteOrder.LITTLE_ENDIAN);
+        bytes.putShort(6, (short) BinaryBackupHelper.FLAG_DEFLATE);
+        CRC32 crc = new CRC32();
+        crc.update(bytes.array(), 0, 8);
+        bytes.putInt(8, (int) crc.getValue());
+        Files.write(path, bytes.array());
+
+        IOException failure = assertThrows(IOException.class, () -> readBinary(path));
+        assertTrue(failure.getMessage().contains("deletions"), failure.getMessage());
+    }
+
+    @Test
+    void testBinaryBackupIsMuchSmallerThanJson() throws IOException {
+        List<Habit> habits = randomHabits(200, 3 * 365, 1);
+        Path json = tempDir.resolve("bench.json");
+        Path binary = tempDir.resolve("bench.htb");
+
+        long bestJson = Long.MAX_VALUE;
+        long bestBinary = Long.MAX_VALUE;
+        for (int round = 0; round < 5; round++) {
+            long start = System.nanoTime();
+            JsonBackupHelper.backupHabitsToJson(habits, json.toString());
+            readJson(json);
+            bestJson = Math.min(bestJson, System.nanoTime() - start);
+
+            start = System.nanoTime();
+            BinaryBackupHelper.backupHabitsToBinary(habits, binary.toString(), true);
+            BinaryBackupHelper.readHabits(binary, habit -> { });
+            bestBinary = Math.min(bestBinary, System.nanoTime() - start);
+        }
+
+        long jsonSize = Files.size(json);
+        long binarySize = Files.size(binary);
+        String summary = String.format("JSON %d bytes in %.1f ms, binary %d bytes in %.1f ms",
+                jsonSize, bestJson / 1e6, binarySize, bestBinary / 1e6);
+        assertTrue(binarySize * 10 < jsonSize, summary);
+        // Timings depend on the machine, so they are only reported
+        LOGGER.info(summary);
+    }
+}
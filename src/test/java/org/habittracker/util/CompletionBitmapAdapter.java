@@ -0,0 +1,45 @@
+package org.habittracker.util;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import org.habittracker.model.CompletionBitmap;
+
+import java.io.IOException;
+import java.time.LocalDate;
+
+/**
+ * Writes a {@link CompletionBitmap} as an array of ISO dates, the same shape the backup files
+ * used when completions were a {@code Set<LocalDate>}. Lets the tests rebuild the reflective
+ * mapping that {@link HabitTypeAdapter} replaced.
+ */
+class CompletionBitmapAdapter extends TypeAdapter<CompletionBitmap> {
+    @Override
+    public void write(JsonWriter jsonWriter, CompletionBitmap completions) throws IOException {
+        if (completions == null) {
+            jsonWriter.nullValue();
+            return;
+        }
+        jsonWriter.beginArray();
+        for (LocalDate date : completions.toSortedList()) {
+            jsonWriter.value(date.toString());
+        }
+        jsonWriter.endArray();
+    }
+
+    @Override
+    public CompletionBitmap read(JsonReader jsonReader) throws IOException {
+        if (jsonReader.peek() == JsonToken.NULL) {
+            jsonReader.nextNull();
+            return new CompletionBitmap();
+        }
+        CompletionBitmap completions = new CompletionBitmap();
+        jsonReader.beginArray();
+        while (jsonReader.hasNext()) {
+            completions.add(LocalDate.parse(jsonReader.nextString()));
+        }
+        jsonReader.endArray();
+        return completions;
+    }
+}
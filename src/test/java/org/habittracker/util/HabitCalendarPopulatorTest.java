@@ -55,7 +55,7 @@ public class HabitCalendarPopulatorTest {
                 new Habit("Daily Habit", Habit.Frequency.DAILY),
                 new Habit("Weekly Habit", Habit.Frequency.CUSTOM, Collections.singletonList(DayOfWeek.MONDAY))
         );
-        when(mockHabitRepository.getAllHabits()).thenReturn(mockHabits);
+        when(mockHabitRepository.getAllHabits(HabitRepository.LoadProfile.SCHEDULE)).thenReturn(mockHabits);
 
         LocalDate referenceDate = LocalDate.of(2024, 11, 1);
         calendarPopulator.populateCalendar(referenceDate, false);
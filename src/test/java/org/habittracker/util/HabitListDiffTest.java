@@ -0,0 +1,84 @@
+package org.habittracker.util;
+
+import org.habittracker.model.Habit;
+import org.habittracker.model.HabitSummary;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HabitListDiffTest {
+
+    private HabitSummary row(long id, int streak, boolean completedToday) {
+        return new HabitSummary(id, "Habit " + id, Habit.Frequency.DAILY, LocalDate.of(2024, 1, 1), streak, completedToday);
+    }
+
+    private List<HabitSummary> rows(int count) {
+        List<HabitSummary> rows = new ArrayList<>(count);
+        for (long id = 1; id <= count; id++) {
+            rows.add(row(id, 0, false));
+        }
+        return rows;
+    }
+
+    @Test
+    void testCompletionReplacesOneRow() {
+        List<HabitSummary> displayed = rows(5_000);
+        HabitSummary untouched = displayed.get(0);
+        List<HabitSummary> updated = new ArrayList<>(displayed);
+        updated.set(2_500, row(2_501, 1, true));
+
+        assertEquals(1, HabitListDiff.apply(displayed, updated));
+        assertEquals(updated, displayed);
+        assertSame(untouched, displayed.get(0), "Unchanged rows should keep their instance");
+    }
+
+    @Test
+    void testDeleteAndAddTouchOnlyThoseRows() {
+        List<HabitSummary> displayed = rows(10);
+        List<HabitSummary> updated = new ArrayList<>(displayed);
+        updated.remove(3);
+        updated.add(row(11, 0, false));
+
+        assertEquals(2, HabitListDiff.apply(displayed, updated));
+        assertEquals(updated, displayed);
+    }
+
+    @Test
+    void testUnchangedListIsLeftAlone() {
+        List<HabitSummary> displayed = rows(10);
+
+        assertEquals(0, HabitListDiff.apply(displayed, rows(10)));
+    }
+
+    @Test
+    void testRandomEditsProduceTheUpdatedList() {
+        Random random = new Random(3);
+        for (int round = 0; round < 200; round++) {
+            List<HabitSummary> displayed = rows(random.nextInt(30));
+            List<HabitSummary> updated = new ArrayList<>(displayed);
+            for (int edit = random.nextInt(6); edit > 0; edit--) {
+                int action = random.nextInt(3);
+                if (action == 0 && !updated.isEmpty()) {
+                    updated.remove(random.nextInt(updated.size()));
+                } else if (action == 1) {
+                    updated.add(random.nextInt(updated.size() + 1), row(100 + round * 10L + edit, 0, false));
+                } else if (!updated.isEmpty()) {
+                    int index = random.nextInt(updated.size());
+                    updated.set(index, row(updated.get(index).id(), random.nextInt(5), true));
+                }
+            }
+            if (random.nextInt(10) == 0) {
+                Collections.shuffle(updated, random);
+            }
+
+            HabitListDiff.apply(displayed, updated);
+            assertEquals(updated, displayed);
+        }
+    }
+}
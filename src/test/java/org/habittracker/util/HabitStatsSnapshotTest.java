@@ -0,0 +1,139 @@
+package org.habittracker.util;
+
+import org.habittracker.model.Habit;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HabitStatsSnapshotTest {
+
+    private Habit randomHabit(Random random, Habit.Frequency frequency) {
+        LocalDate today = LocalDate.now();
+        Habit habit = new Habit("Habit", frequency);
+        habit.setCreationDate(today.minusDays(random.nextInt(400)));
+        if (frequency == Habit.Frequency.CUSTOM) {
+            List<DayOfWeek> days = new ArrayList<>();
+            for (DayOfWeek day : DayOfWeek.values()) {
+                if (random.nextBoolean()) {
+                    days.add(day);
+                }
+            }
+            habit.setCustomDays(days);
+        }
+
+        // Dense recent history so full periods and streaks actually occur
+        double density = random.nextDouble();
+        for (LocalDate date = habit.getCreationDate(); !date.isAfter(today); date = date.plusDays(1)) {
+            if (random.nextDouble() < density || date.isAfter(today.minusDays(40)) && random.nextDouble() < 0.9) {
+                habit.addCompletionForTesting(date);
+            }
+        }
+        return habit;
+    }
+
+    @ParameterizedTest
+    @EnumSource(Habit.Frequency.class)
+    void testMatchesCalculator(Habit.Frequency frequency) {
+        Random random = new Random(frequency.ordinal());
+        for (int i = 0; i < 100; i++) {
+            Habit habit = randomHabit(random, frequency);
+            HabitStatsSnapshot stats = HabitStatsSnapshot.of(habit);
+
+            String message = frequency + " habit created " + habit.getCreationDate();
+            assertEquals(habit.getCompletions().size(), stats.getTotalCompletions(), message);
+            assertEquals(HabitStatisticsCalculator.calculateWeeklyPerformance(habit), stats.getWeeklyPerformance(), message);
+            assertEquals(HabitStatisticsCalculator.calculateMonthlyPerformance(habit), stats.getMonthlyPerformance(), message);
+            assertEquals(HabitStatisticsCalculator.calculateOverallPerformance(habit), stats.getOverallPerformance(), message);
+            assertEquals(HabitStatisticsCalculator.calculateWeeklyConsistency(habit), stats.getWeeklyConsistency(), message);
+            assertEquals(HabitStatisticsCalculator.calculateMonthlyConsistency(habit), stats.getMonthlyConsistency(), message);
+            assertEquals(HabitStatisticsCalculator.calculateLongestStreak(habit), stats.getLongestStreak(), message);
+
+            YearMonth month = YearMonth.from(habit.getCreationDate());
+            assertEquals(habit.getCompletionsInMonth(month.getYear(), month.getMonthValue()),
+                    stats.getCompletionsInMonth(month), message);
+            assertEquals(HabitStatisticsCalculator.calculateMonthlyPerformance(habit, month),
+                    stats.getMonthlyPerformance(month), message);
+            assertEquals(HabitStatisticsCalculator.calculateMonthlyConsistency(habit, month),
+                    stats.getMonthlyConsistency(month), message);
+        }
+    }
+
+    @Test
+    void testMonthlyHistogramAndStreak() {
+        Habit habit = new Habit("Reading", Habit.Frequency.DAILY);
+        habit.setCreationDate(LocalDate.of(2024, 1, 1));
+        for (int day = 29; day <= 31; day++) {
+            habit.addCompletionForTesting(LocalDate.of(2024, 1, day));
+        }
+        habit.addCompletionForTesting(LocalDate.of(2024, 2, 1));
+        habit.addCompletionForTesting(LocalDate.of(2024, 2, 10));
+
+        HabitStatsSnapshot stats = HabitStatsSnapshot.of(habit, LocalDate.of(2024, 2, 15));
+
+        assertEquals(3, stats.getCompletionsInMonth(2024, 1));
+        assertEquals(2, stats.getCompletionsInMonth(2024, 2));
+        assertEquals(0, stats.getCompletionsInMonth(2024, 3));
+        assertEquals(5, stats.getTotalCompletions());
+        assertEquals(4, stats.getLongestStreak(), "The run crosses the month boundary");
+        assertEquals(6, stats.getMonthlyPerformance()); // 2 of 29 days in February 2024
+    }
+
+    @Test
+    void testConsistencyStopsAtCreationDate() {
+        Habit habit = new Habit("Running", Habit.Frequency.WEEKLY);
+        habit.setCreationDate(LocalDate.of(2024, 3, 1));
+        habit.addCompletionForTesting(LocalDate.of(2023, 12, 5)); // Backfilled before the habit was created
+        for (LocalDate date = LocalDate.of(2024, 3, 4); date.isBefore(LocalDate.of(2024, 5, 20)); date = date.plusWeeks(1)) {
+            habit.addCompletionForTesting(date);
+        }
+
+        HabitStatsSnapshot stats = HabitStatsSnapshot.of(habit, LocalDate.of(2024, 5, 15));
+
+        assertEquals(11, stats.getWeeklyConsistency(), "Weeks starting March 4 through May 13");
+        assertEquals(3, stats.getMonthlyConsistency(), "March, April and May");
+        assertEquals(1, stats.getCompletionsInMonth(2023, 12));
+        assertEquals(0, HabitStatsSnapshot.of(habit, LocalDate.of(2024, 2, 1)).getWeeklyConsistency());
+    }
+
+    @Test
+    void testLongestStreakAsOfEachMonth() {
+        Habit habit = new Habit("Reading", Habit.Frequency.DAILY);
+        habit.setCreationDate(LocalDate.of(2024, 1, 1));
+        for (int day = 1; day <= 3; day++) {
+            habit.addCompletionForTesting(LocalDate.of(2024, 1, day));
+        }
+        for (int day = 1; day <= 10; day++) {
+            habit.addCompletionForTesting(LocalDate.of(2024, 4, day));
+        }
+
+        HabitStatsSnapshot stats = HabitStatsSnapshot.of(habit, LocalDate.of(2024, 5, 31));
+
+        assertEquals(0, stats.getLongestStreak(YearMonth.of(2023, 12)));
+        assertEquals(3, stats.getLongestStreak(YearMonth.of(2024, 1)));
+        assertEquals(3, stats.getLongestStreak(YearMonth.of(2024, 3)), "Months without completions keep the earlier best");
+        assertEquals(10, stats.getLongestStreak(YearMonth.of(2024, 4)));
+        assertEquals(10, stats.getLongestStreak(YearMonth.of(2024, 9)));
+    }
+
+    @Test
+    void testHabitWithoutFrequencyHasNoRates() {
+        Habit habit = new Habit();
+        habit.setCreationDate(LocalDate.of(2024, 1, 1));
+        habit.addCompletionForTesting(LocalDate.of(2024, 1, 2));
+
+        HabitStatsSnapshot stats = HabitStatsSnapshot.of(habit, LocalDate.of(2024, 1, 10));
+
+        assertEquals(1, stats.getTotalCompletions());
+        assertEquals(0, stats.getOverallPerformance());
+        assertEquals(0, stats.getMonthlyConsistency());
+    }
+}
@@ -0,0 +1,104 @@
+package org.habittracker.util;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import org.habittracker.model.CompletionBitmap;
+import org.habittracker.model.Habit;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HabitTypeAdapterTest {
+
+    // The reflective mapping that backups were written with before the hand-written adapter
+    private static final Gson REFLECTIVE_GSON = new GsonBuilder()
+            .registerTypeAdapter(LocalDate.class, new LocalDateAdapter())
+            .registerTypeAdapter(CompletionBitmap.class, new CompletionBitmapAdapter())
+            .create();
+
+    private final HabitTypeAdapter adapter = new HabitTypeAdapter();
+
+    private Habit sampleHabit() {
+        Habit habit = new Habit(7L, "Read", "#FF0000", true, LocalDate.of(2023, 3, 1),
+                LocalDate.of(2024, 2, 29), Habit.Frequency.CUSTOM, 4, 9, false);
+        habit.setCustomDays(List.of(DayOfWeek.MONDAY, DayOfWeek.THURSDAY));
+        habit.addMilestone(7);
+        habit.addMilestone(30);
+        CompletionBitmap completions = new CompletionBitmap();
+        completions.add(LocalDate.of(2024, 2, 29));
+        completions.add(LocalDate.of(2023, 3, 2));
+        completions.add(LocalDate.of(2023, 12, 31));
+        habit.setCompletions(completions);
+        return habit;
+    }
+
+    private String write(Habit habit, boolean pretty) throws IOException {
+        StringWriter out = new StringWriter();
+        JsonWriter writer = new JsonWriter(out);
+        if (pretty) {
+            writer.setIndent("  ");
+        }
+        adapter.write(writer, habit);
+        writer.flush();
+        return out.toString();
+    }
+
+    private Habit read(String json) throws IOException {
+        return adapter.read(new JsonReader(new StringReader(json)));
+    }
+
+    @Test
+    void testWritesSameJsonAsReflectiveMapping() throws IOException {
+        Habit habit = sampleHabit();
+        assertEquals(REFLECTIVE_GSON.toJson(habit), write(habit, false));
+
+        Habit minimal = new Habit("Walk", Habit.Frequency.DAILY);
+        assertEquals(REFLECTIVE_GSON.toJson(minimal), write(minimal, false));
+    }
+
+    @Test
+    void testPrettyOutputOnlyAddsWhitespace() throws IOException {
+        String compact = write(sampleHabit(), false);
+        String pretty = write(sampleHabit(), true);
+        assertFalse(compact.contains("\n"), "Compact output should be a single line");
+        assertTrue(pretty.contains("\n  \"name\": \"Read\""));
+        assertEquals(compact, pretty.replaceAll("\\n\\s*", "").replace("\": ", "\":"));
+    }
+
+    @Test
+    void testRoundTripKeepsEveryField() throws IOException {
+        Habit original = sampleHabit();
+        Habit restored = read(write(original, false));
+
+        assertEquals(original.getId(), restored.getId());
+        assertEquals(original.getName(), restored.getName());
+        assertEquals(original.getColor(), restored.getColor());
+        assertTrue(restored.checkCompletion());
+        assertEquals(original.getCreationDate(), restored.getCreationDate());
+        assertEquals(original.getLastCompletedDate(), restored.getLastCompletedDate());
+        assertEquals(Habit.Frequency.CUSTOM, restored.getFrequency());
+        assertEquals(4, restored.getStreakCounter(), "Reading the last completed date must not bump the streak");
+        assertEquals(original.getBestStreak(), restored.getBestStreak());
+        assertFalse(restored.isReminderEligible());
+        assertEquals(original.getCustomDays(), restored.getCustomDays());
+        assertEquals(original.getCompletedMilestones(), restored.getCompletedMilestones());
+        assertEquals(original.getCompletions().toSortedList(), restored.getCompletions().toSortedList());
+    }
+
+    @Test
+    void testReadsReflectiveOutputAndSkipsUnknownFields() throws IOException {
+        String json = REFLECTIVE_GSON.toJson(sampleHabit()).replace("{", "{\"archived\":{\"since\":[1,2]},");
+        Habit restored = read(json);
+        assertEquals("Read", restored.getName());
+        assertEquals(3, restored.getCompletions().size());
+    }
+}
@@ -0,0 +1,252 @@
+package org.habittracker.util;
+
+import com.google.gson.stream.JsonWriter;
+import org.habittracker.model.Habit;
+import org.habittracker.repository.HabitChange;
+import org.habittracker.repository.HabitRepository;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class IncrementalBackupTest {
+
+    private HabitRepository habitRepository;
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeAll
+    void init() {
+        HabitRepository.initialize("habittracker-test");
+    }
+
+    @BeforeEach
+    void setUp() {
+        habitRepository = HabitRepository.getInstance();
+        habitRepository.clearAll();
+    }
+
+    @AfterEach
+    void tearDown() {
+        habitRepository.clearAll();
+    }
+
+    private Habit addHabit(String name, Habit.Frequency frequency) {
+        Habit habit = new Habit(name, frequency);
+        habit.setCreationDate(LocalDate.now().minusDays(10));
+        return habitRepository.addHabit(habit);
+    }
+
+    private String toJson(Collection<Habit> habits) throws IOException {
+        List<Habit> sorted = new ArrayList<>(habits);
+        sorted.sort(Comparator.comparing(Habit::getId));
+        StringWriter out = new StringWriter();
+        JsonWriter writer = new JsonWriter(out);
+        HabitTypeAdapter adapter = new HabitTypeAdapter();
+        writer.beginArray();
+        for (Habit habit : sorted) {
+            // Habits read back from the database have an empty list where cached copies may still have null
+            Habit copy = new Habit(habit);
+            if (copy.getCustomDays() == null) {
+                copy.setCustomDays(List.of());
+            }
+            adapter.write(writer, copy);
+        }
+        writer.endArray();
+        return out.toString();
+    }
+
+    private List<Long> readDeltaIds(Path delta) throws IOException {
+        List<Long> ids = new ArrayList<>();
+        BinaryBackupHelper.readDelta(delta, new BinaryBackupHelper.DeltaVisitor() {
+            @Override
+            public void habit(Habit habit) {
+                ids.add(habit.getId());
+            }
+
+            @Override
+            public void deleted(long habitId) {
+                ids.add(-habitId);
+            }
+        });
+        return ids;
+    }
+
+    @Test
+    void testReplayMatchesLiveDataAfterEveryKindOfChange() throws IOException {
+        Habit read = addHabit("Read", Habit.Frequency.DAILY);
+        Habit walk = addHabit("Walk", Habit.Frequency.WEEKLY);
+        Habit stretch = addHabit("Stretch", Habit.Frequency.CUSTOM);
+
+        try (IncrementalBackup backup = new IncrementalBackup(tempDir, habitRepository)) {
+            assertTrue(IncrementalBackup.isFull(backup.backup()), "The first backup is a full snapshot");
+
+            addHabit("Meditate", Habit.Frequency.MONTHLY);
+            habitRepository.markCompletedBatch(Map.of(read.getId(), List.of(LocalDate.now().minusDays(1))));
+            stretch.setCustomDays(List.of(DayOfWeek.MONDAY, DayOfWeek.FRIDAY));
+            stretch.setColor("#FF0000");
+            habitRepository.updateHabit(stretch);
+            habitRepository.deleteHabit(walk);
+
+            Path delta = backup.backup();
+            assertFalse(IncrementalBackup.isFull(delta));
+            assertEquals(toJson(habitRepository.getAllHabits()), toJson(IncrementalBackup.replay(tempDir)));
+        }
+    }
+
+    @Test
+    void testDeltaOnlyHoldsChangedHabits() throws IOException {
+        for (int i = 0; i < 20; i++) {
+            addHabit("Habit " + i, Habit.Frequency.DAILY);
+        }
+        Habit changed = habitRepository.findHabitByName("Habit 7");
+
+        try (IncrementalBackup backup = new IncrementalBackup(tempDir, habitRepository)) {
+            backup.backup();
+            assertNull(backup.backup(), "Nothing is written when nothing changed");
+
+            // Completing the same habit several times is written once, with its latest state
+            habitRepository.markCompletedBatch(Map.of(changed.getId(), List.of(LocalDate.now().minusDays(2))));
+            habitRepository.markCompletedBatch(Map.of(changed.getId(), List.of(LocalDate.now().minusDays(1))));
+            Path delta = backup.backup();
+
+            assertEquals(List.of(changed.getId()), readDeltaIds(delta));
+            assertEquals(toJson(habitRepository.getAllHabits()), toJson(IncrementalBackup.replay(tempDir)));
+        }
+    }
+
+    @Test
+    void testClearAllIsReplayed() throws IOException {
+        addHabit("Old Habit", Habit.Frequency.DAILY);
+
+        try (IncrementalBackup backup = new IncrementalBackup(tempDir, habitRepository)) {
+            backup.backup();
+            habitRepository.clearAll();
+            addHabit("New Habit", Habit.Frequency.WEEKLY);
+            backup.backup();
+        }
+
+        Collection<Habit> replayed = IncrementalBackup.replay(tempDir);
+        assertEquals(1, replayed.size());
+        assertEquals("New Habit", replayed.iterator().next().getName());
+    }
+
+    @Test
+    void testFullSnapshotIsTakenAfterConfiguredDeltas() throws IOException {
+        Habit habit = addHabit("Read", Habit.Frequency.DAILY);
+
+        try (IncrementalBackup backup = new IncrementalBackup(tempDir, habitRepository, 1)) {
+            assertTrue(IncrementalBackup.isFull(backup.backup()));
+            habitRepository.markCompletedBatch(Map.of(habit.getId(), List.of(LocalDate.now().minusDays(1))));
+            assertFalse(IncrementalBackup.isFull(backup.backup()));
+            assertTrue(IncrementalBackup.isFull(backup.backup()));
+        }
+
+        // A new session numbers its files after the existing ones and replays from its own snapshot
+        habitRepository.deleteHabit(habit);
+        try (IncrementalBackup backup = new IncrementalBackup(tempDir, habitRepository)) {
+            backup.backup();
+        }
+        assertEquals(4, IncrementalBackup.listBackups(tempDir).size());
+        assertTrue(IncrementalBackup.replay(tempDir).isEmpty());
+    }
+
+    @Test
+    void testOldSnapshotsAreRemovedByCountAndSize() throws IOException {
+        Habit habit = addHabit("Read", Habit.Frequency.DAILY);
+
+        try (IncrementalBackup backup = new IncrementalBackup(tempDir, habitRepository, 1)) {
+            backup.setRetention(2, Long.MAX_VALUE);
+            for (int i = 1; i <= 4; i++) {
+                backup.backup();
+                habitRepository.markCompletedBatch(Map.of(habit.getId(), List.of(LocalDate.now().minusDays(i))));
+                backup.backup();
+                habitRepository.markCompletedBatch(Map.of(habit.getId(), List.of(LocalDate.now().minusDays(i + 4))));
+            }
+            // Snapshots and deltas alternate; the two newest snapshots are kept with their deltas
+            List<Path> files = IncrementalBackup.listBackups(tempDir);
+            assertEquals(4, files.size(), files.toString());
+            assertTrue(IncrementalBackup.isFull(files.get(0)));
+
+            backup.setRetention(10, 1);
+            backup.writeSnapshot();
+            assertEquals(1, IncrementalBackup.listBackups(tempDir).size(), "The newest snapshot is always kept");
+        }
+
+        try (Stream<Path> files = Files.list(tempDir)) {
+            assertTrue(files.noneMatch(path -> path.toString().endsWith(BinaryBackupHelper.TEMP_SUFFIX)));
+        }
+        assertEquals(toJson(habitRepository.getAllHabits()), toJson(IncrementalBackup.replay(tempDir)));
+    }
+
+    @Test
+    void testCloseWritesPendingChanges() throws IOException {
+        IncrementalBackup backup = new IncrementalBackup(tempDir, habitRepository);
+        backup.backup();
+        addHabit("Read", Habit.Frequency.DAILY);
+        backup.close();
+
+        addHabit("Not Recorded", Habit.Frequency.DAILY);
+        assertEquals(2, IncrementalBackup.listBackups(tempDir).size());
+        assertEquals(List.of("Read"), IncrementalBackup.replay(tempDir).stream().map(Habit::getName).toList());
+    }
+
+    @Test
+    void testRestoreReplaysBaseAndDeltas() throws IOException {
+        Habit read = addHabit("Read", Habit.Frequency.DAILY);
+        try (IncrementalBackup backup = new IncrementalBackup(tempDir, habitRepository)) {
+            backup.backup();
+            habitRepository.markCompletedBatch(Map.of(read.getId(), List.of(LocalDate.now().minusDays(1))));
+            addHabit("Walk", Habit.Frequency.WEEKLY);
+            backup.backup();
+        }
+        habitRepository.clearAll();
+
+        assertEquals(2, IncrementalBackup.restore(tempDir, 250, restored -> { }));
+        Habit restored = habitRepository.findHabitByName("Read");
+        assertTrue(restored.getCompletions().contains(LocalDate.now().minusDays(1)));
+        assertNotNull(habitRepository.findHabitByName("Walk"));
+        assertEquals(-1, IncrementalBackup.restore(tempDir.resolve("missing"), 250, restored2 -> { }));
+    }
+
+    @Test
+    void testAutomaticBackupFilesAreRecognized() {
+        assertTrue(IncrementalBackup.isBackupFile(Path.of("backups", "habits-000001-full.htb")));
+        assertTrue(IncrementalBackup.isBackupFile(Path.of("backups", "habits-000002-delta.htb")));
+        assertFalse(IncrementalBackup.isBackupFile(Path.of("habits.htb")));
+        assertFalse(IncrementalBackup.isBackupFile(Path.of("habits-000001-full.json")));
+    }
+
+    @Test
+    void testJournalKeepsChangesThatCouldNotBeWritten() {
+        BackupJournal journal = new BackupJournal();
+        journal.habitChanged(new HabitChange(HabitChange.Type.UPDATED, 1L));
+        journal.habitChanged(new HabitChange(HabitChange.Type.DELETED, 2L));
+        BackupJournal.Pending pending = journal.drain();
+        assertTrue(journal.isEmpty());
+
+        // A change made while the failed backup was running is newer than the one it took
+        journal.habitChanged(new HabitChange(HabitChange.Type.DELETED, 1L));
+        journal.restore(pending);
+
+        BackupJournal.Pending retried = journal.drain();
+        assertEquals(List.of(), retried.changedIds());
+        assertEquals(List.of(2L, 1L), retried.deletedIds());
+        assertFalse(retried.cleared());
+    }
+}
@@ -0,0 +1,103 @@
+package org.habittracker.util;
+
+import org.habittracker.model.Habit;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MonthDueIndexTest {
+
+    private static final YearMonth NOVEMBER_2024 = YearMonth.of(2024, 11);
+
+    private Habit habit(String name, Habit.Frequency frequency, LocalDate creationDate) {
+        Habit habit = new Habit(name, frequency);
+        habit.setCreationDate(creationDate);
+        return habit;
+    }
+
+    @Test
+    void testDailyHabitDueEveryDay() {
+        Habit daily = habit("Daily", Habit.Frequency.DAILY, LocalDate.of(2024, 10, 1));
+        MonthDueIndex index = MonthDueIndex.build(NOVEMBER_2024, List.of(daily));
+
+        for (int day = 1; day <= NOVEMBER_2024.lengthOfMonth(); day++) {
+            assertEquals(List.of(daily), index.habitsDueOn(day), "Daily habit should be due on day " + day);
+        }
+    }
+
+    @Test
+    void testCustomHabitDueOnSelectedWeekdays() {
+        Habit custom = new Habit("Custom", Habit.Frequency.CUSTOM, List.of(DayOfWeek.MONDAY, DayOfWeek.FRIDAY));
+        MonthDueIndex index = MonthDueIndex.build(NOVEMBER_2024, List.of(custom));
+
+        assertTrue(index.hasHabitsDueOn(1));  // Friday
+        assertTrue(index.hasHabitsDueOn(4));  // Monday
+        assertFalse(index.hasHabitsDueOn(5)); // Tuesday
+        assertEquals(9, countDueDays(index));
+    }
+
+    @Test
+    void testWeeklyHabitDueOnCreationWeekday() {
+        // 2024-10-02 is a Wednesday
+        Habit weekly = habit("Weekly", Habit.Frequency.WEEKLY, LocalDate.of(2024, 10, 2));
+        MonthDueIndex index = MonthDueIndex.build(NOVEMBER_2024, List.of(weekly));
+
+        assertTrue(index.hasHabitsDueOn(6));
+        assertTrue(index.hasHabitsDueOn(27));
+        assertFalse(index.hasHabitsDueOn(7));
+        assertEquals(4, countDueDays(index));
+    }
+
+    @Test
+    void testMonthlyHabitClampedToShortMonth() {
+        Habit monthly = habit("Monthly", Habit.Frequency.MONTHLY, LocalDate.of(2024, 1, 31));
+        MonthDueIndex index = MonthDueIndex.build(NOVEMBER_2024, List.of(monthly));
+
+        assertTrue(index.hasHabitsDueOn(30));
+        assertEquals(1, countDueDays(index));
+    }
+
+    @Test
+    void testHabitsDueOnKeepsSnapshotOrder() {
+        Habit first = habit("First", Habit.Frequency.DAILY, LocalDate.of(2024, 1, 1));
+        Habit second = habit("Second", Habit.Frequency.MONTHLY, LocalDate.of(2024, 1, 15));
+        Habit third = habit("Third", Habit.Frequency.DAILY, LocalDate.of(2024, 1, 1));
+        MonthDueIndex index = MonthDueIndex.build(NOVEMBER_2024, List.of(first, second, third));
+
+        assertEquals(List.of(first, second, third), index.habitsDueOn(15));
+        assertEquals(2, index.countDueOn(16));
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "DAILY, 2024-11-01, 2024-11-13, true",
+            "WEEKLY, 2024-11-04, 2024-11-18, true",
+            "WEEKLY, 2024-11-04, 2024-11-19, false",
+            "MONTHLY, 2024-10-15, 2024-11-15, true",
+            "MONTHLY, 2024-10-15, 2024-11-16, false"
+    })
+    void testIsDueMatchesIndex(Habit.Frequency frequency, LocalDate creationDate, LocalDate date, boolean expected) {
+        Habit habit = habit("Habit", frequency, creationDate);
+        MonthDueIndex index = MonthDueIndex.build(YearMonth.from(date), List.of(habit));
+
+        assertEquals(expected, MonthDueIndex.isDue(habit, date));
+        assertEquals(expected, index.hasHabitsDueOn(date.getDayOfMonth()));
+    }
+
+    private int countDueDays(MonthDueIndex index) {
+        int count = 0;
+        for (int day = 1; day <= index.getMonth().lengthOfMonth(); day++) {
+            if (index.hasHabitsDueOn(day)) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
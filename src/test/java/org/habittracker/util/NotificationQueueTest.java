@@ -0,0 +1,67 @@
+package org.habittracker.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class NotificationQueueTest {
+
+    private static final String SUMMARY = "Reminder: %d habits are due tomorrow!";
+
+    private static NotificationQueue.Notification message(String text) {
+        return new NotificationQueue.Notification(text, NotificationColors.GREEN, null);
+    }
+
+    private static NotificationQueue.Notification reminder(String habit) {
+        return new NotificationQueue.Notification("Reminder: '" + habit + "' is due tomorrow!", NotificationColors.BLUE,
+                SUMMARY);
+    }
+
+    @Test
+    void testMessagesAreShownInOrderWithoutDuplicates() {
+        NotificationQueue queue = new NotificationQueue(10);
+        queue.add(message("Habit added"));
+        queue.add(message("Backup created"));
+        queue.add(message("Habit added"));
+
+        assertEquals("Habit added", queue.next().message());
+        assertEquals("Backup created", queue.next().message());
+        assertNull(queue.next());
+    }
+
+    @Test
+    void testBurstOfRemindersBecomesOneSummary() {
+        NotificationQueue queue = new NotificationQueue(10);
+        queue.add(message("Habit added"));
+        for (String habit : new String[] {"Read", "Walk", "Stretch", "Journal", "Meditate"}) {
+            queue.add(reminder(habit));
+        }
+        queue.add(message("Report available"));
+
+        assertEquals("Habit added", queue.next().message());
+        NotificationQueue.Notification summary = queue.next();
+        assertEquals("Reminder: 5 habits are due tomorrow!", summary.message());
+        assertEquals(NotificationColors.BLUE, summary.color());
+        assertEquals("Report available", queue.next().message());
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    void testSingleGroupedMessageIsShownAsIs() {
+        NotificationQueue queue = new NotificationQueue(10);
+        queue.add(reminder("Read"));
+        assertEquals("Reminder: 'Read' is due tomorrow!", queue.next().message());
+    }
+
+    @Test
+    void testOldestMessagesAreDroppedWhenFull() {
+        NotificationQueue queue = new NotificationQueue(3);
+        for (int i = 1; i <= 5; i++) {
+            queue.add(message("Message " + i));
+        }
+
+        assertEquals(3, queue.size());
+        assertEquals(2, queue.getDropped());
+        assertEquals("Message 3", queue.next().message());
+    }
+}
@@ -0,0 +1,47 @@
+package org.habittracker.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalTime;
+import java.util.prefs.BackingStoreException;
+import java.util.prefs.Preferences;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReminderSettingsTest {
+
+    private Preferences preferences;
+    private ReminderSettings settings;
+
+    @BeforeEach
+    void setUp() {
+        preferences = Preferences.userRoot().node("habittracker-test/reminder-settings-" + System.nanoTime());
+        settings = new ReminderSettings(preferences);
+    }
+
+    @AfterEach
+    void tearDown() throws BackingStoreException {
+        preferences.removeNode();
+    }
+
+    @Test
+    void testDefaultsToNineWhenNothingIsSaved() {
+        assertEquals(ReminderSettings.DEFAULT_REMINDER_TIME, settings.getReminderTime());
+    }
+
+    @Test
+    void testSavedTimeIsReadBack() {
+        settings.setReminderTime(LocalTime.of(18, 30));
+
+        assertEquals(LocalTime.of(18, 30), new ReminderSettings(preferences).getReminderTime());
+    }
+
+    @Test
+    void testInvalidSavedTimeFallsBackToDefault() {
+        preferences.put(ReminderSettings.REMINDER_TIME_KEY, "half past nine");
+
+        assertEquals(ReminderSettings.DEFAULT_REMINDER_TIME, settings.getReminderTime());
+    }
+}
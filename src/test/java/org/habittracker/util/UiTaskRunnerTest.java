@@ -0,0 +1,108 @@
+package org.habittracker.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UiTaskRunnerTest {
+
+    // Stands in for the FX thread: results queue here until the test runs them
+    private final LinkedBlockingQueue<Runnable> uiQueue = new LinkedBlockingQueue<>();
+    private final List<String> shown = new ArrayList<>();
+    private ExecutorService workers;
+    private UiTaskRunner runner;
+
+    @BeforeEach
+    void setUp() {
+        workers = Executors.newSingleThreadExecutor();
+        runner = new UiTaskRunner(workers, uiQueue::add, () -> true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        workers.shutdownNow();
+    }
+
+    private void runNextUiTask() throws InterruptedException {
+        Runnable next = uiQueue.poll(5, TimeUnit.SECONDS);
+        assertNotNull(next, "The task result was not published");
+        next.run();
+    }
+
+    @Test
+    void testResultIsPublishedThroughUiExecutor() throws InterruptedException {
+        runner.submit("habit-list", () -> "Read", shown::add);
+
+        runNextUiTask();
+
+        assertEquals(List.of("Read"), shown);
+        assertFalse(runner.isPending("habit-list"));
+        assertTrue(runner.getLastRunMillis("habit-list") >= 0);
+    }
+
+    @Test
+    void testNewerTaskWithSameKeyDropsStaleResult() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        runner.submit("habit-list", () -> {
+            started.countDown();
+            release.await();
+            return "R";
+        }, shown::add);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        runner.submit("habit-list", () -> "Read", shown::add);
+        release.countDown();
+
+        runNextUiTask();
+        runNextUiTask();
+
+        assertEquals(List.of("Read"), shown);
+    }
+
+    @Test
+    void testCancelAllDropsResultsNotYetShown() throws InterruptedException {
+        runner.submit("report", () -> "2023-10", shown::add);
+        Runnable publish = uiQueue.poll(5, TimeUnit.SECONDS);
+        assertNotNull(publish);
+
+        runner.cancelAll();
+        publish.run();
+
+        assertTrue(shown.isEmpty());
+        assertFalse(runner.isPending("report"));
+    }
+
+    @Test
+    void testFailedTaskIsNotPublished() throws InterruptedException {
+        runner.<String>submit("progress-stats", () -> {
+            throw new IllegalStateException("Query failed");
+        }, shown::add);
+        runner.submit("due-today", () -> "Walk", shown::add);
+
+        runNextUiTask();
+
+        assertEquals(List.of("Walk"), shown);
+        assertFalse(runner.isPending("progress-stats"));
+    }
+
+    @Test
+    void testCallerOffUiThreadGetsResultInline() {
+        UiTaskRunner inline = new UiTaskRunner(workers, uiQueue::add, () -> false);
+
+        inline.submit("report", () -> "2023-10", shown::add);
+
+        assertEquals(List.of("2023-10"), shown);
+        assertTrue(uiQueue.isEmpty());
+        assertTrue(inline.getLastRunMillis("report") >= 0);
+    }
+}
@@ -0,0 +1,118 @@
+package org.habittracker.util;
+
+import org.habittracker.model.CompletionBitmap;
+import org.habittracker.model.Habit;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WeekdayScheduleTest {
+
+    private static final LocalDate ORIGIN = LocalDate.of(2019, 1, 1);
+
+    private List<DayOfWeek> randomDays(Random random) {
+        List<DayOfWeek> days = new ArrayList<>();
+        for (DayOfWeek day : DayOfWeek.values()) {
+            if (random.nextBoolean()) {
+                days.add(day);
+            }
+        }
+        return days;
+    }
+
+    // Day-by-day walk the closed form replaced
+    private int walkCount(Set<DayOfWeek> days, LocalDate start, LocalDate end) {
+        int count = 0;
+        for (LocalDate date = start; !date.isAfter(end); date = date.plusDays(1)) {
+            if (days.contains(date.getDayOfWeek())) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    // Expected completions before the closed form, for every frequency
+    private int walkExpected(Habit habit, LocalDate start, LocalDate end) {
+        return switch (habit.getFrequency()) {
+            case DAILY -> (int) ChronoUnit.DAYS.between(start, end) + 1;
+            case WEEKLY -> (int) ChronoUnit.WEEKS.between(start, end) + 1;
+            case MONTHLY -> (int) ChronoUnit.MONTHS.between(start, end) + 1;
+            case CUSTOM -> walkCount(Set.copyOf(habit.getCustomDays()), start, end);
+        };
+    }
+
+    @Test
+    void testCountBetweenMatchesWalk() {
+        Random random = new Random(12);
+        for (int i = 0; i < 2_000; i++) {
+            List<DayOfWeek> days = randomDays(random);
+            LocalDate start = ORIGIN.plusDays(random.nextInt(2_000));
+            LocalDate end = start.plusDays(random.nextInt(2_000) - 10);
+
+            assertEquals(walkCount(Set.copyOf(days), start, end), WeekdaySchedule.of(days).countBetween(start, end),
+                    days + " from " + start + " to " + end);
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(Habit.Frequency.class)
+    void testExpectedCompletionsMatchWalk(Habit.Frequency frequency) {
+        Random random = new Random(frequency.ordinal());
+        for (int i = 0; i < 500; i++) {
+            Habit habit = new Habit("Habit", frequency, randomDays(random));
+            LocalDate start = ORIGIN.plusDays(random.nextInt(2_000));
+            LocalDate end = start.plusDays(random.nextInt(1_900));
+
+            assertEquals(walkExpected(habit, start, end),
+                    HabitStatisticsCalculator.calculateExpectedCompletions(habit, start, end),
+                    frequency + " " + habit.getCustomDays() + " from " + start + " to " + end);
+        }
+    }
+
+    @Test
+    void testFullyCompletedMatchesWalk() {
+        Random random = new Random(5);
+        for (int i = 0; i < 1_000; i++) {
+            List<DayOfWeek> days = randomDays(random);
+            Set<DayOfWeek> daySet = Set.copyOf(days);
+            CompletionBitmap completions = new CompletionBitmap();
+            double density = 0.7 + random.nextDouble() * 0.3;
+            for (LocalDate date = ORIGIN; date.isBefore(ORIGIN.plusDays(400)); date = date.plusDays(1)) {
+                if (daySet.contains(date.getDayOfWeek()) ? random.nextDouble() < density : random.nextBoolean()) {
+                    completions.add(date);
+                }
+            }
+            LocalDate start = ORIGIN.plusDays(random.nextInt(380));
+            LocalDate end = start.plusDays(random.nextInt(40));
+
+            boolean expected = true;
+            for (LocalDate date = start; !date.isAfter(end); date = date.plusDays(1)) {
+                if (daySet.contains(date.getDayOfWeek()) && !completions.contains(date)) {
+                    expected = false;
+                    break;
+                }
+            }
+            assertEquals(expected, WeekdaySchedule.of(days).isFullyCompleted(completions, start, end),
+                    days + " from " + start + " to " + end);
+        }
+    }
+
+    @Test
+    void testEmptyScheduleHasNoScheduledDays() {
+        WeekdaySchedule schedule = WeekdaySchedule.of(null);
+
+        assertEquals(0, schedule.getDaysPerWeek());
+        assertEquals(0, schedule.countBetween(ORIGIN, ORIGIN.plusYears(5)));
+        assertFalse(schedule.includes(DayOfWeek.MONDAY));
+    }
+}